@@ -0,0 +1,82 @@
+package com.aimoodchecker.bench;
+
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.dao.MoodHistoryGenerator;
+import com.aimoodchecker.dao.MoodHistoryGenerator.Config;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneOffset;
+
+/**
+ * Benchmark databases of a given size, written by MoodHistoryGenerator once and reused by
+ * later runs (the same day).
+ *
+ * DBConnection reads the database path once per JVM, so {@link #open} must run before anything
+ * touches the database, and each fork can only use one dataset. JMH forks a fresh JVM per
+ * benchmark and parameter combination, which fits; don't run these benchmarks with -f 0.
+ */
+public final class Datasets {
+
+    /**
+     * Entries are spread over this many days ending today, so range reads grow with the size
+     */
+    public static final int SPAN_DAYS = 3 * 365;
+
+    private static final String DIRECTORY = System.getProperty("aimoodchecker.bench.dir", "target/datasets");
+    private static final long SEED = 42;
+
+    private Datasets() {}
+
+    /**
+     * Points the app at the dataset with the given number of entries, creating it if needed
+     * @return The database file
+     */
+    public static File open(int entries) throws SQLException {
+        File file = new File(DIRECTORY, "mood-" + entries + ".db");
+        file.getParentFile().mkdirs();
+        System.setProperty("aimoodchecker.db", file.getPath());
+        DBConnection.initDatabase();
+
+        // Reusable only if it was generated with these settings up to today; "last 30 days" reads depend on it
+        Config config = config(entries);
+        boolean current = DBConnection.getWriter().runStandalone(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS bench_dataset (end_date TEXT, entries INTEGER, seed INTEGER)");
+                try (ResultSet rs = stmt.executeQuery("SELECT end_date, entries, seed FROM bench_dataset")) {
+                    return rs.next() && config.end().toString().equals(rs.getString(1))
+                        && rs.getLong(2) == config.entries() && rs.getLong(3) == config.seed();
+                }
+            }
+        });
+        if (!current) {
+            System.out.println("Creating benchmark dataset with " + entries + " entries in " + file);
+            DBConnection.getWriter().runStandalone(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("DELETE FROM mood_entries");
+                    stmt.execute("DELETE FROM bench_dataset");
+                }
+                MoodHistoryGenerator.write(conn, config);
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO bench_dataset VALUES (?, ?, ?)")) {
+                    stmt.setString(1, config.end().toString());
+                    stmt.setLong(2, config.entries());
+                    stmt.setLong(3, config.seed());
+                    stmt.executeUpdate();
+                }
+                return null;
+            });
+        }
+        return file;
+    }
+
+    private static Config config(int entries) {
+        return Config.defaults()
+            .withSeed(SEED)
+            .withDays(SPAN_DAYS)
+            .withEntries(entries)
+            .withZone(ZoneOffset.UTC);
+    }
+}
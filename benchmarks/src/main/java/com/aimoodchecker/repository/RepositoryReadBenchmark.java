@@ -0,0 +1,117 @@
+package com.aimoodchecker.repository;
+
+import com.aimoodchecker.bench.Datasets;
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.model.MoodEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of EntryRepository against datasets of 1k to 10M entries.
+ * Lives in the repository package to reach createMoodEntryFromResultSet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// getAllMoodEntries materializes every entry; 10M of them need several GB
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class RepositoryReadBenchmark {
+
+    /**
+     * Rows mapped per invocation in the row-mapping benchmarks
+     */
+    private static final int MAPPED_ROWS = 1000;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int entries;
+
+    private EntryRepository repo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Datasets.open(entries);
+        repo = EntryRepository.getInstance();
+    }
+
+    @Benchmark
+    public List<MoodEntry> getAllMoodEntries() throws SQLException {
+        return repo.getAllMoodEntries();
+    }
+
+    @Benchmark
+    public List<MoodEntry> getMoodEntriesForDateRange() throws SQLException {
+        LocalDate today = LocalDate.now();
+        return repo.getMoodEntriesForDateRange(today.minusDays(29), today);
+    }
+
+    @Benchmark
+    public List<EntryRepository.TrendPoint> findDailyAverages() throws SQLException {
+        return repo.findDailyAverages(30);
+    }
+
+    @Benchmark
+    public EntryRepository.MoodStatistics getMoodStatistics() throws SQLException {
+        return repo.getMoodStatistics(30);
+    }
+
+    @Benchmark
+    public EntryRepository.MoodPatterns getMoodPatterns() throws SQLException {
+        return repo.getMoodPatterns();
+    }
+
+    /**
+     * Baseline for mapRows: the same query, stepping through the rows without mapping them
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(MAPPED_ROWS)
+    public void scanRows(Blackhole blackhole) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(latestRowsSql());
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getInt(1));
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(MAPPED_ROWS)
+    public void mapRows(Blackhole blackhole) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(latestRowsSql());
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(repo.createMoodEntryFromResultSet(rs));
+            }
+        }
+    }
+
+    private static String latestRowsSql() {
+        return "SELECT * FROM mood_entries ORDER BY id DESC LIMIT " + MAPPED_ROWS;
+    }
+}
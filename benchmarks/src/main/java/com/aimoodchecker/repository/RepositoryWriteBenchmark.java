@@ -0,0 +1,88 @@
+package com.aimoodchecker.repository;
+
+import com.aimoodchecker.bench.Datasets;
+import com.aimoodchecker.dao.DBConnection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * saveMoodEntry throughput on top of datasets of 1k to 10M entries, from one thread and from
+ * several (the writer thread groups concurrent saves into one commit). Entries written by a
+ * run are deleted afterwards so the dataset can be reused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryWriteBenchmark {
+
+    private static final String[] MOODS = { "Happy", "Neutral", "Sad" };
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int entries;
+
+    private EntryRepository repo;
+    private long lastIdBefore;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Datasets.open(entries);
+        repo = EntryRepository.getInstance();
+        lastIdBefore = DBConnection.getWriter().runStandalone(conn -> {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM mood_entries")) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        DBConnection.getWriter().runStandalone(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM mood_entries WHERE id > ?")) {
+                stmt.setLong(1, lastIdBefore);
+                return stmt.executeUpdate();
+            }
+        });
+        DBConnection.closeConnection();
+    }
+
+    @Benchmark
+    public void saveMoodEntry() throws SQLException {
+        save();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void saveMoodEntryConcurrent() throws SQLException {
+        save();
+    }
+
+    private void save() throws SQLException {
+        int n = counter.getAndIncrement();
+        repo.saveMoodEntry(MOODS[n % MOODS.length], "benchmark entry " + n + " after a long day at work");
+    }
+}
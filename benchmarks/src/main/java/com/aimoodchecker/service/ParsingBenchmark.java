@@ -0,0 +1,93 @@
+package com.aimoodchecker.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sentiment scoring and coaching response parsing, which don't touch the database; sized by
+ * the length of the text instead of the number of entries.
+ * Lives in the service package to reach extractContentFromResponse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+    private static final String[] WORDS = (
+        "work deadline boss meeting tired sleep stress anxious friends family walk park coffee "
+        + "rain sunny holiday exam money lonely calm proud grateful relaxed music book weekend").split(" ");
+
+    /**
+     * Words per description, and per suggestion block in the API response
+     */
+    @Param({ "8", "64", "512" })
+    public int words;
+
+    private final ChatGPTService chatGPT = new ChatGPTService();
+    private String description;
+    private String response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        description = text(random, words);
+
+        // Shaped like a chat completion: the content field comes after id, model and role,
+        // with its newlines JSON-escaped as they arrive over the wire
+        String content = "1. " + text(random, words) + "\\n2. " + text(random, words) + "\\n3. " + text(random, words);
+        response = """
+            {
+              "id": "chatcmpl-123",
+              "object": "chat.completion",
+              "created": 1700000000,
+              "model": "gpt-3.5-turbo-0125",
+              "choices": [
+                {
+                  "index": 0,
+                  "message": {
+                    "role": "assistant",
+                    "content": "%s"
+                  },
+                  "finish_reason": "stop"
+                }
+              ],
+              "usage": { "prompt_tokens": 250, "completion_tokens": 180, "total_tokens": 430 }
+            }
+            """.formatted(content);
+    }
+
+    @Benchmark
+    public String extractContentFromResponse() {
+        return chatGPT.extractContentFromResponse(response);
+    }
+
+    @Benchmark
+    public double getSentimentScore() {
+        return chatGPT.getSentimentScore(description);
+    }
+
+    private static String text(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) text.append(' ');
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,14 @@
+@echo off
+echo Generating a synthetic mood history...
+echo.
+
+REM Compile and collect the dependency classpath (sqlite-jdbc)
+call mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+set /p DEPS=<target/cp.txt
+
+REM Options: --out FILE --entries N --years Y --seed S --moods 0.4,0.35,0.25 --weekly 1 --active 0.85 --zone Europe/Berlin
+REM Example: generate-data.bat --out big.db --years 5 --entries 10000000
+REM Open the result with: java -Daimoodchecker.db=big.db ...
+java -cp "target/classes;%DEPS%" com.aimoodchecker.dao.MoodHistoryGenerator %*
+
+pause
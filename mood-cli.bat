@@ -0,0 +1,12 @@
+@echo off
+REM Headless command line for bulk work on the mood database; no JavaFX is loaded.
+REM Diagnostics go to stderr and logs/aimoodchecker.log, so stdout can be piped.
+
+REM Compile and collect the dependency classpath (sqlite-jdbc, Jackson)
+call mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+set /p DEPS=<target/cp.txt
+
+REM Commands: import, export, rescore, rollups, stats, report, maintenance (run without arguments for usage)
+REM Example: mood-cli.bat --db big.db export backup.csv
+REM Example: mood-cli.bat report --days 7 --out week.md
+java -cp "target/classes;%DEPS%" com.aimoodchecker.cli.MoodCli %*
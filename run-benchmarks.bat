@@ -0,0 +1,22 @@
+@echo off
+echo Running JMH benchmarks (datasets of 1k-10M entries are created on first use)...
+echo.
+
+REM Results go to benchmarks\results\<name>.json; pass a name, e.g. run-benchmarks.bat before-index
+set NAME=%1
+if "%NAME%"=="" set NAME=latest
+
+REM 1. Install the app so the benchmark module can depend on it
+call mvn -q install -DskipTests
+
+REM 2. Build benchmarks\target\benchmarks.jar
+call mvn -q -f benchmarks\pom.xml package
+
+REM 3. Run; extra JMH options (e.g. a benchmark name regex) can follow the result name
+cd benchmarks
+java -jar target\benchmarks.jar -rf json -rff results\%NAME%.json %2 %3 %4 %5 %6
+cd ..
+
+echo.
+echo Results written to benchmarks\results\%NAME%.json
+pause
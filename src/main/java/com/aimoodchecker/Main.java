@@ -1,54 +1,130 @@
 package com.aimoodchecker;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import com.aimoodchecker.api.ApiServer;
+import com.aimoodchecker.controller.AppController;
 import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.startup.StartupOrchestrator;
+import com.aimoodchecker.startup.StartupTimeline;
 
 public class Main extends Application {
+    private static final Logger log = Log.get(Main.class);
+
+    /**
+     * Training runs start the app, visit every view once and exit; used to record
+     * an AppCDS / AOT cache (see training-run.bat)
+     */
+    private static final String TRAINING_RUN_FLAG = "--training-run";
+
+    private final StartupTimeline timeline = new StartupTimeline();
 
     @Override
-    public void start(Stage stage) throws IOException {
+    public void start(Stage stage) throws Exception {
         try {
-            System.out.println("Starting application...");
+            log.info("Starting application");
             
-            // Initialize database
-            System.out.println("Initializing database...");
-            DBConnection.initDatabase();
+            // Only the shell is built on the FX thread; everything else starts in the background
+            AppController appController = timeline.time("shell window", () -> showShell(stage));
 
-            System.out.println("Loading FXML...");
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/App.fxml"));
+            StartupOrchestrator.Progress progress = new StartupOrchestrator(timeline, BackgroundExecutor.getInstance())
+                .start(appController);
 
-            Parent root = loader.load();
-            
-            Scene scene = new Scene(root,960,600);
-            
-            // Load CSS
-            var css = getClass().getResource("/styles.css");
-            if (css != null) {
-                scene.getStylesheets().add(css.toExternalForm());
-                System.out.println("CSS loaded successfully");
-            } else {
-                System.err.println("CSS file not found!");
-            }
-            
-            // Set up the stage
-            stage.setTitle("AI Mood Checker");
-            stage.setScene(scene);
-            stage.show();
-            System.out.println("Application started successfully");
+            progress.interactive().whenComplete((v, e) -> Platform.runLater(() -> {
+                appController.goHome();
+                appController.setStatus(e == null ? "Ready" : "Started with errors - see log");
+                timeline.mark("home view shown");
+
+                // The next pulse is the first frame the user can interact with
+                Platform.runLater(() -> {
+                    timeline.mark("first interactive frame");
+                    if (getParameters().getRaw().contains(TRAINING_RUN_FLAG)) {
+                        progress.complete().whenComplete((done, err) -> Platform.runLater(() -> runTraining(appController)));
+                    }
+                });
+            }));
+
+            progress.complete().whenComplete((v, e) -> Platform.runLater(() -> {
+                timeline.mark("startup complete");
+                timeline.print();
+            }));
         } catch (Exception e) {
-            System.err.println("Error starting application: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error starting application", e);
             throw e;
                   
         }
     }
 
+    @Override
+    public void stop() {
+        log.info("Stopping application");
+        ApiServer.getInstance().stop();
+        // Let in-flight saves finish before the connection goes away
+        BackgroundExecutor.getInstance().shutdown(Duration.ofSeconds(3));
+        DBConnection.closeConnection();
+        Log.flush();
+    }
+
+    /**
+     * Loads the shell layout and stylesheet and shows the window
+     */
+    private AppController showShell(Stage stage) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/App.fxml"));
+
+        Parent root = loader.load();
+        AppController appController = loader.getController();
+
+        Scene scene = new Scene(root,960,600);
+
+        scene.getAccelerators().put(
+            new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN),
+            appController::goDiagnostics);
+
+        // Load CSS
+        var css = getClass().getResource("/styles.css");
+        if (css != null) {
+            scene.getStylesheets().add(css.toExternalForm());
+            log.debug("CSS loaded");
+        } else {
+            log.warn("CSS file not found");
+        }
+
+        // Set up the stage
+        stage.setTitle("AI Mood Checker");
+        stage.setScene(scene);
+        stage.show();
+        log.info("Application window shown");
+        return appController;
+    }
+
+    /**
+     * Visits every view once so their classes are loaded and recorded, then exits
+     */
+    private void runTraining(AppController appController) {
+        log.info("Training run: visiting all views");
+        List<Runnable> visits = List.of(appController::goCompose, appController::goHistory,
+                                        appController::goGraph, appController::goHeatmap,
+                                        appController::goHome);
+        for (Runnable visit : visits) {
+            visit.run();
+        }
+        Platform.runLater(Platform::exit);
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,36 @@
+package com.aimoodchecker;
+
+import java.io.File;
+
+/**
+ * Scratch database for the Test* programs, which delete and refill it on every run.
+ * The file is -Daimoodchecker.db if set, else the test's own default; the app's
+ * mood.db is refused, so a mistyped property can't wipe the real journal.
+ */
+final class ScratchDatabase {
+
+    private static final String APP_DATABASE = "mood.db";
+
+    private ScratchDatabase() {}
+
+    /**
+     * Points DBConnection at the scratch file and deletes it with its -wal and -shm files.
+     * Must run before DBConnection is first used.
+     * @return The database file name
+     */
+    static String prepare(String defaultFile) {
+        if (System.getProperty("aimoodchecker.db") == null) {
+            System.setProperty("aimoodchecker.db", defaultFile);
+        }
+        String dbFile = System.getProperty("aimoodchecker.db");
+        // By name, wherever it is: the app opens mood.db in whatever directory it starts in
+        if (new File(dbFile).getName().equalsIgnoreCase(APP_DATABASE)) {
+            throw new IllegalArgumentException("Refusing to run against " + dbFile
+                + ": tests delete their database, use a scratch file such as " + defaultFile);
+        }
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            new File(dbFile + suffix).delete();
+        }
+        return dbFile;
+    }
+}
@@ -0,0 +1,430 @@
+package com.aimoodchecker;
+
+import com.aimoodchecker.api.ApiServer;
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.metrics.LatencyHistogram;
+import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.repository.EntryRepository;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Functional and load test for the local HTTP API (ApiServer). Runs against a scratch
+ * database (api-load-test.db unless -Daimoodchecker.db is set) and refuses the real mood.db.
+ * First checks CRUD, validation, conditional GETs and the refusal of requests a web page
+ * could make, request by request, then runs CLIENTS concurrent clients against a mix of
+ * reads while a writer keeps changing the data, and reports throughput and latency. Fails
+ * on any 5xx, transport error or unexpected status.
+ *
+ * Arguments: [seconds] [clients], default 10 and 64.
+ */
+public class TestApiLoad {
+
+    private static final int SEED_ENTRIES = 5000;
+    private static final int SEED_DAYS = 365;
+    private static final int DEFAULT_SECONDS = 10;
+    private static final int DEFAULT_CLIENTS = 64;
+    // Pause between the background writer's saves, so roughly 20 data versions a second
+    private static final long WRITE_PAUSE_MILLIS = 50;
+    private static final int TARGET_PER_SECOND = 1000;
+
+    private static final String[] WORDS = {
+        "work", "deadline", "friends", "walk", "coffee", "rain", "sunny", "tired", "calm", "proud",
+        "family", "music", "exam", "lonely", "grateful", "weekend", "stress", "park", "book", "sleep"
+    };
+    private static final String[] MOODS = { "Happy", "Neutral", "Sad" };
+
+    private static HttpClient client;
+    private static String base;
+    private static final List<String> problems = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SECONDS;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CLIENTS;
+        String dbFile = ScratchDatabase.prepare("api-load-test.db");
+
+        System.out.println("Local API load test");
+        System.out.println("===================");
+        System.out.println("Database: " + dbFile);
+
+        DBConnection.initDatabase();
+        EntryRepository repo = EntryRepository.getInstance();
+        int firstId = seed(repo);
+        int port = ApiServer.getInstance().start(repo, 0);
+        base = "http://127.0.0.1:" + port + "/api/";
+        client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+        try {
+            checkRequests();
+            if (problems.isEmpty()) {
+                runLoad(port, seconds, clients, firstId);
+            }
+        } finally {
+            ApiServer.getInstance().stop();
+            DBConnection.closeConnection();
+        }
+
+        if (problems.isEmpty()) {
+            System.out.println("PASSED");
+        } else {
+            problems.stream().distinct().limit(20).forEach(p -> System.out.println("FAILED: " + p));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Inserts SEED_ENTRIES entries over the last SEED_DAYS days
+     * @return The ID of the first one; the rest follow consecutively
+     */
+    private static int seed(EntryRepository repo) throws Exception {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<MoodEntry> entries = new ArrayList<>(SEED_ENTRIES);
+        for (int i = 0; i < SEED_ENTRIES; i++) {
+            LocalDate date = today.minusDays(random.nextInt(SEED_DAYS));
+            entries.add(new MoodEntry(0, date, MOODS[random.nextInt(MOODS.length)], text(random, 8), null, null));
+        }
+        repo.importMoodEntries(entries);
+        System.out.printf("Seeded %d entries%n", SEED_ENTRIES);
+        return repo.getMoodEntriesForDateRange(today.minusDays(SEED_DAYS), today).stream()
+            .mapToInt(MoodEntry::getId).min().orElseThrow();
+    }
+
+    // ===== FUNCTIONAL CHECKS =====
+
+    private static void checkRequests() throws Exception {
+        HttpResponse<String> created = send("POST", "entries", "{\"mood_type\":\"Happy\",\"description\":\"api \\\"check\\\"\"}");
+        expect("create", created, 201);
+        String location = created.headers().firstValue("Location").orElse("");
+        String path = location.replaceFirst("^/api/", "");
+        if (!path.startsWith("entries/") || !created.body().contains("\"description\":\"api \\\"check\\\"\"")) {
+            problems.add("create: unexpected Location '" + location + "' or body " + created.body());
+            return;
+        }
+
+        HttpResponse<String> read = send("GET", path, null);
+        expect("read", read, 200);
+        String etag = read.headers().firstValue("ETag").orElse(null);
+        if (etag == null) {
+            problems.add("read: no ETag");
+            return;
+        }
+        expect("conditional read", send("GET", path, null, "If-None-Match", etag), 304);
+        expect("conditional read, weak tag", send("GET", path, null, "If-None-Match", "\"other\", W/" + etag), 304);
+
+        expect("update", send("PUT", path, "{\"mood_type\":\"Sad\",\"description\":\"changed\"}"), 200);
+        HttpResponse<String> reread = send("GET", path, null, "If-None-Match", etag);
+        expect("read after update with the old tag", reread, 200);
+        if (!reread.body().contains("\"mood_type\":\"Sad\"")) {
+            problems.add("read after update: " + reread.body());
+        }
+        if (etag.equals(reread.headers().firstValue("ETag").orElse(etag))) {
+            problems.add("read after update: ETag did not change");
+        }
+
+        expect("delete", send("DELETE", path, null), 204);
+        expect("read deleted", send("GET", path, null), 404);
+        expect("delete again", send("DELETE", path, null), 404);
+        expect("update deleted", send("PUT", path, "{\"mood_type\":\"Sad\",\"description\":\"x\"}"), 404);
+
+        expect("unknown mood", send("POST", "entries", "{\"mood_type\":\"Angry\"}"), 400);
+        expect("malformed body", send("POST", "entries", "{\"mood_type\":"), 400);
+        expect("bad id", send("GET", "entries/abc", null), 400);
+        expect("bad range", send("GET", "entries?from=2024-02-01&to=2024-01-01", null), 400);
+        expect("bad date", send("GET", "entries?from=yesterday", null), 400);
+        expect("bad days", send("GET", "trends?days=0", null), 400);
+        expect("wrong method", send("DELETE", "stats", null), 405);
+        expect("unknown path", send("GET", "nothing", null), 404);
+        checkCallers();
+
+        HttpResponse<String> range = send("GET", "entries?from=" + LocalDate.now().minusDays(6) + "&to=" + LocalDate.now(), null);
+        expect("range", range, 200);
+        expect("trends", send("GET", "trends?days=90", null), 200);
+        HttpResponse<String> stats = send("GET", "stats?days=365", null);
+        expect("stats", stats, 200);
+        if (!stats.body().contains("\"happy_count\"")) {
+            problems.add("stats: " + stats.body());
+        }
+        System.out.println("Request checks: " + (problems.isEmpty() ? "ok" : problems.size() + " failed"));
+    }
+
+    /**
+     * Requests a web page could make: another Host (DNS rebinding), another Origin, or a
+     * write the browser would send without a preflight
+     */
+    private static void checkCallers() throws Exception {
+        String body = "{\"mood_type\":\"Happy\",\"description\":\"from a web page\"}";
+        int before = EntryRepository.getInstance().getAllMoodEntries().size();
+
+        expect("plain text write", send("POST", "entries", body, "Content-Type", "text/plain"), 415);
+        expect("form write", send("POST", "entries", body, "Content-Type", "application/x-www-form-urlencoded"), 415);
+        expect("foreign origin write", send("POST", "entries", body, "Origin", "https://example.com"), 403);
+        expect("foreign origin read", send("GET", "stats", null, "Origin", "http://example.com"), 403);
+        expect("opaque origin read", send("GET", "stats", null, "Origin", "null"), 403);
+        expect("own origin read", send("GET", "stats", null, "Origin", base.substring(0, base.length() - "/api/".length())), 200);
+        if (EntryRepository.getInstance().getAllMoodEntries().size() != before) {
+            problems.add("a refused write created an entry");
+        }
+
+        int port = ApiServer.getInstance().getPort();
+        for (String host : new String[] { "rebound.example.com:" + port, "localhost:" + (port + 1), "" }) {
+            try (LoadClient connection = new LoadClient(port, host)) {
+                int status = connection.get("stats", null);
+                if (status != 403) problems.add("Host \"" + host + "\": expected 403, got " + status);
+            }
+        }
+        try (LoadClient connection = new LoadClient(port, "LOCALHOST:" + port)) {
+            int status = connection.get("stats", null);
+            if (status != 200) problems.add("Host LOCALHOST: expected 200, got " + status);
+        }
+    }
+
+    private static void expect(String what, HttpResponse<String> response, int status) {
+        if (response.statusCode() != status) {
+            problems.add(what + ": expected " + status + ", got " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    // ===== LOAD =====
+
+    private static void runLoad(int port, int seconds, int clients, int firstId) throws Exception {
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram writeLatency = new LatencyHistogram();
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        AtomicLong failures = new AtomicLong();
+        AtomicReference<String> lastTag = new AtomicReference<>("\"none\"");
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger writes = new AtomicInteger();
+
+        System.out.printf("Load: %d clients for %d s, with a write every %d ms%n", clients, seconds, WRITE_PAUSE_MILLIS);
+        long start = System.nanoTime();
+        // The writer gets a platform thread: a virtual thread waking from sleep() queues behind
+        // the busy clients on a machine with few cores, and would hardly ever write
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService writerThread = Executors.newSingleThreadExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                tasks.add(threads.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    try (LoadClient connection = new LoadClient(port, "localhost:" + port)) {
+                        while (running.get()) {
+                            int pick = random.nextInt(100);
+                            String path;
+                            String tag = null;
+                            if (pick < 60) {
+                                path = "entries/" + (firstId + random.nextInt(SEED_ENTRIES));
+                            } else if (pick < 75) {
+                                LocalDate to = LocalDate.now().minusDays(random.nextInt(SEED_DAYS));
+                                path = "entries?from=" + to.minusDays(6) + "&to=" + to;
+                            } else if (pick < 85) {
+                                path = "trends?days=30";
+                            } else if (pick < 90) {
+                                path = "stats?days=30";
+                            } else {
+                                // A poller revalidating the stats it already has
+                                path = "stats?days=30";
+                                tag = lastTag.get();
+                            }
+                            long t0 = System.nanoTime();
+                            int status = connection.get(path, tag);
+                            latency.record(System.nanoTime() - t0);
+                            statuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                            if (connection.etag != null) lastTag.set(connection.etag);
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        synchronized (problems) {
+                            problems.add("transport: " + e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            tasks.add(writerThread.submit(() -> {
+                Random random = new Random(7);
+                while (running.get()) {
+                    String body = "{\"mood_type\":\"" + MOODS[random.nextInt(MOODS.length)]
+                        + "\",\"description\":\"" + text(random, 6) + "\"}";
+                    long t0 = System.nanoTime();
+                    HttpResponse<String> response = send("POST", "entries", body);
+                    writeLatency.record(System.nanoTime() - t0);
+                    if (response.statusCode() != 201) {
+                        synchronized (problems) {
+                            problems.add("load write: " + response.statusCode() + " " + response.body());
+                        }
+                    }
+                    writes.incrementAndGet();
+                    Thread.sleep(WRITE_PAUSE_MILLIS);
+                }
+                return null;
+            }));
+
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        double perSecond = snapshot.count() / elapsed;
+        System.out.printf("Reads: %d in %.1f s (%.0f req/s), writes: %d%n", snapshot.count(), elapsed, perSecond, writes.get());
+        System.out.printf("Latency ms: p50 %.2f, p95 %.2f, p99 %.2f, max %.2f%n",
+            snapshot.p50Millis(), snapshot.p95Millis(), snapshot.p99Millis(), snapshot.maxMillis());
+        LatencyHistogram.Snapshot writeSnapshot = writeLatency.snapshot();
+        System.out.printf("Write latency ms: p50 %.2f, max %.2f%n", writeSnapshot.p50Millis(), writeSnapshot.maxMillis());
+        System.out.println("Statuses: " + new TreeMap<>(statuses));
+        System.out.printf("Target %d req/s: %s%n", TARGET_PER_SECOND, perSecond >= TARGET_PER_SECOND ? "met" : "missed");
+
+        statuses.forEach((status, count) -> {
+            if (status != 200 && status != 304) {
+                problems.add("load: " + count + " responses with status " + status);
+            }
+        });
+        if (!statuses.containsKey(304)) {
+            problems.add("load: no conditional request was answered with 304");
+        }
+        if (failures.get() > 0) {
+            problems.add("load: " + failures.get() + " transport failures");
+        }
+    }
+
+    // ===== HTTP =====
+
+    /**
+     * Bare HTTP/1.1 keep-alive connection for the load phase, which only sends GETs and skips
+     * the bodies. java.net.http spends several times more CPU per request than the server
+     * does, so on a small machine the test would otherwise measure its own client.
+     */
+    private static final class LoadClient implements AutoCloseable {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final StringBuilder line = new StringBuilder();
+        private final String host;
+        // ETag of the last response, or null
+        String etag;
+
+        LoadClient(int port, String host) throws IOException {
+            this.host = host;
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            out = socket.getOutputStream();
+        }
+
+        /**
+         * Sends a GET and reads the whole response
+         * @return The status code
+         */
+        int get(String path, String ifNoneMatch) throws IOException {
+            StringBuilder request = new StringBuilder("GET /api/").append(path).append(" HTTP/1.1\r\nHost: ").append(host).append("\r\n");
+            if (ifNoneMatch != null) {
+                request.append("If-None-Match: ").append(ifNoneMatch).append("\r\n");
+            }
+            out.write(request.append("\r\n").toString().getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            long length = 0;
+            boolean chunked = false;
+            etag = null;
+            for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+                int colon = header.indexOf(':');
+                String name = header.substring(0, colon).trim();
+                String value = header.substring(colon + 1).trim();
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    length = Long.parseLong(value);
+                } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                    chunked = value.equalsIgnoreCase("chunked");
+                } else if (name.equalsIgnoreCase("ETag")) {
+                    etag = value;
+                }
+            }
+            if (chunked) {
+                for (long size = Long.parseLong(readLine(), 16); size > 0; size = Long.parseLong(readLine(), 16)) {
+                    in.skipNBytes(size);
+                    readLine();
+                }
+                // Blank line after the last chunk
+                readLine();
+            } else {
+                in.skipNBytes(length);
+            }
+            return status;
+        }
+
+        private String readLine() throws IOException {
+            line.setLength(0);
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b < 0) throw new EOFException("Connection closed by the server");
+                if (b != '\r') line.append((char) b);
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static HttpResponse<String> send(String method, String path, String body, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + path))
+            .timeout(Duration.ofSeconds(10))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        boolean typed = false;
+        for (int i = 0; i < headers.length; i += 2) {
+            typed |= headers[i].equalsIgnoreCase("Content-Type");
+        }
+        if (body != null && !typed) {
+            request.header("Content-Type", "application/json");
+        }
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String text(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) text.append(' ');
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.aimoodchecker;
+
+import com.aimoodchecker.analytics.DivergenceAnalysis;
+import com.aimoodchecker.analytics.DivergenceAnalysis.PeriodStats;
+import com.aimoodchecker.repository.EntryRepository.EntryColumns;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Checks the divergence analysis on a synthetic history of one million entries:
+ * the parallel pass must match a plain sequential computation and finish in under a second.
+ * Runs entirely in memory, no database needed.
+ */
+public class TestDivergenceAnalysis {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int RUNS = 10;
+    private static final long TIME_LIMIT_MS = 1000;
+
+    public static void main(String[] args) {
+        System.out.println("Divergence analysis test");
+        System.out.println("========================");
+
+        EntryColumns columns = generate(ENTRIES, 42);
+        System.out.println("Entries: " + columns.size());
+
+        DivergenceAnalysis.Report report = null;
+        long best = Long.MAX_VALUE;
+        long worst = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            report = DivergenceAnalysis.analyze(columns);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            // The first run includes class loading and JIT warm-up
+            if (run > 0) worst = Math.max(worst, elapsed);
+        }
+
+        PeriodStats overall = report.overall();
+        System.out.printf("Overall: %d scored, correlation %.3f, mean gap %.3f, %d disagreements%n",
+            overall.count(), overall.correlation(), overall.meanGap(), report.disagreementCount());
+        System.out.printf("Months: %d, strongest disagreement gap %.3f%n",
+            report.months().size(), report.strongest().isEmpty() ? 0.0 : report.strongest().get(0).gap());
+        System.out.printf("Analysis time: best %.1f ms, worst after warm-up %.1f ms%n", best / 1e6, worst / 1e6);
+
+        boolean passed = true;
+        double[] expected = sequential(columns);
+        if (overall.count() != (int) expected[0]
+                || Math.abs(overall.correlation() - expected[1]) > 1e-9
+                || Math.abs(overall.meanGap() - expected[2]) > 1e-9
+                || report.disagreementCount() != (int) expected[3]) {
+            System.out.printf("FAILED: expected count %d, correlation %.6f, gap %.6f, disagreements %d%n",
+                (int) expected[0], expected[1], expected[2], (int) expected[3]);
+            passed = false;
+        }
+        int monthTotal = report.months().stream().mapToInt(PeriodStats::count).sum();
+        if (monthTotal != overall.count()) {
+            System.out.println("FAILED: months add up to " + monthTotal + " entries");
+            passed = false;
+        }
+        if (report.strongest().size() != Math.min(DivergenceAnalysis.MAX_FLAGGED, report.disagreementCount())) {
+            System.out.println("FAILED: kept " + report.strongest().size() + " disagreements");
+            passed = false;
+        }
+        if (worst / 1_000_000 >= TIME_LIMIT_MS) {
+            System.out.println("FAILED: slower than " + TIME_LIMIT_MS + " ms");
+            passed = false;
+        }
+
+        if (passed) {
+            System.out.println("PASSED");
+        } else {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * About ten entries a day, sentiment loosely following the mood, 2% without a score
+     */
+    private static EntryColumns generate(int size, long seed) {
+        Random random = new Random(seed);
+        int[] ids = new int[size];
+        int[] days = new int[size];
+        byte[] moods = new byte[size];
+        float[] sentiments = new float[size];
+        int firstDay = (int) LocalDate.of(2000, 1, 1).toEpochDay();
+
+        for (int i = 0; i < size; i++) {
+            ids[i] = i + 1;
+            days[i] = firstDay + i / 10;
+            int mood = 1 + 2 * random.nextInt(3);
+            moods[i] = (byte) mood;
+            double sentiment = (mood - 1) / 4.0 + random.nextGaussian() * 0.25;
+            sentiments[i] = random.nextInt(50) == 0 ? Float.NaN : (float) Math.max(0, Math.min(1, sentiment));
+        }
+        return new EntryColumns(ids, days, moods, sentiments);
+    }
+
+    /**
+     * Reference result: { count, correlation, mean gap, disagreements }
+     */
+    private static double[] sequential(EntryColumns columns) {
+        int n = 0;
+        int disagreements = 0;
+        double sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0, gaps = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            float y = columns.sentiments()[i];
+            if (Float.isNaN(y)) continue;
+            double x = (columns.moods()[i] - 1) / 4.0;
+            double gap = Math.abs(y - x);
+            n++;
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            syy += (double) y * y;
+            sxy += x * y;
+            gaps += gap;
+            if (gap >= DivergenceAnalysis.DISAGREEMENT_THRESHOLD) disagreements++;
+        }
+        double correlation = (n * sxy - sx * sy) / Math.sqrt((n * sxx - sx * sx) * (n * syy - sy * sy));
+        return new double[] { n, correlation, gaps / n, disagreements };
+    }
+}
@@ -0,0 +1,151 @@
+package com.aimoodchecker;
+
+import com.aimoodchecker.cli.MoodCli;
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.service.ChatGPTService;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Exports a history through the command line, deletes it and imports the file again, in
+ * CSV and in JSON Lines. Runs against a scratch database (export-test.db unless
+ * -Daimoodchecker.db is set) and refuses the real mood.db. Checks that:
+ * - every column except the id comes back as it was exported,
+ * - entries without an AI score come back with the score the import computes, not 0,
+ * - progress goes to stderr, so stdout stays clean for piping,
+ * - --batch 0 is rejected as an invalid argument.
+ */
+public class TestExportRoundTrip {
+
+    private static final int ENTRIES = 2_000;
+    private static final DateTimeFormatter SQLITE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] MOODS = { "Happy", "Neutral", "Sad" };
+    private static final String[] DESCRIPTIONS = {
+        "Great walk in the park with friends",
+        "Tired, but the deadline is done",
+        "Argued with my partner, \"again\"",
+        "Rainy day\nstayed in, read a book",
+        "Nothing special",
+        ""
+    };
+
+    public static void main(String[] args) throws Exception {
+        String dbFile = ScratchDatabase.prepare("export-test.db");
+
+        System.out.println("Export/import round trip test");
+        System.out.println("=============================");
+        System.out.println("Database: " + dbFile);
+
+        DBConnection.initDatabase();
+        EntryRepository repo = EntryRepository.getInstance();
+        List<MoodEntry> original = generate(ENTRIES, 11);
+        long unscored = original.stream().filter(entry -> entry.getSentimentScore() == null).count();
+        System.out.println("Entries: " + original.size() + ", " + unscored + " without an AI score");
+
+        List<String> problems = new ArrayList<>();
+        for (String format : new String[] { "csv", "jsonl" }) {
+            File file = new File(dbFile + "." + format);
+            repo.restoreMoodEntries(original);
+
+            StringWriter out = new StringWriter();
+            StringWriter err = new StringWriter();
+            int status = cli(out, err, "export", file.getPath());
+            if (status != 0) problems.add(format + ": export exited with " + status + ": " + err);
+
+            repo.deleteMoodEntries(repo.getAllMoodEntries().stream().map(MoodEntry::getId).toList());
+            status = cli(out, err, "import", file.getPath(), "--batch", "300");
+            if (status != 0) problems.add(format + ": import exited with " + status + ": " + err);
+            if (out.getBuffer().length() > 0) problems.add(format + ": progress written to stdout: " + out);
+
+            compare(format, original, repo.getAllMoodEntries(), problems);
+            repo.deleteMoodEntries(repo.getAllMoodEntries().stream().map(MoodEntry::getId).toList());
+            file.delete();
+        }
+
+        int status = cli(new StringWriter(), new StringWriter(), "import", "-", "--batch", "0");
+        if (status != 2) problems.add("--batch 0 exited with " + status + ", expected 2");
+
+        if (problems.isEmpty()) {
+            System.out.println("PASSED");
+            System.exit(0);
+        } else {
+            problems.stream().limit(20).forEach(problem -> System.out.println("FAILED: " + problem));
+            System.exit(1);
+        }
+    }
+
+    private static int cli(StringWriter out, StringWriter err, String... args) {
+        out.getBuffer().setLength(0);
+        err.getBuffer().setLength(0);
+        return MoodCli.run(new PrintWriter(out, true), new PrintWriter(err, true), args);
+    }
+
+    /**
+     * Matches entries by created_epoch, which generate() makes unique
+     */
+    private static void compare(String format, List<MoodEntry> expected, List<MoodEntry> actual, List<String> problems) {
+        if (actual.size() != expected.size()) {
+            problems.add(format + ": " + actual.size() + " entries imported, expected " + expected.size());
+        }
+        Map<Long, MoodEntry> byEpoch = new HashMap<>();
+        actual.forEach(entry -> byEpoch.put(entry.getCreatedEpoch(), entry));
+        ChatGPTService scorer = new ChatGPTService();
+
+        for (MoodEntry want : expected) {
+            MoodEntry got = byEpoch.get(want.getCreatedEpoch());
+            if (got == null) {
+                problems.add(format + ": entry " + want.getId() + " missing");
+                continue;
+            }
+            Double score = want.getSentimentScore() != null ? want.getSentimentScore()
+                : scorer.getSentimentScore(want.getDescription() != null ? want.getDescription() : "");
+            boolean same = Objects.equals(got.getDate(), want.getDate())
+                && Objects.equals(got.getMoodType(), want.getMoodType())
+                && Objects.equals(got.getDescription(), want.getDescription())
+                && Objects.equals(got.getSentimentScore(), score)
+                && Objects.equals(got.getCreatedAt(), want.getCreatedAt())
+                && Objects.equals(got.getUtcOffset(), want.getUtcOffset())
+                && Objects.equals(got.getTimeZone(), want.getTimeZone());
+            if (!same) {
+                problems.add(String.format("%s: entry %d came back as %s %s score=%s \"%s\", expected score %s",
+                    format, want.getId(), got.getDate(), got.getMoodType(), got.getSentimentScore(),
+                    got.getDescription(), score));
+            }
+        }
+    }
+
+    /**
+     * Entries over the last few years; about a third have no AI score, as rows written
+     * before scoring existed, and empty descriptions are stored as null
+     */
+    private static List<MoodEntry> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<MoodEntry> entries = new ArrayList<>(count);
+        LocalDate start = LocalDate.now().minusDays(count);
+        long epoch = start.toEpochDay() * 86_400;
+        for (int i = 0; i < count; i++) {
+            epoch += 3_600 + random.nextInt(86_400);
+            String description = DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)];
+            Double score = random.nextInt(3) == 0 ? null : random.nextInt(1001) / 1000.0;
+            entries.add(new MoodEntry(i + 1, LocalDate.ofEpochDay(epoch / 86_400), MOODS[random.nextInt(MOODS.length)],
+                description.isEmpty() ? null : description, score,
+                LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC).format(SQLITE_TIMESTAMP),
+                epoch, 3_600, "Europe/Berlin"));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,169 @@
+package com.aimoodchecker;
+
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.dao.DatabaseWriter;
+import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.repository.EntryRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test for the repository's concurrency model. Runs against a scratch database
+ * (stress-test.db unless -Daimoodchecker.db is set) and refuses the real mood.db.
+ * Checks that:
+ * - no save is lost when many threads save at once,
+ * - multi-row writes are never seen half-applied by concurrent readers,
+ * - readers never see the entry count go backwards.
+ */
+public class TestRepositoryConcurrency {
+
+    private static final int WRITER_THREADS = 16;
+    private static final int SAVES_PER_WRITER = 200;
+    private static final int READER_THREADS = 4;
+    private static final int BATCHES = 100;
+    private static final int BATCH_SIZE = 5;
+    // Batch rows get negative ids so readers can count them separately; AUTOINCREMENT
+    // continues from the highest id, so the saves never run into this range
+
+    public static void main(String[] args) throws Exception {
+        String dbFile = ScratchDatabase.prepare("stress-test.db");
+
+        System.out.println("Repository concurrency stress test");
+        System.out.println("===================================");
+        System.out.println("Database: " + dbFile);
+
+        DBConnection.initDatabase();
+        EntryRepository repo = EntryRepository.getInstance();
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger reads = new AtomicInteger();
+        List<String> problems = new ArrayList<>();
+
+        long start = System.nanoTime();
+        // Readers spin without ever blocking, so they get platform threads: virtual threads are
+        // not preempted and would starve the writers on a machine with few cores
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService readerThreads = Executors.newFixedThreadPool(READER_THREADS)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITER_THREADS; w++) {
+                int writer = w;
+                writers.add(threads.submit(() -> {
+                    for (int i = 0; i < SAVES_PER_WRITER; i++) {
+                        repo.saveMoodEntry(i % 2 == 0 ? "Happy" : "Sad", "stress w" + writer + " #" + i);
+                    }
+                    return null;
+                }));
+            }
+            writers.add(threads.submit(() -> {
+                for (int b = 0; b < BATCHES; b++) {
+                    List<MoodEntry> batch = new ArrayList<>();
+                    for (int k = 0; k < BATCH_SIZE; k++) {
+                        batch.add(new MoodEntry(-(1 + b * BATCH_SIZE + k), LocalDate.now(),
+                            "Neutral", "stress batch " + b, 0.5, "2024-01-01 00:00:00"));
+                    }
+                    repo.restoreMoodEntries(batch);
+                }
+                return null;
+            }));
+
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < READER_THREADS; r++) {
+                readers.add(readerThreads.submit(() -> {
+                    long lastCount = 0;
+                    while (writing.get()) {
+                        long[] counts = readCounts();
+                        if (counts[1] % BATCH_SIZE != 0) {
+                            synchronized (problems) {
+                                problems.add("Torn batch: reader saw " + counts[1] + " batch rows");
+                            }
+                        }
+                        if (counts[0] < lastCount) {
+                            synchronized (problems) {
+                                problems.add("Count went backwards: " + lastCount + " -> " + counts[0]);
+                            }
+                        }
+                        lastCount = counts[0];
+                        reads.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            } finally {
+                // Stop the readers even if a writer failed, or closing the executors never returns
+                writing.set(false);
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int expectedSaves = WRITER_THREADS * SAVES_PER_WRITER;
+        long[] counts = readCounts();
+        long distinctSaves = countDistinctSaves();
+        if (counts[0] - counts[1] != expectedSaves) {
+            problems.add("Lost saves: expected " + expectedSaves + " rows, found " + (counts[0] - counts[1]));
+        }
+        if (distinctSaves != expectedSaves) {
+            problems.add("Duplicate or missing saves: " + distinctSaves + " distinct descriptions");
+        }
+        if (counts[1] != (long) BATCHES * BATCH_SIZE) {
+            problems.add("Lost batch rows: found " + counts[1]);
+        }
+
+        DatabaseWriter writer = DBConnection.getWriter();
+        System.out.printf("Writes committed: %d in %d transactions (%.1f per commit)%n",
+            writer.getCommittedWrites(), writer.getCommittedGroups(),
+            (double) writer.getCommittedWrites() / Math.max(1, writer.getCommittedGroups()));
+        System.out.printf("Concurrent reads: %d%n", reads.get());
+        System.out.printf("Elapsed: %.2f s (%.0f saves/s)%n", seconds, expectedSaves / seconds);
+
+        DBConnection.closeConnection();
+
+        if (problems.isEmpty()) {
+            System.out.println("PASSED");
+        } else {
+            problems.stream().distinct().limit(20).forEach(p -> System.out.println("FAILED: " + p));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns { all rows, batch rows } read in a single transaction so both come from one snapshot
+     */
+    private static long[] readCounts() throws SQLException {
+        String sql = "SELECT COUNT(*), COUNT(CASE WHEN id < 0 THEN 1 END) FROM mood_entries";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return new long[] { rs.getLong(1), rs.getLong(2) };
+        }
+    }
+
+    private static long countDistinctSaves() throws SQLException {
+        String sql = "SELECT COUNT(DISTINCT description) FROM mood_entries WHERE description LIKE 'stress w%'";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
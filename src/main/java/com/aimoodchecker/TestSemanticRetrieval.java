@@ -0,0 +1,119 @@
+package com.aimoodchecker;
+
+import com.aimoodchecker.analytics.EmbeddingIndex;
+import com.aimoodchecker.analytics.HashingEmbedder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks similarity search over 100k synthetic descriptions: results must match a naive
+ * full comparison, survive removals, and a query must take under 5 ms (median after warm-up).
+ * Runs entirely in memory, no database needed.
+ */
+public class TestSemanticRetrieval {
+
+    private static final int ENTRIES = 100_000;
+    private static final int QUERIES = 500;
+    private static final int K = 10;
+    private static final double TIME_LIMIT_MS = 5.0;
+
+    private static final String[] WORDS = (
+        "work deadline boss meeting project tired sleep insomnia headache stress anxious worried "
+        + "friends family partner kids dog walk park run gym yoga swim coffee dinner lunch cook "
+        + "rain sunny cold snow beach holiday travel exam study grades money bills rent argument "
+        + "lonely bored calm proud grateful excited relaxed music movie book game garden birthday "
+        + "doctor sick medicine weekend morning evening commute traffic promotion interview late").split(" ");
+
+    public static void main(String[] args) {
+        System.out.println("Semantic retrieval test");
+        System.out.println("=======================");
+
+        Random random = new Random(7);
+        String[] descriptions = new String[ENTRIES];
+        EmbeddingIndex index = new EmbeddingIndex();
+        long start = System.nanoTime();
+        for (int i = 0; i < ENTRIES; i++) {
+            descriptions[i] = randomDescription(random);
+            index.put(i + 1, random.nextBoolean() ? "Happy" : "Sad", descriptions[i]);
+        }
+        System.out.printf("Indexed %d entries in %.0f ms%n", index.size(), (System.nanoTime() - start) / 1e6);
+
+        boolean passed = true;
+
+        // An existing description must find its own entry with similarity ~1
+        List<EmbeddingIndex.Match> self = index.nearest(descriptions[1234], K, null, 0f);
+        if (self.isEmpty() || self.get(0).score() < 0.999f) {
+            System.out.println("FAILED: exact description not found first: " + self);
+            passed = false;
+        }
+
+        // Top hit must agree with a naive comparison against every description
+        for (int q = 0; q < 5; q++) {
+            String query = randomDescription(random);
+            float best = naiveBestScore(query, descriptions);
+            float found = index.nearest(query, 1, null, 0f).get(0).score();
+            if (Math.abs(best - found) > 1e-4f) {
+                System.out.printf("FAILED: best score %.5f, index returned %.5f%n", best, found);
+                passed = false;
+            }
+        }
+
+        // Removed entries must disappear without disturbing the others
+        index.remove(1235);
+        if (index.nearest(descriptions[1234], K, null, 0f).stream().anyMatch(m -> m.entryId() == 1235)) {
+            System.out.println("FAILED: removed entry still returned");
+            passed = false;
+        }
+        index.put(1235, "Happy", descriptions[1234]);
+
+        long[] times = new long[QUERIES];
+        for (int q = 0; q < QUERIES + 200; q++) {
+            String query = randomDescription(random);
+            String mood = q % 3 == 0 ? "Sad" : null;
+            long queryStart = System.nanoTime();
+            index.nearest(query, K, mood, 0.15f);
+            long elapsed = System.nanoTime() - queryStart;
+            // The first 200 queries warm up the JIT
+            if (q >= 200) times[q - 200] = elapsed;
+        }
+        Arrays.sort(times);
+        double median = times[QUERIES / 2] / 1e6;
+        System.out.printf("Query time: median %.2f ms, p95 %.2f ms, max %.2f ms%n",
+            median, times[QUERIES * 95 / 100] / 1e6, times[QUERIES - 1] / 1e6);
+        if (median >= TIME_LIMIT_MS) {
+            System.out.println("FAILED: median query slower than " + TIME_LIMIT_MS + " ms");
+            passed = false;
+        }
+
+        if (passed) {
+            System.out.println("PASSED");
+        } else {
+            System.exit(1);
+        }
+    }
+
+    private static String randomDescription(Random random) {
+        StringBuilder text = new StringBuilder();
+        int words = 4 + random.nextInt(16);
+        for (int w = 0; w < words; w++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static float naiveBestScore(String query, String[] descriptions) {
+        float[] q = HashingEmbedder.embed(query);
+        float best = Float.NEGATIVE_INFINITY;
+        for (String description : descriptions) {
+            float[] v = HashingEmbedder.embed(description);
+            float dot = 0;
+            for (int d = 0; d < q.length; d++) {
+                dot += q[d] * v[d];
+            }
+            best = Math.max(best, dot);
+        }
+        return best;
+    }
+}
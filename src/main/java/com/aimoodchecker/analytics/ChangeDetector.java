@@ -0,0 +1,111 @@
+package com.aimoodchecker.analytics;
+
+/**
+ * Online anomaly and change-point detection for one daily series, one value per day in O(1).
+ *
+ * Keeps a running mean and variance (Welford) of the days since the last detected shift and
+ * scores every new day against it:
+ * - a z-score beyond {@link #Z_THRESHOLD} is a one-day anomaly (spike or dip) and is kept out
+ *   of the baseline,
+ * - a two-sided CUSUM over the z-scores flags a sustained shift once it crosses
+ *   {@link #CUSUM_LIMIT}; the baseline then restarts from the new level.
+ *
+ * Not thread-safe; the owner feeds it days in order.
+ */
+public class ChangeDetector {
+
+    public enum Kind { SPIKE, DIP, SHIFT_UP, SHIFT_DOWN }
+
+    /**
+     * Record representing one detection; score is the z-score or the CUSUM value that fired
+     */
+    public record Detection(Kind kind, double value, double score) {}
+
+    /**
+     * Days needed before the baseline is trusted
+     */
+    public static final int WARMUP_DAYS = 7;
+    public static final double Z_THRESHOLD = 3.0;
+
+    // Standard CUSUM tuning: ignore drifts under half a standard deviation, fire at five
+    private static final double CUSUM_SLACK = 0.5;
+    public static final double CUSUM_LIMIT = 5.0;
+
+    // A single spike can add at most this much to the CUSUM, so it can't fake a shift on its own
+    private static final double MAX_STEP = Z_THRESHOLD;
+
+    private final double minStdDev;
+
+    private int count;
+    private double mean;
+    private double m2;
+    private double upper;
+    private double lower;
+
+    /**
+     * @param minStdDev Floor for the standard deviation, so a very steady history doesn't
+     *                  turn every small change into an anomaly
+     */
+    public ChangeDetector(double minStdDev) {
+        this.minStdDev = minStdDev;
+    }
+
+    /**
+     * Scores the next day's value and folds it into the baseline
+     * @return The detection for this day, or null if it looks normal
+     */
+    public Detection observe(double value) {
+        if (count < WARMUP_DAYS) {
+            addToBaseline(value);
+            return null;
+        }
+
+        double z = (value - mean) / stdDev();
+        double step = Math.max(-MAX_STEP, Math.min(MAX_STEP, z));
+        upper = Math.max(0, upper + step - CUSUM_SLACK);
+        lower = Math.max(0, lower - step - CUSUM_SLACK);
+
+        if (upper > CUSUM_LIMIT || lower > CUSUM_LIMIT) {
+            Detection shift = upper > CUSUM_LIMIT
+                ? new Detection(Kind.SHIFT_UP, value, upper)
+                : new Detection(Kind.SHIFT_DOWN, value, lower);
+            restartBaseline(value);
+            return shift;
+        }
+
+        if (Math.abs(z) > Z_THRESHOLD) {
+            return new Detection(z > 0 ? Kind.SPIKE : Kind.DIP, value, z);
+        }
+
+        addToBaseline(value);
+        return null;
+    }
+
+    /**
+     * Forgets everything, e.g. before replaying the series
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        upper = 0;
+        lower = 0;
+    }
+
+    private void restartBaseline(double value) {
+        reset();
+        addToBaseline(value);
+    }
+
+    private void addToBaseline(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    private double stdDev() {
+        double variance = count < 2 ? 0 : m2 / (count - 1);
+        return Math.max(minStdDev, Math.sqrt(variance));
+    }
+}
@@ -0,0 +1,229 @@
+package com.aimoodchecker.analytics;
+
+import com.aimoodchecker.repository.EntryRepository.EntryColumns;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the mood the user picked with the AI sentiment score of what they wrote.
+ *
+ * Mood is normalized to the sentiment's 0-1 scale (Sad=0, Neutral=0.5, Happy=1). Per month
+ * and overall it computes the Pearson correlation between the two, how far apart they are on
+ * average (calibration) and the mean sentiment per mood, and it flags entries where the gap
+ * is at least {@link #DISAGREEMENT_THRESHOLD}.
+ *
+ * The history is scanned once, in parallel chunks whose partial sums are merged, so the
+ * work is linear in the number of entries and spread over all cores.
+ */
+public final class DivergenceAnalysis {
+
+    /**
+     * Gap between normalized mood and sentiment that counts as a strong disagreement,
+     * e.g. "Happy" with a sentiment below 0.4
+     */
+    public static final double DISAGREEMENT_THRESHOLD = 0.6;
+
+    /**
+     * How many of the strongest disagreements the report keeps
+     */
+    public static final int MAX_FLAGGED = 20;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Record representing agreement statistics for one period; NaN where undefined
+     */
+    public record PeriodStats(
+        YearMonth month,
+        int count,
+        double correlation,
+        double meanGap,
+        double happySentiment,
+        double neutralSentiment,
+        double sadSentiment
+    ) {}
+
+    /**
+     * Record representing one entry whose mood and sentiment strongly disagree
+     */
+    public record Disagreement(int entryId, LocalDate date, String moodType, double sentiment, double gap) {}
+
+    /**
+     * Record representing the full analysis; overall has a null month, months are oldest first
+     */
+    public record Report(PeriodStats overall, List<PeriodStats> months, int disagreementCount,
+                         List<Disagreement> strongest) {
+
+        /**
+         * Get the statistics for one month, or null if it has no scored entries
+         */
+        public PeriodStats month(YearMonth month) {
+            for (int i = months.size() - 1; i >= 0; i--) {
+                if (months.get(i).month().equals(month)) return months.get(i);
+            }
+            return null;
+        }
+    }
+
+    private DivergenceAnalysis() {}
+
+    /**
+     * Analyzes every entry that has a sentiment score
+     */
+    public static Report analyze(EntryColumns columns) {
+        int size = columns.size();
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        Partial total = IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(chunk -> scan(columns, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)))
+            .reduce(Partial::merge)
+            .orElseGet(Partial::new);
+
+        List<PeriodStats> months = new ArrayList<>();
+        for (Map.Entry<Integer, Moments> month : total.months.entrySet()) {
+            int index = month.getKey();
+            months.add(month.getValue().toStats(YearMonth.of(index / 12, index % 12 + 1)));
+        }
+        List<Disagreement> strongest = new ArrayList<>(total.strongest);
+        strongest.sort(Comparator.comparingDouble(Disagreement::gap).reversed());
+
+        return new Report(total.overall.toStats(null), months, total.disagreements, strongest);
+    }
+
+    private static Partial scan(EntryColumns columns, int from, int to) {
+        Partial partial = new Partial();
+        int[] days = columns.epochDays();
+        byte[] moods = columns.moods();
+        float[] sentiments = columns.sentiments();
+
+        // Rows arrive sorted by date, so the month lookup only happens when the day changes
+        int lastDay = Integer.MIN_VALUE;
+        Moments month = null;
+
+        for (int i = from; i < to; i++) {
+            float sentiment = sentiments[i];
+            if (Float.isNaN(sentiment)) continue;
+
+            if (days[i] != lastDay) {
+                lastDay = days[i];
+                LocalDate date = LocalDate.ofEpochDay(lastDay);
+                month = partial.months.computeIfAbsent(date.getYear() * 12 + date.getMonthValue() - 1,
+                                                       key -> new Moments());
+            }
+
+            int mood = moods[i];
+            double x = (mood - 1) / 4.0;
+            double gap = Math.abs(sentiment - x);
+            partial.overall.add(mood, x, sentiment, gap);
+            month.add(mood, x, sentiment, gap);
+
+            if (gap >= DISAGREEMENT_THRESHOLD) {
+                partial.flag(columns, i, gap);
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Running sums for one period; mergeable, so chunks can be combined in any grouping
+     */
+    private static final class Moments {
+        private int count;
+        private double sumX, sumY, sumXX, sumYY, sumXY, sumGap;
+        // Indexed by mood score / 2: Sad=0, Neutral=1, Happy=2
+        private final int[] moodCount = new int[3];
+        private final double[] moodSentiment = new double[3];
+
+        void add(int mood, double x, double y, double gap) {
+            count++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumYY += y * y;
+            sumXY += x * y;
+            sumGap += gap;
+            moodCount[mood / 2]++;
+            moodSentiment[mood / 2] += y;
+        }
+
+        Moments merge(Moments other) {
+            count += other.count;
+            sumX += other.sumX;
+            sumY += other.sumY;
+            sumXX += other.sumXX;
+            sumYY += other.sumYY;
+            sumXY += other.sumXY;
+            sumGap += other.sumGap;
+            for (int m = 0; m < 3; m++) {
+                moodCount[m] += other.moodCount[m];
+                moodSentiment[m] += other.moodSentiment[m];
+            }
+            return this;
+        }
+
+        PeriodStats toStats(YearMonth month) {
+            double covariance = count * sumXY - sumX * sumY;
+            double spread = Math.sqrt((count * sumXX - sumX * sumX) * (count * sumYY - sumY * sumY));
+            // No correlation when either side never varies (e.g. only Happy entries)
+            double correlation = spread > 0 ? covariance / spread : Double.NaN;
+            return new PeriodStats(month, count, correlation,
+                count == 0 ? Double.NaN : sumGap / count,
+                meanSentiment(2), meanSentiment(1), meanSentiment(0));
+        }
+
+        private double meanSentiment(int mood) {
+            return moodCount[mood] == 0 ? Double.NaN : moodSentiment[mood] / moodCount[mood];
+        }
+    }
+
+    /**
+     * Everything one chunk found
+     */
+    private static final class Partial {
+        private final Moments overall = new Moments();
+        private final TreeMap<Integer, Moments> months = new TreeMap<>();
+        private int disagreements;
+        // Min-heap on the gap, so the weakest of the kept disagreements is dropped first
+        private final PriorityQueue<Disagreement> strongest =
+            new PriorityQueue<>(Comparator.comparingDouble(Disagreement::gap));
+
+        void flag(EntryColumns columns, int row, double gap) {
+            disagreements++;
+            if (strongest.size() == MAX_FLAGGED && strongest.peek().gap() >= gap) return;
+            keep(new Disagreement(columns.ids()[row], LocalDate.ofEpochDay(columns.epochDays()[row]),
+                                  moodName(columns.moods()[row]), columns.sentiments()[row], gap));
+        }
+
+        private void keep(Disagreement disagreement) {
+            strongest.add(disagreement);
+            if (strongest.size() > MAX_FLAGGED) {
+                strongest.poll();
+            }
+        }
+
+        Partial merge(Partial other) {
+            overall.merge(other.overall);
+            other.months.forEach((month, moments) -> months.merge(month, moments, Moments::merge));
+            disagreements += other.disagreements;
+            other.strongest.forEach(this::keep);
+            return this;
+        }
+    }
+
+    private static String moodName(int mood) {
+        return switch (mood) {
+            case 5 -> "Happy";
+            case 1 -> "Sad";
+            default -> "Neutral";
+        };
+    }
+}
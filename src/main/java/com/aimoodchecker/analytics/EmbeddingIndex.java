@@ -0,0 +1,146 @@
+package com.aimoodchecker.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static com.aimoodchecker.analytics.HashingEmbedder.DIMENSIONS;
+
+/**
+ * Exact nearest-neighbour search over description embeddings by brute force.
+ *
+ * Vectors are stored dimension-major: one packed float array per dimension holding that
+ * component for every entry (entry i at index i). A description has only a few dozen
+ * non-zero components, so a query streams just those arrays, adding query[d] * column[d]
+ * into one score per entry, a simple loop the JIT vectorizes. Row-major vectors would
+ * drag every entry's full vector through the cache instead.
+ * Entries can be added, replaced and removed in O(DIMENSIONS); removal moves the last
+ * entry into the gap.
+ *
+ * Not thread-safe on its own; EntryRepository guards it.
+ */
+public class EmbeddingIndex {
+
+    /**
+     * Record representing one match; score is the cosine similarity (1 = same terms)
+     */
+    public record Match(int entryId, float score) {}
+
+    private final float[][] columns = new float[DIMENSIONS][1024];
+    private final float[] vector = new float[DIMENSIONS];
+    private float[] scores = new float[1024];
+    private int[] ids = new int[1024];
+    private String[] moods = new String[1024];
+    private int size;
+    private final Map<Integer, Integer> slots = new HashMap<>();
+
+    /**
+     * Clears everything, e.g. before re-indexing the history
+     */
+    public void reset() {
+        size = 0;
+        slots.clear();
+    }
+
+    /**
+     * Adds an entry, or replaces its vector if it is already indexed
+     */
+    public void put(int entryId, String moodType, String description) {
+        Integer slot = slots.get(entryId);
+        if (slot == null) {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            slots.put(entryId, slot);
+            ids[slot] = entryId;
+        }
+        moods[slot] = moodType;
+        HashingEmbedder.embed(description, vector, 0);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            columns[d][slot] = vector[d];
+        }
+    }
+
+    /**
+     * Removes an entry; unknown ids are ignored
+     */
+    public void remove(int entryId) {
+        Integer slot = slots.remove(entryId);
+        if (slot == null) return;
+
+        int last = --size;
+        if (slot != last) {
+            for (float[] column : columns) {
+                column[slot] = column[last];
+            }
+            ids[slot] = ids[last];
+            moods[slot] = moods[last];
+            slots.put(ids[slot], slot);
+        }
+        moods[last] = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the k entries most similar to a text, best first
+     * @param moodType Only consider entries with this mood, or null for all
+     * @param minScore Matches below this similarity are left out
+     */
+    public List<Match> nearest(String text, int k, String moodType, float minScore) {
+        float[] query = HashingEmbedder.embed(text);
+        Arrays.fill(scores, 0, size, 0f);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            if (query[d] != 0f) {
+                addScaled(query[d], columns[d], scores, size);
+            }
+        }
+
+        // Min-heap on the score: the weakest of the current top k is replaced first
+        PriorityQueue<Match> best = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(a.score(), b.score()));
+        float threshold = minScore;
+
+        for (int slot = 0; slot < size; slot++) {
+            float score = scores[slot];
+            if (score < threshold) continue;
+            if (moodType != null && !moodType.equals(moods[slot])) continue;
+
+            best.add(new Match(ids[slot], score));
+            if (best.size() > k) {
+                best.poll();
+            }
+            if (best.size() == k) {
+                threshold = Math.max(minScore, best.peek().score());
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort((a, b) -> Float.compare(b.score(), a.score()));
+        return matches;
+    }
+
+    /**
+     * scores[i] += weight * column[i]; no dependency between iterations, so it vectorizes
+     */
+    private static void addScaled(float weight, float[] column, float[] scores, int size) {
+        for (int i = 0; i < size; i++) {
+            scores[i] += weight * column[i];
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            columns[d] = Arrays.copyOf(columns[d], capacity);
+        }
+        scores = new float[capacity];
+        ids = Arrays.copyOf(ids, capacity);
+        moods = Arrays.copyOf(moods, capacity);
+    }
+}
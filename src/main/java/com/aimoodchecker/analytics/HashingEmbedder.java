@@ -0,0 +1,81 @@
+package com.aimoodchecker.analytics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns a description into a fixed-size vector without a model: every term and every pair
+ * of neighbouring terms is hashed to one of {@link #DIMENSIONS} slots with a hashed sign
+ * (the "hashing trick"), weighted by the square root of its count, and the vector is scaled
+ * to unit length. The dot product of two vectors is then their cosine similarity.
+ * Deterministic, so vectors never need to be stored or migrated.
+ */
+public final class HashingEmbedder {
+
+    /**
+     * Vector length; a power of two so the slot is a bit mask
+     */
+    public static final int DIMENSIONS = 256;
+
+    // Neighbouring word pairs count less than single words
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private HashingEmbedder() {}
+
+    /**
+     * Embeds a text into target[offset .. offset + DIMENSIONS); all zeros if it has no terms
+     */
+    public static void embed(String text, float[] target, int offset) {
+        Arrays.fill(target, offset, offset + DIMENSIONS, 0f);
+        List<String> terms = Tokenizer.tokenize(text);
+        for (int i = 0; i < terms.size(); i++) {
+            add(target, offset, terms.get(i).hashCode(), 1f);
+            if (i > 0) {
+                add(target, offset, terms.get(i - 1).hashCode() * 31 + terms.get(i).hashCode(), BIGRAM_WEIGHT);
+            }
+        }
+
+        // Dampen repeated words, then normalize
+        double norm = 0;
+        for (int d = offset; d < offset + DIMENSIONS; d++) {
+            float value = target[d];
+            value = Math.signum(value) * (float) Math.sqrt(Math.abs(value));
+            target[d] = value;
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int d = offset; d < offset + DIMENSIONS; d++) {
+                target[d] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Embeds a text into a new array
+     */
+    public static float[] embed(String text) {
+        float[] vector = new float[DIMENSIONS];
+        embed(text, vector, 0);
+        return vector;
+    }
+
+    private static void add(float[] target, int offset, int hash, float weight) {
+        int mixed = mix(hash);
+        int slot = mixed & (DIMENSIONS - 1);
+        // The top bit picks the sign, so unrelated collisions cancel out on average
+        target[offset + slot] += mixed < 0 ? -weight : weight;
+    }
+
+    /**
+     * MurmurHash3 finalizer; spreads String.hashCode's weak low bits
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
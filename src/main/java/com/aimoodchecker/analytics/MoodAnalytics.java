@@ -0,0 +1,219 @@
+package com.aimoodchecker.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Streaming statistics over the mood history, updated per entry in O(1):
+ * 7- and 30-day rolling means, exponentially weighted moving averages, 30-day volatility
+ * and happy/sad streaks.
+ *
+ * Rolling windows are calendar based (the last 7/30 days up to today) and kept in a ring
+ * of per-day buckets, so adding an entry, moving to a new day and even editing or deleting
+ * an entry inside the window are constant time. EWMAs and streaks depend on entry order,
+ * so an edit, delete or back-dated entry marks them as needing a rebuild from history
+ * (see {@link #needsRebuild()}); the caller then replays all entries once.
+ *
+ * Mood uses the repository's 1-5 scale (Sad=1, Neutral=3, Happy=5), sentiment 0-1.
+ * Not thread-safe on its own; EntryRepository guards it.
+ */
+public class MoodAnalytics {
+
+    private static final int SHORT_WINDOW = 7;
+    private static final int LONG_WINDOW = 30;
+
+    /**
+     * Smoothing factor: the newest entry gets 30% of the weight
+     */
+    public static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * Record representing the current analytics; means are NaN when their window is empty
+     */
+    public record Snapshot(
+        int entryCount,
+        double moodMean7,
+        double moodMean30,
+        double sentimentMean7,
+        double sentimentMean30,
+        double moodEwma,
+        double sentimentEwma,
+        double moodVolatility30,
+        String currentStreakMood,
+        int currentStreak,
+        int longestHappyStreak,
+        int longestSadStreak
+    ) {
+        /**
+         * Positive when the last week is better than the last month
+         */
+        public double weekVersusMonth() {
+            return moodMean7 - moodMean30;
+        }
+    }
+
+    // Per-day buckets indexed by epochDay % LONG_WINDOW
+    private final long[] bucketDay = new long[LONG_WINDOW];
+    private final double[] moodSum = new double[LONG_WINDOW];
+    private final double[] moodSquares = new double[LONG_WINDOW];
+    private final int[] moodCount = new int[LONG_WINDOW];
+    private final double[] sentimentSum = new double[LONG_WINDOW];
+    private final int[] sentimentCount = new int[LONG_WINDOW];
+
+    // Order-dependent state
+    private int entryCount;
+    private double moodEwma = Double.NaN;
+    private double sentimentEwma = Double.NaN;
+    private String streakMood;
+    private int currentStreak;
+    private int longestHappyStreak;
+    private int longestSadStreak;
+    private LocalDate lastEntryDate;
+    private boolean needsRebuild;
+
+    public MoodAnalytics() {
+        reset();
+    }
+
+    /**
+     * Clears everything, e.g. before replaying the history
+     */
+    public void reset() {
+        Arrays.fill(bucketDay, Long.MIN_VALUE);
+        entryCount = 0;
+        moodEwma = Double.NaN;
+        sentimentEwma = Double.NaN;
+        streakMood = null;
+        currentStreak = 0;
+        longestHappyStreak = 0;
+        longestSadStreak = 0;
+        lastEntryDate = null;
+        needsRebuild = false;
+    }
+
+    /**
+     * Adds one entry; entries are expected oldest first
+     * @param sentiment Sentiment score, or null if the entry has none
+     */
+    public void add(LocalDate date, String moodType, Double sentiment) {
+        addToBucket(date, moodType, sentiment, 1);
+
+        if (lastEntryDate != null && date.isBefore(lastEntryDate)) {
+            // Back-dated entry (e.g. undo of an old delete): order-dependent stats are off now
+            needsRebuild = true;
+        } else {
+            lastEntryDate = date;
+        }
+
+        double mood = moodScore(moodType);
+        moodEwma = Double.isNaN(moodEwma) ? mood : EWMA_ALPHA * mood + (1 - EWMA_ALPHA) * moodEwma;
+        if (sentiment != null) {
+            sentimentEwma = Double.isNaN(sentimentEwma)
+                ? sentiment
+                : EWMA_ALPHA * sentiment + (1 - EWMA_ALPHA) * sentimentEwma;
+        }
+
+        if (moodType.equals(streakMood)) {
+            currentStreak++;
+        } else {
+            streakMood = moodType;
+            currentStreak = 1;
+        }
+        if ("Happy".equals(moodType)) longestHappyStreak = Math.max(longestHappyStreak, currentStreak);
+        if ("Sad".equals(moodType)) longestSadStreak = Math.max(longestSadStreak, currentStreak);
+
+        entryCount++;
+    }
+
+    /**
+     * Removes an entry's contribution; rolling windows stay exact, the rest needs a rebuild
+     */
+    public void remove(LocalDate date, String moodType, Double sentiment) {
+        addToBucket(date, moodType, sentiment, -1);
+        entryCount--;
+        needsRebuild = true;
+    }
+
+    /**
+     * True once EWMAs or streaks can no longer be updated incrementally
+     */
+    public boolean needsRebuild() {
+        return needsRebuild;
+    }
+
+    /**
+     * Gets the statistics as of today
+     */
+    public Snapshot snapshot(LocalDate today) {
+        long todayEpoch = today.toEpochDay();
+        double mood7 = 0, mood30 = 0, squares30 = 0, sentiment7 = 0, sentiment30 = 0;
+        int moods7 = 0, moods30 = 0, sentiments7 = 0, sentiments30 = 0;
+
+        // Constant work: one pass over the 30 buckets
+        for (int i = 0; i < LONG_WINDOW; i++) {
+            long age = todayEpoch - bucketDay[i];
+            if (age < 0 || age >= LONG_WINDOW) continue;
+            mood30 += moodSum[i];
+            squares30 += moodSquares[i];
+            moods30 += moodCount[i];
+            sentiment30 += sentimentSum[i];
+            sentiments30 += sentimentCount[i];
+            if (age < SHORT_WINDOW) {
+                mood7 += moodSum[i];
+                moods7 += moodCount[i];
+                sentiment7 += sentimentSum[i];
+                sentiments7 += sentimentCount[i];
+            }
+        }
+
+        double mean30 = mean(mood30, moods30);
+        double volatility = moods30 < 2
+            ? 0.0
+            : Math.sqrt(Math.max(0.0, (squares30 - moods30 * mean30 * mean30) / (moods30 - 1)));
+
+        return new Snapshot(entryCount,
+            mean(mood7, moods7), mean30,
+            mean(sentiment7, sentiments7), mean(sentiment30, sentiments30),
+            moodEwma, sentimentEwma, volatility,
+            streakMood, currentStreak, longestHappyStreak, longestSadStreak);
+    }
+
+    private void addToBucket(LocalDate date, String moodType, Double sentiment, int sign) {
+        long day = date.toEpochDay();
+        int slot = (int) Math.floorMod(day, (long) LONG_WINDOW);
+        if (bucketDay[slot] != day) {
+            if (bucketDay[slot] > day) return; // older than anything the window can still show
+            // The slot still holds a day that has left the window; reuse it
+            bucketDay[slot] = day;
+            moodSum[slot] = 0;
+            moodSquares[slot] = 0;
+            moodCount[slot] = 0;
+            sentimentSum[slot] = 0;
+            sentimentCount[slot] = 0;
+        }
+
+        double mood = moodScore(moodType);
+        moodSum[slot] += sign * mood;
+        moodSquares[slot] += sign * mood * mood;
+        moodCount[slot] += sign;
+        if (sentiment != null) {
+            sentimentSum[slot] += sign * sentiment;
+            sentimentCount[slot] += sign;
+        }
+    }
+
+    private static double mean(double sum, int count) {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /**
+     * Same mapping as EntryRepository: Happy=5, Neutral=3, Sad=1
+     */
+    private static double moodScore(String moodType) {
+        return switch (moodType) {
+            case "Happy" -> 5.0;
+            case "Sad" -> 1.0;
+            default -> 3.0;
+        };
+    }
+}
@@ -0,0 +1,205 @@
+package com.aimoodchecker.analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Additive Holt-Winters forecast of the daily average mood with weekly seasonality.
+ *
+ * {@link #fit} picks the smoothing factors from a small grid by one-step-ahead error over the
+ * history and leaves the model positioned after the last day; {@link #update} then advances it
+ * by one day in O(1), so new days don't need a refit. Days without entries advance the model
+ * without correcting it. Forecasts carry an approximate 95% band from the one-step error.
+ *
+ * Values are on the 1-5 mood scale. Not thread-safe; the owner serializes access.
+ */
+public class MoodForecaster {
+
+    public static final int SEASON = 7;
+
+    /**
+     * Fewer days than this (with entries) give no forecast
+     */
+    public static final int MIN_DAYS = 2 * SEASON;
+
+    private static final double MIN_MOOD = 1.0;
+    private static final double MAX_MOOD = 5.0;
+
+    private static final double[] ALPHAS = { 0.1, 0.2, 0.3, 0.5 };
+    private static final double[] BETAS = { 0.0, 0.02, 0.05, 0.1 };
+    private static final double[] GAMMAS = { 0.05, 0.1, 0.2, 0.3 };
+
+    /**
+     * Record representing a forecast: mean[i], lower[i] and upper[i] are for start + i days
+     */
+    public record Forecast(LocalDate start, double[] mean, double[] lower, double[] upper) {
+        public int days() {
+            return mean.length;
+        }
+
+        public LocalDate dateAt(int index) {
+            return start.plusDays(index);
+        }
+    }
+
+    private double alpha;
+    private double beta;
+    private double gamma;
+
+    private double level;
+    private double trend;
+    private final double[] seasonal = new double[SEASON];
+    // Seasonal slot of the next day to be observed
+    private int slot;
+    private double squaredErrors;
+    private int errorCount;
+    private int observedDays;
+    private LocalDate nextDay;
+
+    /**
+     * Fits the model to a daily series and positions it after the last day
+     * @param start Date of values[0]
+     * @param values Daily average mood, NaN for days without entries
+     * @return false if there is too little data to forecast
+     */
+    public boolean fit(LocalDate start, float[] values) {
+        int observed = 0;
+        for (float value : values) {
+            if (!Float.isNaN(value)) observed++;
+        }
+        if (observed < MIN_DAYS) {
+            nextDay = null;
+            return false;
+        }
+
+        double bestError = Double.MAX_VALUE;
+        double[] best = null;
+        for (double a : ALPHAS) {
+            for (double b : BETAS) {
+                for (double g : GAMMAS) {
+                    double error = run(start, values, a, b, g);
+                    if (error < bestError) {
+                        bestError = error;
+                        best = new double[] { a, b, g };
+                    }
+                }
+            }
+        }
+        run(start, values, best[0], best[1], best[2]);
+        return true;
+    }
+
+    /**
+     * Runs the model over the series with the given factors; returns the mean squared one-step error
+     */
+    private double run(LocalDate start, float[] values, double a, double b, double g) {
+        alpha = a;
+        beta = b;
+        gamma = g;
+        nextDay = start;
+        slot = (int) Math.floorMod(start.toEpochDay(), (long) SEASON);
+        initialize(values);
+        squaredErrors = 0;
+        errorCount = 0;
+        observedDays = 0;
+        for (float value : values) {
+            update(value);
+        }
+        return errorCount == 0 ? Double.MAX_VALUE : squaredErrors / errorCount;
+    }
+
+    /**
+     * Starts from the mean of the first observed days and their weekday deviations
+     */
+    private void initialize(float[] values) {
+        double sum = 0;
+        int count = 0;
+        double[] slotSum = new double[SEASON];
+        int[] slotCount = new int[SEASON];
+        for (int i = 0; i < values.length && count < 2 * SEASON; i++) {
+            if (Float.isNaN(values[i])) continue;
+            sum += values[i];
+            count++;
+            slotSum[i % SEASON] += values[i];
+            slotCount[i % SEASON]++;
+        }
+        level = sum / count;
+        trend = 0;
+        // seasonal[] is indexed by weekday slot; values[i] falls on slot (startSlot + i) % SEASON
+        for (int s = 0; s < SEASON; s++) {
+            seasonal[s] = 0;
+        }
+        int startSlot = slot;
+        for (int s = 0; s < SEASON; s++) {
+            if (slotCount[s] > 0) {
+                seasonal[(startSlot + s) % SEASON] = slotSum[s] / slotCount[s] - level;
+            }
+        }
+    }
+
+    /**
+     * Advances the model by one day
+     * @param value That day's average mood, or NaN if it had no entries
+     */
+    public void update(float value) {
+        double predicted = level + trend + seasonal[slot];
+        if (Float.isNaN(value)) {
+            // Nothing observed: carry the state forward without correcting it
+            level += trend;
+        } else {
+            double error = value - predicted;
+            if (observedDays >= SEASON) {
+                // Errors during the first week mostly reflect the initial guess
+                squaredErrors += error * error;
+                errorCount++;
+            }
+            double previousLevel = level;
+            level = alpha * (value - seasonal[slot]) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            seasonal[slot] = gamma * (value - level) + (1 - gamma) * seasonal[slot];
+            observedDays++;
+        }
+        slot = (slot + 1) % SEASON;
+        if (nextDay != null) {
+            nextDay = nextDay.plusDays(1);
+        }
+    }
+
+    /**
+     * Gets the first day the model hasn't seen, or null if it isn't fitted
+     */
+    public LocalDate getNextDay() {
+        return nextDay;
+    }
+
+    /**
+     * Projects the coming days, starting with the first day not yet observed
+     * @return The forecast, or null if the model isn't fitted
+     */
+    public Forecast forecast(int days) {
+        if (nextDay == null || errorCount == 0) return null;
+
+        double sigma = Math.sqrt(squaredErrors / errorCount);
+        double[] mean = new double[days];
+        double[] lower = new double[days];
+        double[] upper = new double[days];
+        double variance = 0;
+        for (int h = 1; h <= days; h++) {
+            double value = level + h * trend + seasonal[(slot + h - 1) % SEASON];
+            // Additive Holt-Winters h-step variance: sigma² * (1 + sum over j < h of c_j²)
+            if (h > 1) {
+                int j = h - 1;
+                double c = alpha * (1 + j * beta) + (j % SEASON == 0 ? gamma * (1 - alpha) : 0);
+                variance += c * c;
+            }
+            double band = 1.96 * sigma * Math.sqrt(1 + variance);
+            mean[h - 1] = clamp(value);
+            lower[h - 1] = clamp(value - band);
+            upper[h - 1] = clamp(value + band);
+        }
+        return new Forecast(nextDay, mean, lower, upper);
+    }
+
+    private static double clamp(double mood) {
+        return Math.max(MIN_MOOD, Math.min(MAX_MOOD, mood));
+    }
+}
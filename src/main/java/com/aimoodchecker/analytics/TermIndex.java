@@ -0,0 +1,245 @@
+package com.aimoodchecker.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory inverted index over entry descriptions with per-mood term counts, used to find
+ * the words most associated with sad or happy entries.
+ *
+ * Each term's postings are the ids of the entries containing it, stored as varint-encoded
+ * gaps in a byte array (one or two bytes per posting for typical histories), followed by
+ * the term's count in that entry. Entries must be added in increasing id order, which is how
+ * new entries arrive; anything else (edits, deletes, restoring an old id) marks the index as
+ * needing a rebuild, see {@link #needsRebuild()}.
+ *
+ * Keyness is Dunning's log-likelihood (G²) of a term's frequency in sad versus happy entries.
+ * Not thread-safe on its own; EntryRepository guards it.
+ */
+public class TermIndex {
+
+    /**
+     * Terms seen fewer times than this in sad and happy entries together aren't ranked
+     */
+    public static final int MIN_KEYWORD_COUNT = 3;
+
+    private static final int SAD = 0;
+    private static final int NEUTRAL = 1;
+    private static final int HAPPY = 2;
+
+    /**
+     * Record representing a term and how strongly it leans towards sad (positive keyness)
+     * or happy (negative keyness) entries
+     */
+    public record Keyword(String term, double keyness, int sadCount, int happyCount) {}
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    // Occurrences per term and mood, flattened: termId * 3 + mood
+    private int[] moodCounts = new int[3 * 256];
+
+    private final int[] moodTokens = new int[3];
+    private int entryCount;
+    private int lastEntryId = Integer.MIN_VALUE;
+    private boolean needsRebuild;
+
+    /**
+     * Clears everything, e.g. before re-indexing the history
+     */
+    public void reset() {
+        termIds.clear();
+        terms.clear();
+        postings.clear();
+        moodCounts = new int[3 * 256];
+        Arrays.fill(moodTokens, 0);
+        entryCount = 0;
+        lastEntryId = Integer.MIN_VALUE;
+        needsRebuild = false;
+    }
+
+    /**
+     * Indexes one entry; ids must increase from call to call
+     */
+    public void add(int entryId, String moodType, String description) {
+        if (entryId <= lastEntryId) {
+            // Postings are gap-encoded in id order and can't take an older id
+            needsRebuild = true;
+            return;
+        }
+        lastEntryId = entryId;
+
+        int mood = moodIndex(moodType);
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (String term : Tokenizer.tokenize(description)) {
+            counts.merge(termId(term), 1, Integer::sum);
+        }
+        for (Map.Entry<Integer, Integer> count : counts.entrySet()) {
+            int termId = count.getKey();
+            postings.get(termId).add(entryId, count.getValue());
+            moodCounts[termId * 3 + mood] += count.getValue();
+            moodTokens[mood] += count.getValue();
+        }
+        entryCount++;
+    }
+
+    /**
+     * Marks the index stale after a change it can't apply incrementally (edit or delete)
+     */
+    public void invalidate() {
+        needsRebuild = true;
+    }
+
+    /**
+     * True once the index no longer matches the entries and must be rebuilt
+     */
+    public boolean needsRebuild() {
+        return needsRebuild;
+    }
+
+    /**
+     * Gets the ids of the entries containing a term, in increasing order
+     */
+    public int[] entriesWith(String term) {
+        Integer termId = termIds.get(term);
+        return termId == null ? new int[0] : postings.get(termId).entryIds();
+    }
+
+    /**
+     * Gets the terms most associated with sad entries (relative to happy ones)
+     */
+    public List<Keyword> sadKeywords(int limit) {
+        return keywords(limit, true);
+    }
+
+    /**
+     * Gets the terms most associated with happy entries (relative to sad ones)
+     */
+    public List<Keyword> happyKeywords(int limit) {
+        return keywords(limit, false);
+    }
+
+    private List<Keyword> keywords(int limit, boolean sad) {
+        List<Keyword> ranked = new ArrayList<>();
+        double sadTotal = moodTokens[SAD];
+        double happyTotal = moodTokens[HAPPY];
+        if (sadTotal == 0 || happyTotal == 0) return ranked;
+
+        for (int termId = 0; termId < terms.size(); termId++) {
+            int a = moodCounts[termId * 3 + SAD];
+            int b = moodCounts[termId * 3 + HAPPY];
+            if (a + b < MIN_KEYWORD_COUNT) continue;
+
+            double keyness = logLikelihood(a, b, sadTotal, happyTotal);
+            if (sad ? keyness > 0 : keyness < 0) {
+                ranked.add(new Keyword(terms.get(termId), keyness, a, b));
+            }
+        }
+        ranked.sort(Comparator.comparingDouble((Keyword keyword) -> Math.abs(keyword.keyness())).reversed());
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    /**
+     * Dunning's G² for a term seen a times in corpus 1 (size c) and b times in corpus 2
+     * (size d), signed positive when the term is relatively more frequent in corpus 1
+     */
+    static double logLikelihood(int a, int b, double c, double d) {
+        double expected1 = c * (a + b) / (c + d);
+        double expected2 = d * (a + b) / (c + d);
+        double g2 = 2 * ((a == 0 ? 0 : a * Math.log(a / expected1)) + (b == 0 ? 0 : b * Math.log(b / expected2)));
+        return a / c >= b / d ? g2 : -g2;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Gets the size of all encoded postings in bytes
+     */
+    public long getPostingBytes() {
+        long bytes = 0;
+        for (PostingList list : postings) {
+            bytes += list.size;
+        }
+        return bytes;
+    }
+
+    private int termId(String term) {
+        Integer id = termIds.get(term);
+        if (id != null) return id;
+
+        id = terms.size();
+        termIds.put(term, id);
+        terms.add(term);
+        postings.add(new PostingList());
+        if ((id + 1) * 3 > moodCounts.length) {
+            moodCounts = Arrays.copyOf(moodCounts, moodCounts.length * 2);
+        }
+        return id;
+    }
+
+    private static int moodIndex(String moodType) {
+        return switch (moodType) {
+            case "Sad" -> SAD;
+            case "Happy" -> HAPPY;
+            default -> NEUTRAL;
+        };
+    }
+
+    /**
+     * One term's postings: (id gap, count) pairs as unsigned LEB128 varints
+     */
+    private static final class PostingList {
+        private byte[] bytes = new byte[8];
+        private int size;
+        private int count;
+        private int lastId;
+
+        void add(int entryId, int termCount) {
+            // The first id is zigzag-encoded so negative ids (test data) stay short too
+            writeVarint(count == 0 ? ((entryId << 1) ^ (entryId >> 31)) & 0xFFFFFFFFL : (long) entryId - lastId);
+            writeVarint(termCount);
+            lastId = entryId;
+            count++;
+        }
+
+        int[] entryIds() {
+            int[] ids = new int[count];
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                long value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                ids[i] = i == 0 ? (int) (value >>> 1) ^ -(int) (value & 1) : ids[i - 1] + (int) value;
+                // Skip the term count
+                while (bytes[position++] < 0) {}
+            }
+            return ids;
+        }
+
+        private void writeVarint(long value) {
+            if (size + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 10));
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+    }
+}
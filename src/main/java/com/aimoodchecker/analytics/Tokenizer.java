@@ -0,0 +1,62 @@
+package com.aimoodchecker.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits mood descriptions into lower-case terms for the term index.
+ * Apostrophes are dropped inside words ("don't" becomes "dont"), and common English
+ * words plus words every mood entry uses ("feel", "today") are skipped as stopwords.
+ */
+public final class Tokenizer {
+
+    private static final int MIN_LENGTH = 2;
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "about", "after", "again", "all", "am", "an", "and", "any", "are", "as", "at",
+        "be", "because", "been", "before", "being", "but", "by", "can", "could", "did", "do",
+        "does", "doing", "for", "from", "had", "has", "have", "having", "he", "her", "here",
+        "him", "his", "how", "i", "if", "im", "in", "into", "is", "it", "its", "ive", "just",
+        "me", "more", "most", "my", "myself", "of", "on", "once", "only", "or", "other", "our",
+        "out", "over", "own", "same", "she", "so", "some", "such", "than", "that", "the",
+        "their", "them", "then", "there", "these", "they", "this", "those", "through", "to",
+        "too", "up", "us", "very", "was", "we", "were", "what", "when", "where", "which",
+        "while", "who", "why", "will", "with", "would", "you", "your",
+        // Said in nearly every entry, so they tell nothing about the mood
+        "feel", "feeling", "feels", "felt", "today", "day", "really", "bit", "kind", "got", "get"
+    );
+
+    private Tokenizer() {}
+
+    /**
+     * Gets the terms of a text in order, repeats included; empty for null
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if ((c == '\'' || c == '’') && word.length() > 0) {
+                // Keep contractions together: don't -> dont
+                continue;
+            } else if (word.length() > 0) {
+                addTerm(terms, word.toString());
+                word.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String word) {
+        if (word.length() >= MIN_LENGTH && !STOPWORDS.contains(word)) {
+            terms.add(word);
+        }
+    }
+}
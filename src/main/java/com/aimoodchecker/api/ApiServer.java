@@ -0,0 +1,525 @@
+package com.aimoodchecker.api;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.Counter;
+import com.aimoodchecker.metrics.Metrics;
+import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.MoodStatistics;
+import com.aimoodchecker.repository.EntryRepository.TrendPoint;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP API over the mood entries, so other tools on this machine (widgets, scripts) can
+ * read and write them through the app instead of opening mood.db themselves. Off unless
+ * -Daimoodchecker.api.port is set, and bound to the loopback address only. Every request runs
+ * on its own virtual thread; responses are written with Jackson's streaming generator.
+ *
+ * GET    /api/entries?from=DATE&to=DATE  entries in a date range, newest first (default: last 30 days)
+ * GET    /api/entries/{id}
+ * POST   /api/entries                    {"mood_type": "Happy", "description": "..."}
+ * PUT    /api/entries/{id}               same body
+ * DELETE /api/entries/{id}
+ * GET    /api/trends?days=N              daily mood and AI sentiment averages (default 30)
+ * GET    /api/stats?days=N               counts and averages (default 30)
+ *
+ * GET responses carry an ETag built from the repository's data version, and a matching
+ * If-None-Match gets 304 Not Modified without touching the database.
+ *
+ * Being on the loopback address doesn't keep web pages out: the user's browser can reach it
+ * too. So requests must name this server in Host (127.0.0.1:PORT or localhost:PORT), which
+ * stops DNS rebinding, and any request carrying a different Origin is refused, as browsers
+ * send one with cross-site requests. POST and PUT also need Content-Type: application/json,
+ * which a page can't send cross-site without a CORS preflight, and this server answers none.
+ */
+public final class ApiServer {
+    private static final Logger log = Log.get(ApiServer.class);
+
+    public static final String PORT_PROPERTY = "aimoodchecker.api.port";
+
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    private static final String PREFIX = "/api/";
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final List<String> MOOD_TYPES = List.of("Happy", "Neutral", "Sad");
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 3660;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static ApiServer instance;
+
+    private final Counter notModified = Metrics.getInstance().counter("api.notModified");
+    private final Counter errors = Metrics.getInstance().counter("api.errors");
+    private final Counter rejected = Metrics.getInstance().counter("api.rejected");
+
+    private EntryRepository repo;
+    private HttpServer server;
+    private ExecutorService executor;
+    // Part of every ETag: the data version starts from 0 again on each run
+    private String instanceTag;
+    // Host header values that name this server, e.g. "localhost:8080"
+    private volatile List<String> hosts = List.of();
+
+    private ApiServer() {}
+
+    public static synchronized ApiServer getInstance() {
+        if (instance == null) {
+            instance = new ApiServer();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the port from -Daimoodchecker.api.port, or empty if the API is turned off
+     */
+    public static OptionalInt configuredPort() {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null || port.isBlank()) return OptionalInt.empty();
+        try {
+            return OptionalInt.of(Integer.parseInt(port.trim()));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring {}={}: not a port number", PORT_PROPERTY, port);
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * Starts serving on 127.0.0.1; does nothing if already running
+     * @param port Port to listen on, or 0 for any free port
+     * @return The port actually bound
+     */
+    public synchronized int start(EntryRepository repo, int port) throws IOException {
+        if (server != null) return getPort();
+        this.repo = repo;
+        instanceTag = Long.toString(System.currentTimeMillis(), 36);
+        // Headers and body go out as separate writes; with Nagle's algorithm on, the body then
+        // waits for the client's delayed ACK, about 40 ms per request. Read once, on first use
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(executor);
+        server.start();
+        hosts = List.of("127.0.0.1:" + getPort(), "localhost:" + getPort());
+        log.info("Local API listening on http://{}:{}{}", InetAddress.getLoopbackAddress().getHostAddress(),
+                 getPort(), PREFIX);
+        return getPort();
+    }
+
+    /**
+     * Stops accepting requests and gives in-flight ones up to a second to finish
+     */
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+        executor = null;
+        log.info("Local API stopped");
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    // ===== ROUTING =====
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            try {
+                if (!checkCaller(exchange, method)) return;
+                switch (path[0]) {
+                    case "entries" -> {
+                        if (path.length == 1) {
+                            entries(exchange, method, query);
+                        } else if (path.length == 2) {
+                            entry(exchange, method, parseId(path[1]));
+                        } else {
+                            sendError(exchange, 404, "Not found");
+                        }
+                    }
+                    case "trends" -> {
+                        if (allow(exchange, method, "GET")) trends(exchange, query);
+                    }
+                    case "stats" -> {
+                        if (allow(exchange, method, "GET")) stats(exchange, query);
+                    }
+                    default -> sendError(exchange, 404, "Not found");
+                }
+            } catch (IllegalArgumentException | DateTimeParseException | JsonProcessingException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (SQLException e) {
+                log.warn("API request {} {} failed: {}", method, exchange.getRequestURI(), e.getMessage());
+                sendError(exchange, 500, "Database error");
+            } catch (RuntimeException e) {
+                log.error("API request {} {} failed", method, exchange.getRequestURI(), e);
+                sendError(exchange, 500, "Internal error");
+            }
+        }
+    }
+
+    private void entries(HttpExchange exchange, String method, Map<String, String> query) throws IOException, SQLException {
+        switch (method) {
+            case "GET" -> {
+                LocalDate to = query.containsKey("to") ? LocalDate.parse(query.get("to")) : LocalDate.now();
+                LocalDate from = query.containsKey("from") ? LocalDate.parse(query.get("from")) : to.minusDays(DEFAULT_DAYS - 1);
+                if (from.isAfter(to)) {
+                    throw new IllegalArgumentException("from is after to");
+                }
+                String etag = etag();
+                if (notModified(exchange, etag)) return;
+                try (var timer = Metrics.time("api.entries.range")) {
+                    // Read into memory first so a slow client never holds a pooled read connection
+                    List<MoodEntry> entries = repo.getMoodEntriesForDateRange(from, to);
+                    try (JsonGenerator json = startJson(exchange, 200, etag)) {
+                        json.writeStartArray();
+                        for (MoodEntry entry : entries) {
+                            writeEntry(json, entry);
+                        }
+                        json.writeEndArray();
+                    }
+                }
+            }
+            case "POST" -> {
+                try (var timer = Metrics.time("api.entries.create")) {
+                    String[] fields = readEntryBody(exchange);
+                    MoodEntry created = repo.saveMoodEntry(fields[0], fields[1]);
+                    exchange.getResponseHeaders().set("Location", PREFIX + "entries/" + created.getId());
+                    try (JsonGenerator json = startJson(exchange, 201, null)) {
+                        writeEntry(json, created);
+                    }
+                }
+            }
+            default -> allow(exchange, method, "GET, POST");
+        }
+    }
+
+    private void entry(HttpExchange exchange, String method, int id) throws IOException, SQLException {
+        switch (method) {
+            case "GET" -> {
+                String etag = etag();
+                if (notModified(exchange, etag)) return;
+                try (var timer = Metrics.time("api.entries.get")) {
+                    Optional<MoodEntry> entry = repo.getMoodEntryById(id);
+                    if (entry.isEmpty()) {
+                        sendError(exchange, 404, "No entry with ID " + id);
+                        return;
+                    }
+                    try (JsonGenerator json = startJson(exchange, 200, etag)) {
+                        writeEntry(json, entry.get());
+                    }
+                }
+            }
+            case "PUT" -> {
+                try (var timer = Metrics.time("api.entries.update")) {
+                    String[] fields = readEntryBody(exchange);
+                    try {
+                        repo.updateMoodEntry(id, fields[0], fields[1]);
+                    } catch (SQLException e) {
+                        if (missing(exchange, id)) return;
+                        throw e;
+                    }
+                    Optional<MoodEntry> updated = repo.getMoodEntryById(id);
+                    if (updated.isEmpty()) {
+                        // Deleted again before it could be read back
+                        sendError(exchange, 404, "No entry with ID " + id);
+                        return;
+                    }
+                    try (JsonGenerator json = startJson(exchange, 200, null)) {
+                        writeEntry(json, updated.get());
+                    }
+                }
+            }
+            case "DELETE" -> {
+                try (var timer = Metrics.time("api.entries.delete")) {
+                    try {
+                        repo.deleteMoodEntry(id);
+                    } catch (SQLException e) {
+                        if (missing(exchange, id)) return;
+                        throw e;
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                }
+            }
+            default -> allow(exchange, method, "GET, PUT, DELETE");
+        }
+    }
+
+    private void trends(HttpExchange exchange, Map<String, String> query) throws IOException, SQLException {
+        int days = parseDays(query);
+        String etag = etag();
+        if (notModified(exchange, etag)) return;
+        try (var timer = Metrics.time("api.trends")) {
+            List<TrendPoint> points = repo.findDailyAverages(days);
+            try (JsonGenerator json = startJson(exchange, 200, etag)) {
+                json.writeStartArray();
+                for (TrendPoint point : points) {
+                    json.writeStartObject();
+                    json.writeStringField("date", point.date().toString());
+                    writeNumberOrNull(json, "avg_mood", point.avgMood());
+                    writeNumberOrNull(json, "avg_ai", point.avgAi());
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+        }
+    }
+
+    private void stats(HttpExchange exchange, Map<String, String> query) throws IOException, SQLException {
+        int days = parseDays(query);
+        String etag = etag();
+        if (notModified(exchange, etag)) return;
+        try (var timer = Metrics.time("api.stats")) {
+            MoodStatistics stats = repo.getMoodStatistics(days);
+            try (JsonGenerator json = startJson(exchange, 200, etag)) {
+                json.writeStartObject();
+                json.writeNumberField("days", days);
+                json.writeNumberField("happy_count", stats.happyCount());
+                json.writeNumberField("neutral_count", stats.neutralCount());
+                json.writeNumberField("sad_count", stats.sadCount());
+                json.writeNumberField("avg_mood_score", stats.avgMoodScore());
+                json.writeNumberField("avg_sentiment_score", stats.avgSentimentScore());
+                json.writeEndObject();
+            }
+        }
+    }
+
+    // ===== CALLERS =====
+
+    /**
+     * Refuses requests that may come from a web page rather than a local tool: 403 for a
+     * Host that isn't this server or an Origin from anywhere else, 415 for a write that
+     * isn't JSON
+     * @return Whether the request may go ahead
+     */
+    private boolean checkCaller(HttpExchange exchange, String method) throws IOException {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null || !hosts.contains(host.toLowerCase(Locale.ROOT))) {
+            rejected.increment();
+            sendError(exchange, 403, "Host must be one of " + hosts);
+            return false;
+        }
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        if (origin != null && hosts.stream().noneMatch(allowed -> origin.equalsIgnoreCase("http://" + allowed))) {
+            rejected.increment();
+            sendError(exchange, 403, "Cross-origin requests are not allowed");
+            return false;
+        }
+        if (method.equals("POST") || method.equals("PUT")) {
+            String type = exchange.getRequestHeaders().getFirst("Content-Type");
+            // Parameters such as charset=utf-8 are fine
+            String mediaType = type == null ? "" : type.split(";", 2)[0].trim();
+            if (!mediaType.equalsIgnoreCase("application/json")) {
+                rejected.increment();
+                sendError(exchange, 415, "Content-Type must be application/json");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ===== CONDITIONAL REQUESTS =====
+
+    /**
+     * Gets the ETag for the current data. Read before the query, so a write that commits while
+     * the response is built can only make the tag older than the body, never newer. Today's
+     * date is included because windowed results (last N days) move at midnight on their own.
+     */
+    private String etag() {
+        return "\"" + instanceTag + "-" + repo.getDataVersion() + "-" + LocalDate.now().toEpochDay() + "\"";
+    }
+
+    /**
+     * Answers 304 if If-None-Match lists the current ETag (or *)
+     */
+    private boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        String header = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (header == null) return false;
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison, as RFC 9110 asks for If-None-Match
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) {
+                notModified.increment();
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                exchange.sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ===== REQUESTS =====
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid entry ID: " + text);
+        }
+    }
+
+    private static int parseDays(Map<String, String> query) {
+        String text = query.get("days");
+        if (text == null) return DEFAULT_DAYS;
+        try {
+            int days = Integer.parseInt(text);
+            if (days >= 1 && days <= MAX_DAYS) return days;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("days must be a number from 1 to " + MAX_DAYS);
+    }
+
+    /**
+     * Reads {"mood_type": ..., "description": ...} from the request body
+     * @return { moodType, description }
+     */
+    private static String[] readEntryBody(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+        }
+        String moodType = null;
+        String description = "";
+        try (JsonParser json = JSON.createParser(body)) {
+            if (json.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String name = json.currentName();
+                JsonToken value = json.nextToken();
+                if (value.isStructStart()) {
+                    json.skipChildren();
+                } else if (name.equals("mood_type")) {
+                    moodType = json.getValueAsString();
+                } else if (name.equals("description") && value != JsonToken.VALUE_NULL) {
+                    description = json.getValueAsString();
+                }
+            }
+        }
+        if (!MOOD_TYPES.contains(moodType)) {
+            throw new IllegalArgumentException("mood_type must be one of " + MOOD_TYPES);
+        }
+        return new String[] { moodType, description };
+    }
+
+    /**
+     * After a failed update or delete, answers 404 if that is because the entry doesn't exist
+     */
+    private boolean missing(HttpExchange exchange, int id) throws IOException, SQLException {
+        if (repo.getMoodEntryById(id).isPresent()) return false;
+        sendError(exchange, 404, "No entry with ID " + id);
+        return true;
+    }
+
+    // ===== RESPONSES =====
+
+    private boolean allow(HttpExchange exchange, String method, String allowed) throws IOException {
+        if (allowed.equals(method)) return true;
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendError(exchange, 405, "Method " + method + " not allowed");
+        return false;
+    }
+
+    /**
+     * Sends the headers and returns a generator over the (chunked) body; closing it ends the response
+     */
+    private static JsonGenerator startJson(HttpExchange exchange, int status, String etag) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        }
+        exchange.sendResponseHeaders(status, 0);
+        // The generator buffers on its own, so each chunk on the wire is up to 8 KB
+        return JSON.createGenerator(exchange.getResponseBody(), JsonEncoding.UTF8);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (status >= 500) errors.increment();
+        try (JsonGenerator json = startJson(exchange, status, null)) {
+            json.writeStartObject();
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeEntry(JsonGenerator json, MoodEntry entry) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", entry.getId());
+        json.writeStringField("date", entry.getDate() != null ? entry.getDate().toString() : null);
+        json.writeStringField("mood_type", entry.getMoodType());
+        json.writeStringField("description", entry.getDescription());
+        writeNumberOrNull(json, "sentiment_score", entry.getSentimentScore());
+        json.writeStringField("created_at", entry.getCreatedAt());
+        if (entry.getCreatedEpoch() != null) {
+            json.writeNumberField("created_epoch", entry.getCreatedEpoch());
+        } else {
+            json.writeNullField("created_epoch");
+        }
+        if (entry.getUtcOffset() != null) {
+            json.writeNumberField("utc_offset", entry.getUtcOffset());
+        } else {
+            json.writeNullField("utc_offset");
+        }
+        json.writeStringField("time_zone", entry.getTimeZone());
+        json.writeEndObject();
+    }
+
+    private static void writeNumberOrNull(JsonGenerator json, String name, Double value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(name, value);
+        } else {
+            json.writeNullField(name);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.aimoodchecker.cli;
+
+import com.aimoodchecker.model.MoodEntry;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mood entries as CSV with a header row, or as JSON Lines (one object per line), read and
+ * written one entry at a time. Both use the column names of the mood_entries table, so an
+ * export can be imported again; on import the id is ignored and only date and mood_type
+ * are required.
+ */
+enum EntryFormat {
+    CSV, JSONL;
+
+    static final List<String> COLUMNS = List.of("id", "date", "mood_type", "description", "sentiment_score",
+                                                "created_at", "created_epoch", "utc_offset", "time_zone");
+
+    // Only the streaming API; databind would add a few hundred classes to startup
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /**
+     * Writes entries in a format; close() flushes but leaves the underlying writer open
+     */
+    interface EntryWriter extends Closeable {
+        void write(MoodEntry entry) throws IOException;
+    }
+
+    /**
+     * Reads entries in a format
+     */
+    interface EntryReader extends Closeable {
+        /**
+         * Gets the next entry, or null at the end of the input
+         */
+        MoodEntry next() throws IOException;
+    }
+
+    /**
+     * Gets the format for a file name: .csv is CSV, anything else JSON Lines
+     */
+    static EntryFormat forFile(String name) {
+        return name.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSONL;
+    }
+
+    static EntryFormat parse(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    EntryWriter writer(Writer out) throws IOException {
+        return this == CSV ? new CsvWriter(out) : new JsonWriter(out);
+    }
+
+    EntryReader reader(BufferedReader in) throws IOException {
+        return this == CSV ? new CsvReader(in) : new JsonReader(in);
+    }
+
+    private static Object[] values(MoodEntry entry) {
+        return new Object[] { entry.getId(), entry.getDate(), entry.getMoodType(), entry.getDescription(),
+                              entry.getSentimentScore(), entry.getCreatedAt(), entry.getCreatedEpoch(),
+                              entry.getUtcOffset(), entry.getTimeZone() };
+    }
+
+    /**
+     * Builds an entry from column values by name; empty strings count as missing
+     */
+    private static MoodEntry toEntry(Map<String, String> row, long number) throws IOException {
+        String date = value(row, "date");
+        String moodType = value(row, "mood_type");
+        if (date == null || moodType == null) {
+            throw new IOException("Entry " + number + ": date and mood_type are required");
+        }
+        try {
+            String score = value(row, "sentiment_score");
+            String epoch = value(row, "created_epoch");
+            String offset = value(row, "utc_offset");
+            return new MoodEntry(0, LocalDate.parse(date), moodType, value(row, "description"),
+                                 score == null ? null : Double.valueOf(score), value(row, "created_at"),
+                                 epoch == null ? null : Long.valueOf(epoch),
+                                 offset == null ? null : Integer.valueOf(offset), value(row, "time_zone"));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IOException("Entry " + number + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String value(Map<String, String> row, String column) {
+        String value = row.get(column);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    // ===== CSV =====
+
+    private static final class CsvWriter implements EntryWriter {
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder();
+
+        CsvWriter(Writer out) throws IOException {
+            this.out = out;
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        }
+
+        @Override
+        public void write(MoodEntry entry) throws IOException {
+            line.setLength(0);
+            Object[] values = values(entry);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) line.append(',');
+                if (values[i] != null) quote(values[i].toString());
+            }
+            out.append(line).append('\n');
+        }
+
+        /**
+         * Quotes a field only if it contains a comma, quote or line break (RFC 4180)
+         */
+        private void quote(String field) {
+            boolean plain = field.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r');
+            if (plain) {
+                line.append(field);
+            } else {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class CsvReader implements EntryReader {
+        private final BufferedReader in;
+        private final List<String> header;
+        private final StringBuilder field = new StringBuilder();
+        private long count;
+
+        CsvReader(BufferedReader in) throws IOException {
+            this.in = in;
+            List<String> names = readRecord();
+            if (names == null) throw new IOException("Empty CSV file");
+            header = names.stream().map(name -> name.strip().toLowerCase(Locale.ROOT)).toList();
+        }
+
+        @Override
+        public MoodEntry next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) return null;
+            } while (record.size() == 1 && record.get(0).isEmpty());
+
+            count++;
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                row.put(header.get(i), record.get(i));
+            }
+            return toEntry(row, count);
+        }
+
+        /**
+         * Reads one record; quoted fields may contain commas, doubled quotes and line breaks
+         */
+        private List<String> readRecord() throws IOException {
+            int c = in.read();
+            if (c == -1) return null;
+            List<String> record = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            for (; c != -1; c = in.read()) {
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        if (in.read() == '"') {
+                            field.append('"');
+                        } else {
+                            in.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            record.add(field.toString());
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // ===== JSON LINES =====
+
+    private static final class JsonWriter implements EntryWriter {
+        private final JsonGenerator json;
+
+        JsonWriter(Writer out) throws IOException {
+            json = JSON.createGenerator(out);
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void write(MoodEntry entry) throws IOException {
+            Object[] values = values(entry);
+            json.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                json.writeFieldName(COLUMNS.get(i));
+                if (value == null) {
+                    json.writeNull();
+                } else if (value instanceof Integer number) {
+                    json.writeNumber(number);
+                } else if (value instanceof Long number) {
+                    json.writeNumber(number);
+                } else if (value instanceof Double number) {
+                    json.writeNumber(number);
+                } else {
+                    json.writeString(value.toString());
+                }
+            }
+            json.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.writeRaw('\n');
+            json.close();
+        }
+    }
+
+    private static final class JsonReader implements EntryReader {
+        private final JsonParser json;
+        private long count;
+
+        JsonReader(BufferedReader in) throws IOException {
+            json = JSON.createParser(in);
+        }
+
+        @Override
+        public MoodEntry next() throws IOException {
+            JsonToken token = json.nextToken();
+            if (token == null) return null;
+            count++;
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("Entry " + count + ": expected a JSON object");
+            }
+            Map<String, String> row = new HashMap<>();
+            while (json.nextToken() == JsonToken.FIELD_NAME) {
+                String name = json.currentName();
+                JsonToken value = json.nextToken();
+                if (value.isStructStart()) {
+                    json.skipChildren();
+                } else if (value != JsonToken.VALUE_NULL) {
+                    row.put(name, json.getText());
+                }
+            }
+            return toEntry(row, count);
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package com.aimoodchecker.cli;
+
+import com.aimoodchecker.analytics.DivergenceAnalysis;
+import com.aimoodchecker.analytics.MoodAnalytics;
+import com.aimoodchecker.analytics.TermIndex;
+import com.aimoodchecker.cli.EntryFormat.EntryReader;
+import com.aimoodchecker.cli.EntryFormat.EntryWriter;
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.dao.SchemaMigrations;
+import com.aimoodchecker.dao.SqlMonitor;
+import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.MoodEvent;
+import com.aimoodchecker.repository.EntryRepository.MoodStatistics;
+import com.aimoodchecker.repository.EntryRepository.TrendPoint;
+import com.aimoodchecker.service.ChangeDetectionService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Command line entry point for batch work on the mood database, sharing EntryRepository
+ * and the services with the app but never loading JavaFX. Output is written as it is
+ * produced, so exports and reports can be piped; progress and summaries go to stderr and
+ * log records to the log file only
+ * (set -Daimoodchecker.log.console=true to see them too).
+ *
+ * Usage: MoodCli [--db FILE] [--sql-report] COMMAND [OPTIONS], see USAGE.
+ * Exit status is 0 on success, 1 when the command failed and 2 for invalid arguments.
+ */
+public final class MoodCli {
+
+    private static final String USAGE = """
+        Usage: mood-cli [--db FILE] [--sql-report] COMMAND [OPTIONS]
+
+          import FILE|- [--format csv|jsonl] [--batch N]
+                          add entries from an export; the format follows the file extension
+          export [FILE|-] [--format csv|jsonl]
+                          write every entry, oldest first (default: JSON Lines to stdout)
+          rescore [--all]
+                          compute missing AI sentiment scores, or all of them with --all
+          rollups         rebuild the detected mood events and the full-text search index
+          stats [--days N]
+                          entry counts, averages, streaks and mood/AI agreement
+          report [--days N] [--out FILE]
+                          Markdown report of the last N days (default 30)
+          maintenance [--vacuum] [--full-check]
+                          check integrity, refresh planner statistics, truncate the WAL
+                          and optionally compact the file
+
+          --db FILE       database file (default: mood.db, as the app)
+          --sql-report    print the statements that took the most time to stderr afterwards
+        """;
+
+    private static final List<String> COMMANDS =
+        List.of("import", "export", "rescore", "rollups", "stats", "report", "maintenance");
+
+    private static final int PROGRESS_EVERY = 10_000;
+
+    private final PrintWriter out;
+    private final PrintWriter err;
+    private EntryRepository repo;
+
+    private MoodCli(PrintWriter out, PrintWriter err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        // Must be set before anything touches the logging or metrics classes; a run is too
+        // short to attach JConsole to, so don't pay for starting the platform MBean server
+        if (System.getProperty("aimoodchecker.log.console") == null) {
+            System.setProperty("aimoodchecker.log.console", "false");
+        }
+        if (System.getProperty("aimoodchecker.jmx") == null) {
+            System.setProperty("aimoodchecker.jmx", "false");
+        }
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8)));
+        PrintWriter err = new PrintWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8), true);
+        int status = run(out, err, args);
+        out.flush();
+        System.exit(status);
+    }
+
+    /**
+     * Runs one command without exiting, e.g. from a test; the database is the one
+     * DBConnection opens, so --db only works before it has been loaded
+     * @return The exit status
+     */
+    public static int run(PrintWriter out, PrintWriter err, String... args) {
+        return new MoodCli(out, err).run(args);
+    }
+
+    private int run(String[] args) {
+        List<String> rest = new ArrayList<>(List.of(args));
+        boolean sqlReport = false;
+        while (!rest.isEmpty() && rest.get(0).startsWith("--")) {
+            String option = rest.remove(0);
+            switch (option) {
+                case "--db" -> {
+                    if (rest.isEmpty()) return usage("--db needs a file");
+                    // Read once when DBConnection loads, which hasn't happened yet
+                    System.setProperty("aimoodchecker.db", rest.remove(0));
+                }
+                case "--sql-report" -> sqlReport = true;
+                case "--help" -> {
+                    out.print(USAGE);
+                    return 0;
+                }
+                default -> {
+                    return usage("Unknown option: " + option);
+                }
+            }
+        }
+        if (rest.isEmpty() || rest.get(0).equals("help")) {
+            out.print(USAGE);
+            return rest.isEmpty() ? 2 : 0;
+        }
+
+        String command = rest.remove(0);
+        if (!COMMANDS.contains(command)) {
+            // Checked before opening the database, so a typo doesn't create an empty one
+            return usage("Unknown command: " + command);
+        }
+        Options options = new Options(rest);
+        try {
+            DBConnection.initDatabase();
+            repo = EntryRepository.getInstance();
+            switch (command) {
+                case "import" -> importEntries(options);
+                case "export" -> exportEntries(options);
+                case "rescore" -> rescore(options);
+                case "rollups" -> {
+                    options.checkAllUsed();
+                    rebuildRollups();
+                }
+                case "stats" -> printStats(options);
+                case "report" -> writeReport(options);
+                default -> maintain(options);
+            }
+            if (sqlReport) {
+                out.flush();
+                err.print(SqlMonitor.formatReport(SqlMonitor.getInstance().getTopStatements(10)));
+                err.flush();
+            }
+            return 0;
+        } catch (IllegalArgumentException e) {
+            return usage(e.getMessage());
+        } catch (SQLException | IOException | UncheckedIOException e) {
+            out.flush();
+            err.println(command + " failed: " + describe(e));
+            return 1;
+        } finally {
+            out.flush();
+            DBConnection.closeConnection();
+        }
+    }
+
+    private static String describe(Exception e) {
+        Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+        // These only carry the path as their message
+        if (cause instanceof NoSuchFileException) return "no such file " + cause.getMessage();
+        if (cause instanceof AccessDeniedException) return "cannot access " + cause.getMessage();
+        return cause.getMessage();
+    }
+
+    private int usage(String problem) {
+        out.flush();
+        err.println(problem);
+        err.print(USAGE);
+        err.flush();
+        return 2;
+    }
+
+    // ===== COMMANDS =====
+
+    private void importEntries(Options options) throws IOException, SQLException {
+        String file = options.positional("FILE");
+        EntryFormat format = options.format(file);
+        int batch = options.intValue("--batch", 1000);
+        options.checkAllUsed();
+
+        long start = System.nanoTime();
+        int imported = 0;
+        BufferedReader in = file.equals("-")
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+        try (EntryReader reader = format.reader(in)) {
+            List<MoodEntry> pending = new ArrayList<>(batch);
+            for (MoodEntry entry = reader.next(); entry != null; entry = reader.next()) {
+                pending.add(entry);
+                if (pending.size() == batch) {
+                    imported += repo.importMoodEntries(pending);
+                    pending.clear();
+                    if (imported % PROGRESS_EVERY < batch) {
+                        progress("%d entries...", imported);
+                    }
+                }
+            }
+            imported += repo.importMoodEntries(pending);
+        }
+        progress("Imported %d entries in %.1f s", imported, seconds(start));
+    }
+
+    private void exportEntries(Options options) throws IOException, SQLException {
+        String file = options.positionalOr("-");
+        EntryFormat format = options.format(file);
+        options.checkAllUsed();
+
+        long start = System.nanoTime();
+        int[] exported = { 0 };
+        Writer target = file.equals("-") ? out : Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8);
+        try (EntryWriter writer = format.writer(target)) {
+            repo.forEachMoodEntry(entry -> {
+                try {
+                    writer.write(entry);
+                    exported[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            if (target != out) target.close();
+        }
+        progress("Exported %d entries in %.1f s", exported[0], seconds(start));
+    }
+
+    private void rescore(Options options) throws SQLException {
+        boolean all = options.flag("--all");
+        options.checkAllUsed();
+        long start = System.nanoTime();
+        int changed = repo.rescoreMoodEntries(all);
+        progress("Rescored %d entries in %.1f s", changed, seconds(start));
+    }
+
+    private void rebuildRollups() throws SQLException {
+        long start = System.nanoTime();
+        int events = ChangeDetectionService.getInstance().rebuild(repo);
+        progress("Mood events: %d detected in %.1f s", events, seconds(start));
+
+        start = System.nanoTime();
+        DBConnection.getWriter().runStandalone(conn -> {
+            SchemaMigrations.rebuildFullTextIndex(conn);
+            return null;
+        });
+        progress("Full-text index rebuilt in %.1f s", seconds(start));
+    }
+
+    private void printStats(Options options) throws SQLException {
+        int days = options.intValue("--days", 30);
+        options.checkAllUsed();
+
+        MoodAnalytics.Snapshot trends = repo.getMoodAnalytics();
+        Optional<LocalDate> first = repo.getFirstEntryDate();
+        out.printf("Entries       %d%s%n", trends.entryCount(),
+                   first.map(date -> ", since " + date).orElse(""));
+
+        MoodStatistics stats = repo.getMoodStatistics(days);
+        out.printf("%-14s%d entries: %d Happy, %d Neutral, %d Sad%n", "Last " + days + " days",
+                   stats.happyCount() + stats.neutralCount() + stats.sadCount(),
+                   stats.happyCount(), stats.neutralCount(), stats.sadCount());
+        out.printf("              average mood %.2f of 5, AI sentiment %.2f%n",
+                   stats.avgMoodScore(), stats.avgSentimentScore());
+        out.printf("Trend         7-day mood %s, 30-day %s, volatility %s%n",
+                   format(trends.moodMean7()), format(trends.moodMean30()), format(trends.moodVolatility30()));
+        out.printf("Streaks       %s; longest %d happy, %d sad%n",
+                   trends.currentStreakMood() == null ? "none"
+                       : trends.currentStreak() + " " + trends.currentStreakMood() + " in a row",
+                   trends.longestHappyStreak(), trends.longestSadStreak());
+        out.flush();
+
+        DivergenceAnalysis.Report divergence = repo.getDivergenceReport();
+        if (divergence.overall() != null) {
+            out.printf("Mood vs AI    correlation %s, %d strong disagreements%n",
+                       format(divergence.overall().correlation()), divergence.disagreementCount());
+        }
+    }
+
+    private void writeReport(Options options) throws IOException, SQLException {
+        int days = options.intValue("--days", 30);
+        String file = options.value("--out", "-");
+        options.checkAllUsed();
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1);
+
+        PrintWriter report = file.equals("-") ? out
+            : new PrintWriter(Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8));
+        try {
+            report.printf("# Mood report, %s to %s%n%n", from, to);
+
+            MoodStatistics stats = repo.getMoodStatistics(days);
+            report.printf("## Summary%n%n");
+            report.printf("- %d entries: %d happy, %d neutral, %d sad%n",
+                          stats.happyCount() + stats.neutralCount() + stats.sadCount(),
+                          stats.happyCount(), stats.neutralCount(), stats.sadCount());
+            report.printf("- Average mood %.2f of 5, AI sentiment %.2f%n%n",
+                          stats.avgMoodScore(), stats.avgSentimentScore());
+            report.flush();
+
+            report.printf("## Daily averages%n%n| Date | Mood | AI sentiment |%n|---|---|---|%n");
+            for (TrendPoint point : repo.findDailyAverages(days)) {
+                report.printf("| %s | %.2f | %.2f |%n", point.date(), point.avgMood(), point.avgAi());
+            }
+            report.println();
+            report.flush();
+
+            List<MoodEvent> events = repo.findMoodEvents(from);
+            report.printf("## Detected changes%n%n");
+            if (events.isEmpty()) {
+                report.printf("None.%n");
+            }
+            for (MoodEvent event : events) {
+                report.printf("- %s: %s %s (value %.2f, score %.1f)%n", event.date(), event.series(),
+                              event.kind().toLowerCase(), event.value(), event.score());
+            }
+            report.println();
+
+            report.printf("## Mood vs AI sentiment by month%n%n| Month | Entries | Correlation | Mean gap |%n|---|---|---|---|%n");
+            for (DivergenceAnalysis.PeriodStats month : repo.getDivergenceReport().months()) {
+                if (month.month().atEndOfMonth().isBefore(from)) continue;
+                report.printf("| %s | %d | %s | %s |%n", month.month(), month.count(),
+                              format(month.correlation()), format(month.meanGap()));
+            }
+            report.println();
+
+            report.printf("## Words that set sad entries apart%n%n%s%n%n", keywords(true));
+            report.printf("## Words that set happy entries apart%n%n%s%n", keywords(false));
+        } finally {
+            if (report != out) report.close();
+        }
+        if (report != out) {
+            progress("Report written to %s", file);
+        }
+    }
+
+    private String keywords(boolean sad) throws SQLException {
+        List<String> terms = repo.getKeywords(sad, 10).stream().map(TermIndex.Keyword::term).toList();
+        return terms.isEmpty() ? "Not enough entries yet." : String.join(", ", terms);
+    }
+
+    private void maintain(Options options) throws SQLException {
+        boolean vacuum = options.flag("--vacuum");
+        boolean fullCheck = options.flag("--full-check");
+        options.checkAllUsed();
+        Path file = Path.of(System.getProperty("aimoodchecker.db", "mood.db"));
+        long sizeBefore = file.toFile().length();
+
+        // On the writer connection, so nothing else writes while it runs
+        DBConnection.getWriter().runStandalone(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                long start = System.nanoTime();
+                List<String> problems = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery(fullCheck ? "PRAGMA integrity_check" : "PRAGMA quick_check")) {
+                    while (rs.next()) {
+                        if (!"ok".equals(rs.getString(1))) problems.add(rs.getString(1));
+                    }
+                }
+                progress("Integrity: %s in %.1f s", problems.isEmpty() ? "ok" : String.join("; ", problems), seconds(start));
+
+                start = System.nanoTime();
+                stmt.execute("ANALYZE");
+                progress("Planner statistics refreshed in %.1f s", seconds(start));
+
+                if (vacuum) {
+                    start = System.nanoTime();
+                    stmt.execute("VACUUM");
+                    progress("Vacuumed in %.1f s", seconds(start));
+                }
+
+                try (ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(TRUNCATE)")) {
+                    rs.next();
+                    progress("WAL checkpointed: %d pages%s", rs.getInt(3), rs.getInt(1) != 0 ? " (busy, partial)" : "");
+                }
+            }
+            return null;
+        });
+        progress("Database file %d KB -> %d KB", sizeBefore / 1024, file.toFile().length() / 1024);
+    }
+
+    // ===== HELPERS =====
+
+    /**
+     * Prints a status line right away, so long commands show where they are. Goes to
+     * stderr, so it never ends up in piped output.
+     */
+    private void progress(String format, Object... args) {
+        err.printf(format + "%n", args);
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format("%.2f", value);
+    }
+
+    /**
+     * The arguments after the command: --name value pairs, flags and at most one positional
+     */
+    private static final class Options {
+        private final List<String> args;
+
+        Options(List<String> args) {
+            this.args = new ArrayList<>(args);
+        }
+
+        boolean flag(String name) {
+            return args.remove(name);
+        }
+
+        String value(String name, String fallback) {
+            int index = args.indexOf(name);
+            if (index < 0) return fallback;
+            if (index + 1 >= args.size()) throw new IllegalArgumentException(name + " needs a value");
+            args.remove(index);
+            return args.remove(index);
+        }
+
+        /**
+         * A count such as --batch or --days, which must be 1 or more
+         */
+        int intValue(String name, int fallback) {
+            String value = value(name, null);
+            int number;
+            try {
+                number = value == null ? fallback : Integer.parseInt(value.replace("_", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " needs a number, not " + value);
+            }
+            if (number < 1) throw new IllegalArgumentException(name + " needs a positive number, not " + value);
+            return number;
+        }
+
+        /**
+         * The format from --format, or else from the file's extension
+         */
+        EntryFormat format(String file) {
+            String name = value("--format", null);
+            try {
+                return name != null ? EntryFormat.parse(name) : EntryFormat.forFile(file);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown format: " + name);
+            }
+        }
+
+        String positional(String what) {
+            String value = positionalOr(null);
+            if (value == null) throw new IllegalArgumentException("Missing " + what);
+            return value;
+        }
+
+        String positionalOr(String fallback) {
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (arg.equals("-") || !arg.startsWith("--")) {
+                    return args.remove(i);
+                }
+                if (arg.equals("--format") || arg.equals("--batch") || arg.equals("--days") || arg.equals("--out")) {
+                    i++; // Skip the option's value
+                }
+            }
+            return fallback;
+        }
+
+        void checkAllUsed() {
+            if (!args.isEmpty()) throw new IllegalArgumentException("Unexpected arguments: " + String.join(" ", args));
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package com.aimoodchecker.controller;
 
 import javafx.fxml.*;
-import javafx.scene.Parent;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 import java.io.IOException;
+import java.util.List;
+import com.aimoodchecker.controller.ViewRegistry.LoadedView;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.Metrics;
+import com.aimoodchecker.metrics.DiagnosticsRecorder;
+import com.aimoodchecker.metrics.ViewLoadEvent;
+import com.aimoodchecker.service.BackgroundExecutor;
 import com.aimoodchecker.service.SentimentService;
 import com.aimoodchecker.service.ChatGPTService;
 import com.aimoodchecker.repository.EntryRepository;
 
 public class AppController {
+    private static final Logger log = Log.get(AppController.class);
+
+    public static final String HOME_VIEW = "/HomeView.fxml";
+    public static final String COMPOSE_VIEW = "/ComposeView.fxml";
+    public static final String HISTORY_VIEW = "/HistoryView.fxml";
+    public static final String GRAPH_VIEW = "/GraphView.fxml";
+    public static final String HEATMAP_VIEW = "/HeatmapView.fxml";
+    // Hidden view opened with Ctrl+Shift+D; not preloaded at startup
+    public static final String DIAGNOSTICS_VIEW = "/DiagnosticsView.fxml";
+    public static final List<String> SECONDARY_VIEWS = List.of(COMPOSE_VIEW, HISTORY_VIEW, GRAPH_VIEW, HEATMAP_VIEW);
     
     @FXML private StackPane content;
     @FXML private Label statusLabel;
@@ -17,39 +34,91 @@ public class AppController {
     private final EntryRepository repo = EntryRepository.getInstance();
     private final SentimentService sentiment = new SentimentService();
     private final ChatGPTService chatGPT = new ChatGPTService();
+    private final BackgroundExecutor executor = BackgroundExecutor.getInstance();
+
+    // Views are parsed once and reused; controllers get their dependencies when loaded
+    private final ViewRegistry views = new ViewRegistry(this::wire);
+    private LoadedView currentView;
+    private double lastNavigationMillis;
 
     @FXML
     private void initialize(){
-        goHome();
+        // Content is filled in by Main once startup has loaded the database and home view
+        statusLabel.setText("Starting...");
+    }
+
+    private void wire(Object c) {
+        if (c instanceof NeedsDeps nd) nd.init(repo, sentiment, chatGPT, executor);
+
+        if (c instanceof RoutedController rc) rc.setApp(this);
+    }
+
+    /**
+     * Loads and caches a view without showing it; safe to call from a background thread
+     */
+    public void preloadView(String fxml) throws IOException {
+        views.get(fxml);
     }
 
     private void setContent(String fxml) {
+        long start = System.nanoTime();
+        String name = viewName(fxml);
+        ViewLoadEvent event = DiagnosticsRecorder.eventsEnabled() ? new ViewLoadEvent() : null;
+        if (event != null) {
+            event.begin();
+            event.view = name;
+            event.cached = views.isLoaded(fxml);
+        }
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
-            Parent page = loader.load();
-            Object c = loader.getController();
+            LoadedView view = views.get(fxml);
+
+            if (currentView != null && currentView != view
+                    && currentView.controller() instanceof ViewLifecycle lc) {
+                lc.onDeactivate();
+            }
 
-            if (c instanceof NeedsDeps nd) nd.init(repo, sentiment, chatGPT);
+            content.getChildren().setAll(view.root());
+            currentView = view;
 
-            if (c instanceof RoutedController rc) rc.setApp(this);
+            if (view.controller() instanceof ViewLifecycle lc) lc.onActivate();
 
-            content.getChildren().setAll(page);
+            long elapsed = System.nanoTime() - start;
+            Metrics.getInstance().histogram("ui.navigate." + name).record(elapsed);
+            if (event != null) event.commit();
+            lastNavigationMillis = elapsed / 1_000_000.0;
+            if (log.isDebugEnabled()) {
+                log.debug("Navigated to {} in {} ms", fxml, String.format("%.1f", lastNavigationMillis));
+            }
 
         } catch (IOException e) {
 
-            e.printStackTrace();
+            log.error("Error loading {}", fxml, e);
             
             statusLabel.setText("Error loading " + fxml);
         }
     }
 
+    /**
+     * "/GraphView.fxml" -> "GraphView", for metric names
+     */
+    private static String viewName(String fxml) {
+        return fxml.substring(fxml.lastIndexOf('/') + 1).replace(".fxml", "");
+    }
+
     public void setStatus(String msg) { statusLabel.setText(msg); }
 
+    /**
+     * Gets how long the most recent navigation took, including view activation
+     */
+    public double getLastNavigationMillis() { return lastNavigationMillis; }
+
     // Navigation API
-    public void goHome()    { setContent("/HomeView.fxml"); }
-    public void goCompose() { setContent("/ComposeView.fxml"); }
-    public void goHistory() { setContent("/HistoryView.fxml"); }
-    public void goGraph()   {setContent("/GraphView.fxml");}
+    public void goHome()    { setContent(HOME_VIEW); }
+    public void goCompose() { setContent(COMPOSE_VIEW); }
+    public void goHistory() { setContent(HISTORY_VIEW); }
+    public void goGraph()   { setContent(GRAPH_VIEW); }
+    public void goHeatmap() { setContent(HEATMAP_VIEW); }
+    public void goDiagnostics() { setContent(DIAGNOSTICS_VIEW); }
     
 
 
@@ -8,16 +8,30 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ButtonBar;
 
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+import com.aimoodchecker.service.BackgroundExecutor.Subtask;
 import com.aimoodchecker.service.SentimentService;
 import com.aimoodchecker.service.ChatGPTService;
+import com.aimoodchecker.service.ForecastService;
 import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.model.MoodEntry;
 
+import java.util.concurrent.CompletableFuture;
+
+public class ComposeController implements RoutedController, NeedsDeps, ViewLifecycle {
+    private static final Logger log = Log.get(ComposeController.class);
 
-public class ComposeController implements RoutedController, NeedsDeps {
     
     private AppController app;
     private EntryRepository entryRepository;
     private ChatGPTService chatGPT;
+    private BackgroundExecutor executor;
+
+    private static final String COACHING_UNAVAILABLE =
+        "Mood saved successfully! 💚\n\nI couldn't get AI suggestions right now, but your mood has been recorded.";
 
     @FXML private TextArea moodText;
     @FXML private Label selectedMoodLabel;
@@ -25,16 +39,30 @@ public class ComposeController implements RoutedController, NeedsDeps {
 
     @FXML
     private void initialize() {
+        resetForm();
+    }
+
+    @Override
+    public void onActivate() {
+        // The view is reused between visits, so start every visit with an empty form
+        resetForm();
+    }
+
+    private void resetForm() {
         // Set initial state
+        moodText.clear();
+        selectedMood = "Neutral";
+        hasExplicitlySelectedMood = false;
         selectedMoodLabel.setText("No mood selected yet");
         selectedMoodLabel.setStyle("-fx-text-fill: gray; -fx-font-style: italic;");
     }
     
     @Override public void setApp(AppController app) { this.app = app; }
     @Override
-    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT) {
+    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT, BackgroundExecutor executor) {
         this.entryRepository = repo;
         this.chatGPT = chatGPT;
+        this.executor = executor;
     }
 
     private String selectedMood = "Neutral"; // Default mood
@@ -71,60 +99,71 @@ public class ComposeController implements RoutedController, NeedsDeps {
     }
 
     @FXML private void onSave() {
-        try {
-            
-            String description = moodText.getText().trim();
-            
-            // Check if user has selected a mood
-            if (selectedMood.equals("Neutral") && !hasExplicitlySelectedMood) {
-                showValidationError("Please select a mood (Happy, Neutral, or Sad) before saving!");
-                app.setStatus("Please select a mood (Happy, Neutral, or Sad) before saving!");
-
-                return;
-            }
-            
-            if (description.isEmpty()) {
-                app.setStatus("Please enter a description of your mood!");
-                showValidationError("Please enter a description of your mood!");
-                return;
-            }
-            
-            // Save to database using repository
-            entryRepository.saveMoodEntry(selectedMood, description);
-            
-            app.setStatus("Mood saved successfully! Getting AI suggestions...");
-            
-            // Automatically get AI coaching suggestions after saving
-            showCoachingSuggestions(selectedMood, description);
-            
-        } catch (Exception e) {
-            System.err.println("Error saving mood: " + e.getMessage());
-            app.setStatus("Error saving mood. Please try again.");
+        String description = moodText.getText().trim();
+        
+        // Check if user has selected a mood
+        if (selectedMood.equals("Neutral") && !hasExplicitlySelectedMood) {
+            showValidationError("Please select a mood (Happy, Neutral, or Sad) before saving!");
+            app.setStatus("Please select a mood (Happy, Neutral, or Sad) before saving!");
+
+            return;
         }
+        
+        if (description.isEmpty()) {
+            app.setStatus("Please enter a description of your mood!");
+            showValidationError("Please enter a description of your mood!");
+            return;
+        }
+        
+        app.setStatus("Saving mood...");
+        saveWithCoaching(selectedMood, description);
     }
 
     /**
-     * Shows AI coaching suggestions automatically after saving
+     * Saves the entry and asks for AI coaching. The coaching request waits for the insert,
+     * so the new entry can be left out of its own related moments, then reads the rest and
+     * calls the API; if the save fails the coaching request is cancelled, since there's
+     * nothing to coach on.
      */
-    private void showCoachingSuggestions(String mood, String description) {
-        // Get coaching suggestions in background
-        new Thread(() -> {
-            try {
-                String coaching = chatGPT.getMoodCoaching(mood, description, entryRepository);
-                
-                // Update UI on JavaFX thread
-                javafx.application.Platform.runLater(() -> {
-                    showCoachingDialog(coaching);
-                    app.setStatus("Mood saved with personalized AI suggestions! 💡");
-                });
-                
-            } catch (Exception e) {
-                javafx.application.Platform.runLater(() -> {
-                    showCoachingDialog("Mood saved successfully! 💚\n\nI couldn't get AI suggestions right now, but your mood has been recorded.");
-                    app.setStatus("Mood saved successfully!");
-                });
-            }
-        }).start();
+    private void saveWithCoaching(String mood, String description) {
+        executor.runAsync(
+            () -> {
+                try (var scope = executor.openScope()) {
+                    CompletableFuture<MoodEntry> saved = new CompletableFuture<>();
+                    scope.fork(Resource.DATABASE, () -> {
+                        saved.complete(entryRepository.saveMoodEntry(mood, description));
+                        BackgroundExecutor.onFx(() -> app.setStatus("Mood saved successfully! Getting AI suggestions..."));
+                        return null;
+                    });
+                    Subtask<String> coaching = scope.fork(Resource.NETWORK, () -> {
+                        try {
+                            // Cancelled by the scope if the save fails
+                            MoodEntry entry = saved.get();
+                            var patterns = executor.withPermit(Resource.DATABASE, () -> entryRepository.getMoodPatterns(entry));
+                            var trends = executor.withPermit(Resource.DATABASE, entryRepository::getMoodAnalytics);
+                            var divergence = executor.withPermit(Resource.DATABASE, entryRepository::getDivergenceReport);
+                            var forecast = executor.withPermit(Resource.DATABASE,
+                                () -> ForecastService.getInstance().getForecast(ChatGPTService.FORECAST_DAYS));
+                            return chatGPT.getMoodCoaching(mood, description, patterns, trends, divergence, forecast);
+                        } catch (InterruptedException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            // Missing suggestions must not cancel the save
+                            return COACHING_UNAVAILABLE;
+                        }
+                    });
+                    scope.join();
+                    return coaching.get();
+                }
+            },
+            coaching -> {
+                showCoachingDialog(coaching);
+                app.setStatus("Mood saved with personalized AI suggestions! 💡");
+            },
+            e -> {
+                log.warn("Error saving mood: {}", e.getMessage());
+                app.setStatus("Error saving mood. Please try again.");
+            });
     }
     
     /**
@@ -0,0 +1,177 @@
+package com.aimoodchecker.controller;
+
+import com.aimoodchecker.dao.SqlMonitor;
+import com.aimoodchecker.logging.Level;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.DiagnosticsRecorder;
+import com.aimoodchecker.metrics.LatencyHistogram;
+import com.aimoodchecker.metrics.Metrics;
+import com.aimoodchecker.metrics.Metrics.Reading;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+import com.aimoodchecker.service.ChatGPTService;
+import com.aimoodchecker.service.SentimentService;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.util.Callback;
+import javafx.util.Duration;
+
+import java.nio.file.Path;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hidden view (Ctrl+Shift+D) listing every metric in the registry with its latency
+ * percentiles and the SQL statements taking the most time, refreshed once a second while open,
+ * and starting or saving a flight recording
+ */
+public class DiagnosticsController implements RoutedController, NeedsDeps, ViewLifecycle {
+    private static final Logger log = Log.get(DiagnosticsController.class);
+
+    private AppController app;
+    private BackgroundExecutor executor;
+    private final DiagnosticsRecorder recorder = DiagnosticsRecorder.getInstance();
+    private final Metrics metrics = Metrics.getInstance();
+    private final SqlMonitor sqlMonitor = SqlMonitor.getInstance();
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> showMetrics()));
+
+    @FXML private TableView<Reading> metricsTable;
+    @FXML private TableColumn<Reading, String> nameColumn;
+    @FXML private TableColumn<Reading, String> countColumn;
+    @FXML private TableColumn<Reading, String> valueColumn;
+    @FXML private TableColumn<Reading, String> p50Column;
+    @FXML private TableColumn<Reading, String> p95Column;
+    @FXML private TableColumn<Reading, String> p99Column;
+    @FXML private TableColumn<Reading, String> maxColumn;
+    @FXML private TextArea sqlReportArea;
+    @FXML private ComboBox<Level> logLevelCombo;
+    @FXML private Button recordButton;
+    @FXML private Label statusLabel;
+
+    @FXML
+    private void initialize() {
+        refresh.setCycleCount(Timeline.INDEFINITE);
+
+        // Applies to every logger without its own override, until the app exits
+        logLevelCombo.getItems().addAll(Level.values());
+        logLevelCombo.setValue(Log.getRootLevel());
+        logLevelCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null && newVal != Log.getRootLevel()) {
+                Log.setRootLevel(newVal);
+                log.info("Log level set to {}", newVal);
+            }
+        });
+
+        nameColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().name()));
+        countColumn.setCellValueFactory(cell -> new SimpleStringProperty(
+            "gauge".equals(cell.getValue().type()) ? "" : String.valueOf(cell.getValue().count())));
+        valueColumn.setCellValueFactory(cell -> new SimpleStringProperty(
+            "counter".equals(cell.getValue().type()) ? "" : format(cell.getValue().value())));
+        p50Column.setCellValueFactory(latency(LatencyHistogram.Snapshot::p50Millis));
+        p95Column.setCellValueFactory(latency(LatencyHistogram.Snapshot::p95Millis));
+        p99Column.setCellValueFactory(latency(LatencyHistogram.Snapshot::p99Millis));
+        maxColumn.setCellValueFactory(latency(LatencyHistogram.Snapshot::maxMillis));
+    }
+
+    private static Callback<TableColumn.CellDataFeatures<Reading, String>, ObservableValue<String>> latency(
+            ToDoubleFunction<LatencyHistogram.Snapshot> field) {
+        return cell -> {
+            LatencyHistogram.Snapshot latency = cell.getValue().latency();
+            return new SimpleStringProperty(latency == null ? "" : format(field.applyAsDouble(latency)));
+        };
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) return "-";
+        return value >= 100 ? String.format("%.0f", value) : String.format("%.2f", value);
+    }
+
+    @Override
+    public void setApp(AppController app) { this.app = app; }
+
+    @Override
+    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT, BackgroundExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void onActivate() {
+        // May have been changed over JMX meanwhile
+        logLevelCombo.setValue(Log.getRootLevel());
+        showRecordButton();
+        showMetrics();
+        refresh.play();
+    }
+
+    @Override
+    public void onDeactivate() {
+        refresh.stop();
+    }
+
+    private void showMetrics() {
+        metricsTable.getItems().setAll(metrics.read());
+        String report = SqlMonitor.formatReport(sqlMonitor.getTopStatements(15));
+        // Replacing identical text would reset the scroll position every second
+        if (!report.equals(sqlReportArea.getText())) {
+            sqlReportArea.setText(report);
+        }
+    }
+
+    @FXML
+    private void onReset() {
+        metrics.reset();
+        sqlMonitor.reset();
+        showMetrics();
+    }
+
+    /**
+     * Starts a recording, or stops it and saves the .jfr file in the working directory
+     */
+    @FXML
+    private void onRecord() {
+        boolean stopping = recorder.isRecording();
+        recordButton.setDisable(true);
+        statusLabel.setText(stopping ? "Saving recording..." : "Starting recording...");
+
+        // Stopping writes the whole recording out, so neither runs on the JavaFX thread
+        executor.runAsync(Resource.CPU,
+            () -> {
+                if (stopping) {
+                    return "Recording saved to " + recorder.stop(Path.of("")).toAbsolutePath();
+                }
+                recorder.start();
+                return "Recording... reproduce the problem, then press Save Recording";
+            },
+            message -> {
+                statusLabel.setText(message);
+                showRecordButton();
+            },
+            e -> {
+                log.warn("Diagnostics recording failed", e);
+                statusLabel.setText("Diagnostics recording failed: " + e.getMessage());
+                showRecordButton();
+            });
+    }
+
+    private void showRecordButton() {
+        recordButton.setDisable(false);
+        recordButton.setText(recorder.isRecording() ? "⏹ Save Recording" : "⏺ Record Diagnostics");
+    }
+
+    @FXML
+    private void onBack() {
+        if (app != null) {
+            app.goHome();
+        }
+    }
+}
@@ -1,24 +1,52 @@
 package com.aimoodchecker.controller;
 
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.analytics.MoodAnalytics;
+import com.aimoodchecker.analytics.MoodForecaster.Forecast;
+import com.aimoodchecker.metrics.ChartRebuildEvent;
+import com.aimoodchecker.metrics.DiagnosticsRecorder;
+import com.aimoodchecker.metrics.Metrics;
+import com.aimoodchecker.repository.EntryEvent;
 import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.MoodEvent;
 import com.aimoodchecker.repository.EntryRepository.TrendPoint;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+import com.aimoodchecker.service.ChangeDetectionService;
+import com.aimoodchecker.service.ChatGPTService;
+import com.aimoodchecker.service.ForecastService;
+import com.aimoodchecker.service.SentimentService;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
 
-public class GraphController implements RoutedController {
+public class GraphController implements RoutedController, NeedsDeps, ViewLifecycle {
+    private static final Logger log = Log.get(GraphController.class);
+
+    /**
+     * Record representing everything one chart needs, loaded together in the background
+     */
+    private record ChartData(List<TrendPoint> points, List<MoodEvent> events, Forecast forecast) {}
 
     private AppController app;
-    private final EntryRepository repo = EntryRepository.getInstance();
+    private EntryRepository repo;
+    private BackgroundExecutor executor;
+
+    // Set when a committed change touches a day inside the charted range
+    private boolean chartStale = true;
+    private boolean active;
 
     @FXML
     private VBox chartContainer;
@@ -29,11 +57,49 @@ public class GraphController implements RoutedController {
     @FXML
     private Label statusLabel;
 
+    @FXML
+    private Label trendSummaryLabel;
+
     @Override
     public void setApp(AppController app) { 
         this.app = app;
     }
 
+    @Override
+    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT, BackgroundExecutor executor) {
+        this.repo = repo;
+        this.executor = executor;
+        repo.getEvents().subscribe(Platform::runLater, this::onEntriesChanged);
+        ChangeDetectionService.getInstance().addListener(() -> Platform.runLater(this::onMoodEventsDetected));
+    }
+
+    /**
+     * New anomalies or shifts were stored; redraw so their markers show up
+     */
+    private void onMoodEventsDetected() {
+        chartStale = true;
+        if (active) {
+            rebuildChart();
+        }
+    }
+
+    /**
+     * Rebuilds only for changes inside the selected range; older edits can't move the chart
+     */
+    private void onEntriesChanged(List<EntryEvent> events) {
+        LocalDate from = LocalDate.now().minusDays(getSelectedDays() - 1);
+        boolean affectsChart = events.stream()
+            .anyMatch(event -> event.date() == null || !event.date().isBefore(from));
+        // Streaks and averages move with every entry, charted or not
+        refreshTrendSummary();
+        if (!affectsChart) return;
+
+        chartStale = true;
+        if (active) {
+            rebuildChart();
+        }
+    }
+
     @FXML 
     private void initialize() {
         // Initialize range combo box
@@ -43,27 +109,43 @@ public class GraphController implements RoutedController {
         // Add listener for range changes
         rangeCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null && !newVal.equals(oldVal)) {
-                System.out.println("Range changed from " + oldVal + " to " + newVal);
+                log.debug("Range changed from {} to {}", oldVal, newVal);
                 rebuildChart();
             }
         });
+    }
 
-        // Debug: Check if we can access the scene and stylesheets
-        System.out.println("=== GraphController Initialization ===");
-        System.out.println("Chart container: " + chartContainer);
-        
-        // Initial chart build
-        rebuildChart();
+    @Override
+    public void onActivate() {
+        active = true;
+        // Keep the existing chart unless a relevant entry changed since it was built
+        if (chartStale) {
+            rebuildChart();
+            refreshTrendSummary();
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        active = false;
     }
 
     @FXML
     private void onRefresh() {
         rebuildChart();
+        refreshTrendSummary();
         if (app != null) {
             app.setStatus("Trends refreshed");
         }
     }
 
+    @FXML
+    private void onViewCalendar() {
+        if (app != null) {
+            app.goHeatmap();
+        }
+    }
+
     @FXML
     private void onBack() {
         if (app != null) {
@@ -71,6 +153,13 @@ public class GraphController implements RoutedController {
         }
     }
     
+    /**
+     * Days of forecast drawn after today: a week for the 7-day range, two weeks otherwise
+     */
+    private static int forecastDaysFor(int days) {
+        return days <= 7 ? 7 : ForecastService.MAX_HORIZON;
+    }
+
     private int getSelectedDays() {
         String value = rangeCombo.getValue();
         if (value == null) return 30;
@@ -79,21 +168,90 @@ public class GraphController implements RoutedController {
         return 30;
     }
 
+    /**
+     * Loads the trend points in the background and builds the chart once they arrive
+     */
     private void rebuildChart() {
+        long start = System.nanoTime();
+        ChartRebuildEvent event = DiagnosticsRecorder.eventsEnabled() ? new ChartRebuildEvent() : null;
+        if (event != null) event.begin();
         int days = getSelectedDays();
-        System.out.println("=== Rebuilding Chart ===");
-        System.out.println("Selected days: " + days);
-        
-        try {
-            // Show loading status
-            if (statusLabel != null) {
-                statusLabel.setText("Loading trend data...");
-                statusLabel.setTextFill(Color.BLUE);
+        chartStale = false;
+        log.debug("Rebuilding chart for {} days", days);
+
+        // Show loading status
+        if (statusLabel != null) {
+            statusLabel.setText("Loading trend data...");
+            statusLabel.setTextFill(Color.BLUE);
+        }
+
+        executor.runAsync(Resource.DATABASE,
+            () -> {
+                // Score any day that finished since the last entry, e.g. across midnight
+                ChangeDetectionService.getInstance().catchUp();
+                return new ChartData(repo.findDailyAverages(days),
+                                     repo.findMoodEvents(LocalDate.now().minusDays(days - 1)),
+                                     ForecastService.getInstance().getForecast(forecastDaysFor(days)));
+            },
+            data -> {
+                // A newer range was picked while this one was loading
+                if (days == getSelectedDays()) {
+                    showChart(data.points(), data.events(), data.forecast(), days);
+                    // Loading plus building the chart; rendering happens on the next pulse
+                    Metrics.getInstance().histogram("ui.chartRebuild").record(System.nanoTime() - start);
+                    if (event != null) {
+                        event.days = days;
+                        event.points = data.points().size();
+                        event.markers = data.events().size();
+                        event.commit();
+                    }
+                }
+            },
+            e -> {
+                log.error("Failed to load trend data", e);
+                showErrorMessage("Failed to load trend data: " + e.getMessage());
+                if (app != null) {
+                    app.setStatus("Failed to load trend data");
+                }
+            });
+    }
+
+    /**
+     * Loads the streaming analytics; cheap, so it doesn't depend on the selected range
+     */
+    private void refreshTrendSummary() {
+        if (trendSummaryLabel == null) return;
+        executor.runAsync(Resource.DATABASE,
+            repo::getMoodAnalytics,
+            this::showTrendSummary,
+            e -> trendSummaryLabel.setText(""));
+    }
+
+    private void showTrendSummary(MoodAnalytics.Snapshot trends) {
+        if (Double.isNaN(trends.moodMean30())) {
+            trendSummaryLabel.setText("No entries in the last 30 days");
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        if (!Double.isNaN(trends.moodMean7())) {
+            text.append(String.format("7-day mood %.1f/5", trends.moodMean7()));
+            double change = trends.weekVersusMonth();
+            if (Math.abs(change) >= 0.1) {
+                text.append(change > 0 ? " ▲" : " ▼");
             }
+            text.append("  •  ");
+        }
+        text.append(String.format("30-day mood %.1f/5  •  Volatility %.2f", trends.moodMean30(), trends.moodVolatility30()));
+        if (trends.currentStreakMood() != null) {
+            text.append(String.format("  •  Current streak: %d %s", trends.currentStreak(), trends.currentStreakMood()));
+        }
+        text.append(String.format("  •  Longest happy streak: %d", trends.longestHappyStreak()));
+        trendSummaryLabel.setText(text.toString());
+    }
 
-            List<TrendPoint> points = repo.findDailyAverages(days);
-            System.out.println("Repository returned " + points.size() + " trend points");
-            
+    private void showChart(List<TrendPoint> points, List<MoodEvent> events, Forecast forecast, int days) {
+        try {
             if (points.isEmpty()) {
                 showNoDataMessage();
                 return;
@@ -109,8 +267,6 @@ public class GraphController implements RoutedController {
             long firstEpoch = points.get(0).date().toEpochDay();
             long lastEpoch = points.get(points.size() - 1).date().toEpochDay();
             
-            System.out.println("Data span: First date epoch=" + firstEpoch + ", Last date epoch=" + lastEpoch);
-            
             if (firstEpoch == lastEpoch) {
                 showNoDataMessage("All data points are on the same date (" + points.get(0).date() + 
                                 "). Need data from different dates to show trends.");
@@ -118,7 +274,7 @@ public class GraphController implements RoutedController {
             }
 
             // Create and configure the chart
-            LineChart<Number, Number> chart = createChart(days);
+            LineChart<Number, Number> chart = createChart(days, forecast == null ? 0 : forecast.days());
             
             // Add data series
             XYChart.Series<Number, Number> moodSeries = createMoodSeries(points);
@@ -128,6 +284,15 @@ public class GraphController implements RoutedController {
             if (!aiSeries.getData().isEmpty()) {
                 chart.getData().add(aiSeries);
             }
+            if (!events.isEmpty()) {
+                XYChart.Series<Number, Number> eventSeries = createEventSeries(events);
+                chart.getData().add(eventSeries);
+                // Markers only: the series' line would connect unrelated events
+                eventSeries.getNode().setStyle("-fx-stroke: transparent;");
+            }
+            if (forecast != null) {
+                addForecastSeries(chart, forecast, points);
+            }
 
             // Display the chart
             chartContainer.getChildren().setAll(chart);
@@ -161,21 +326,18 @@ public class GraphController implements RoutedController {
             
             // Update status
             if (statusLabel != null) {
-                statusLabel.setText("Chart loaded successfully - " + points.size() + " data points");
+                statusLabel.setText("Chart loaded successfully - " + points.size() + " data points"
+                    + (events.isEmpty() ? "" : ", " + events.size() + " detected changes")
+                    + (forecast == null ? "" : ", " + forecast.days() + "-day forecast"));
                 statusLabel.setTextFill(Color.GREEN);
             }
             
-            System.out.println("Chart rebuilt successfully with " + points.size() + " data points");
-            System.out.println("=== End Rebuilding Chart ===");
-            
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showErrorMessage("Failed to load trend data: " + e.getMessage());
-            if (app != null) {
-                app.setStatus("Failed to load trend data");
+            if (log.isDebugEnabled()) {
+                log.debug("Chart rebuilt with {} points, {} markers", points.size(), events.size());
             }
+            
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Unexpected error building the chart", e);
             showErrorMessage("Unexpected error: " + e.getMessage());
             if (app != null) {
                 app.setStatus("Unexpected error occurred");
@@ -183,7 +345,7 @@ public class GraphController implements RoutedController {
         }
     }
     
-    private LineChart<Number, Number> createChart(int days) {
+    private LineChart<Number, Number> createChart(int days, int forecastDays) {
         // Create axes
         NumberAxis xAxis = new NumberAxis();
         NumberAxis yAxis = new NumberAxis(0, 1, 0.2); // Range 0-1 with 0.2 intervals
@@ -195,13 +357,13 @@ public class GraphController implements RoutedController {
         
         // Set X-axis range to prevent vertical lines
         // Calculate the date range for the selected period
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(days - 1);
+        LocalDate startDate = LocalDate.now().minusDays(days - 1);
+        // The forecast starts today, so it adds forecastDays - 1 days after it
+        LocalDate endDate = LocalDate.now().plusDays(Math.max(0, forecastDays - 1));
         long startEpoch = startDate.toEpochDay();
         long endEpoch = endDate.toEpochDay();
         
-        System.out.println("Chart X-axis: Start=" + startDate + " (epoch " + startEpoch + 
-                          "), End=" + endDate + " (epoch " + endEpoch + ")");
+        log.debug("Chart x-axis from {} to {}", startDate, endDate);
         
         xAxis.setLowerBound(startEpoch);
         xAxis.setUpperBound(endEpoch);
@@ -228,13 +390,12 @@ public class GraphController implements RoutedController {
         chart.setLegendVisible(true);
         chart.setCreateSymbols(true);
         chart.setAnimated(true);
+        // Every series is added in date order except the forecast band, which is drawn as an outline
+        chart.setAxisSortingPolicy(LineChart.SortingPolicy.NONE);
         
         // Apply CSS styling
         chart.getStyleClass().add("trend-chart");
         
-        // Debug: Print applied style classes
-        System.out.println("Chart style classes: " + chart.getStyleClass());
-        
         // Also try to apply some direct styling to the axes
         xAxis.setStyle("-fx-tick-label-fill: white;");
         yAxis.setStyle("-fx-tick-label-fill: white;");
@@ -242,30 +403,27 @@ public class GraphController implements RoutedController {
         // Force tick label styling as fallback to ensure CSS is applied
         // This will override any inline styles that might be interfering
         // Note: At this point, tick labels might not be rendered yet, so we'll do this later
-        System.out.println("Chart created with trend-chart style class");
         
         return chart;
     }
     
     /**
-     * Debug method to verify that CSS styling is properly applied to the chart
+     * Debug method to verify that CSS styling is properly applied to the chart; the lookups
+     * only run when debug logging is on
      */
     private void verifyChartStyling(LineChart<Number, Number> chart) {
-        System.out.println("=== Chart Styling Verification ===");
-        System.out.println("Chart style classes: " + chart.getStyleClass());
-        
-        // Check if trend-chart class is applied
-        if (chart.getStyleClass().contains("trend-chart")) {
-            System.out.println("trend-chart style class is applied");
-        } else {
-            System.out.println("trend-chart style class is NOT applied");
+        if (!log.isDebugEnabled()) return;
+
+        log.debug("Chart style classes: {}", chart.getStyleClass());
+        if (!chart.getStyleClass().contains("trend-chart")) {
+            log.debug("trend-chart style class is NOT applied");
         }
         
         // Check the scene for stylesheets
         if (chart.getScene() != null) {
-            System.out.println("Chart scene stylesheets: " + chart.getScene().getStylesheets());
+            log.debug("Chart scene stylesheets: {}", chart.getScene().getStylesheets());
         } else {
-            System.out.println("Chart has no scene");
+            log.debug("Chart has no scene");
         }
         
         // Check tick labels
@@ -275,10 +433,7 @@ public class GraphController implements RoutedController {
         int xTickLabels = xAxis.lookupAll(".tick-label").size();
         int yTickLabels = yAxis.lookupAll(".tick-label").size();
         
-        System.out.println("X-axis tick labels found: " + xTickLabels);
-        System.out.println("Y-axis tick labels found: " + yTickLabels);
-        
-        System.out.println("=== End Styling Verification ===");
+        log.debug("Tick labels found: {} on the x-axis, {} on the y-axis", xTickLabels, yTickLabels);
     }
     
     /**
@@ -286,11 +441,9 @@ public class GraphController implements RoutedController {
      * This ensures tick labels are white even if CSS fails
      */
     private void applyTickLabelStyling(LineChart<Number, Number> chart) {
-        System.out.println("=== Applying Tick Label Styling ===");
-        
         // Check if chart has a scene first
         if (chart.getScene() == null) {
-            System.out.println("Chart still has no scene, retrying in 100ms...");
+            log.trace("Chart still has no scene, retrying on the next pulse");
             javafx.application.Platform.runLater(() -> {
                 applyTickLabelStyling(chart);
             });
@@ -302,44 +455,41 @@ public class GraphController implements RoutedController {
         
         // Style X-axis tick labels
         var xTickLabels = xAxis.lookupAll(".tick-label");
-        System.out.println("Found " + xTickLabels.size() + " X-axis tick labels");
+        log.trace("Found {} X-axis tick labels", xTickLabels.size());
         
         xTickLabels.forEach(node -> {
             if (node instanceof javafx.scene.text.Text) {
                 javafx.scene.text.Text text = (javafx.scene.text.Text) node;
                 text.setFill(Color.WHITE);
-                System.out.println("Applied white fill to X-axis tick label: " + text.getText());
+                log.trace("Applied white fill to X-axis tick label: {}", text.getText());
             }
         });
         
         // Style Y-axis tick labels
         var yTickLabels = yAxis.lookupAll(".tick-label");
-        System.out.println("Found " + yTickLabels.size() + " Y-axis tick labels");
+        log.trace("Found {} Y-axis tick labels", yTickLabels.size());
         
         yTickLabels.forEach(node -> {
             if (node instanceof javafx.scene.text.Text) {
                 javafx.scene.text.Text text = (javafx.scene.text.Text) node;
                 text.setFill(Color.WHITE);
-                System.out.println("Applied white fill to Y-axis tick label: " + text.getText());
+                log.trace("Applied white fill to Y-axis tick label: {}", text.getText());
             }
         });
         
         // Try alternative selectors if the main ones didn't work
         if (xTickLabels.isEmpty() || yTickLabels.isEmpty()) {
-            System.out.println("Trying alternative selectors...");
-            
             // Try different CSS selectors that might work
             var altXLabels = xAxis.lookupAll("Text");
             var altYLabels = yAxis.lookupAll("Text");
             
-            System.out.println("Alternative X labels found: " + altXLabels.size());
-            System.out.println("Alternative Y labels found: " + altYLabels.size());
+            log.trace("Alternative selectors found {} X and {} Y labels", altXLabels.size(), altYLabels.size());
             
             altXLabels.forEach(node -> {
                 if (node instanceof javafx.scene.text.Text) {
                     javafx.scene.text.Text text = (javafx.scene.text.Text) node;
                     text.setFill(Color.WHITE);
-                    System.out.println("Applied white fill to alternative X-axis text: " + text.getText());
+                    log.trace("Applied white fill to alternative X-axis text: {}", text.getText());
                 }
             });
             
@@ -347,42 +497,28 @@ public class GraphController implements RoutedController {
                 if (node instanceof javafx.scene.text.Text) {
                     javafx.scene.text.Text text = (javafx.scene.text.Text) node;
                     text.setFill(Color.WHITE);
-                    System.out.println("Applied white fill to alternative Y-axis text: " + text.getText());
+                    log.trace("Applied white fill to alternative Y-axis text: {}", text.getText());
                 }
             });
         }
         
-        // Also try to style axis labels
-        if (xAxis.getLabel() != null) {
-            System.out.println("X-axis label: " + xAxis.getLabel());
-        }
-        if (yAxis.getLabel() != null) {
-            System.out.println("Y-axis label: " + yAxis.getLabel());
-        }
-        
         // Try to find and style ALL text elements in the chart
-        System.out.println("Searching for all text elements in chart...");
         var allTexts = chart.lookupAll("Text");
-        System.out.println("Found " + allTexts.size() + " total text elements");
+        log.trace("Found {} total text elements", allTexts.size());
         
         allTexts.forEach(node -> {
             if (node instanceof javafx.scene.text.Text) {
                 javafx.scene.text.Text text = (javafx.scene.text.Text) node;
                 text.setFill(Color.WHITE);
-                System.out.println("Applied white fill to text: " + text.getText() + " (class: " + node.getClass().getSimpleName() + ")");
+                log.trace("Applied white fill to text: {}", text.getText());
             }
         });
-        
-        System.out.println("=== End Tick Label Styling ===");
     }
     
     private XYChart.Series<Number, Number> createMoodSeries(List<TrendPoint> points) {
         XYChart.Series<Number, Number> moodSeries = new XYChart.Series<>();
         moodSeries.setName("Your Mood (normalized to 0-1)");
         
-        System.out.println("=== Creating Mood Series ===");
-        System.out.println("Total trend points: " + points.size());
-        
         for (TrendPoint point : points) {
             if (point.avgMood() != null && point.avgMood() > 0) {
                 long x = point.date().toEpochDay();
@@ -390,31 +526,10 @@ public class GraphController implements RoutedController {
                 double normalizedMood = (point.avgMood() - 1.0) / 4.0; // 1->0, 5->1
                 XYChart.Data<Number, Number> dataPoint = new XYChart.Data<>(x, normalizedMood);
                 moodSeries.getData().add(dataPoint);
-                
-                System.out.println("Mood Point: Date=" + point.date() + 
-                                 " | Raw=" + point.avgMood() + 
-                                 " | Normalized=" + normalizedMood + 
-                                 " | X=" + x);
             }
         }
         
-        System.out.println("Mood series data points: " + moodSeries.getData().size());
-        if (moodSeries.getData().size() <= 1) {
-            System.out.println("WARNING: Only " + moodSeries.getData().size() + " mood data points - this will cause vertical lines!");
-        }
-        
-        // Check for duplicate X values (same date)
-        long[] xValues = moodSeries.getData().stream()
-            .mapToLong(data -> data.getXValue().longValue())
-            .distinct()
-            .toArray();
-        System.out.println("Unique X values (dates) in mood series: " + xValues.length);
-        if (xValues.length < moodSeries.getData().size()) {
-            System.out.println("WARNING: Duplicate dates detected! This will cause vertical lines!");
-        }
-        
-        System.out.println("=== End Mood Series ===");
-        
+        logSeries("mood", moodSeries, points.size());
         return moodSeries;
     }
     
@@ -422,9 +537,6 @@ public class GraphController implements RoutedController {
         XYChart.Series<Number, Number> aiSeries = new XYChart.Series<>();
         aiSeries.setName("AI Sentiment (0-1)");
         
-        System.out.println("=== Creating AI Series ===");
-        System.out.println("Total trend points: " + points.size());
-        
         for (TrendPoint point : points) {
             if (point.avgAi() != null) {
                 long x = point.date().toEpochDay();
@@ -432,33 +544,133 @@ public class GraphController implements RoutedController {
                 double sentimentScore = point.avgAi();
                 XYChart.Data<Number, Number> dataPoint = new XYChart.Data<>(x, sentimentScore);
                 aiSeries.getData().add(dataPoint);
-                
-                System.out.println("AI Point: Date=" + point.date() + 
-                                 " | Score=" + sentimentScore + 
-                                 " | X=" + x);
             }
         }
         
-        System.out.println("AI series data points: " + aiSeries.getData().size());
-        if (aiSeries.getData().size() <= 1) {
-            System.out.println("WARNING: Only " + aiSeries.getData().size() + " AI data points - this will cause vertical lines!");
+        logSeries("AI", aiSeries, points.size());
+        return aiSeries;
+    }
+
+    /**
+     * Debug check for series that would draw as vertical lines: one point, or several on the
+     * same date. Skipped entirely unless debug logging is on.
+     */
+    private void logSeries(String name, XYChart.Series<Number, Number> series, int trendPoints) {
+        if (!log.isDebugEnabled()) return;
+
+        int size = series.getData().size();
+        log.debug("{} series: {} data points from {} trend points", name, size, trendPoints);
+        if (size <= 1) {
+            log.debug("Only {} {} data points - this will cause vertical lines", size, name);
         }
-        
-        // Check for duplicate X values (same date)
-        long[] xValues = aiSeries.getData().stream()
+        long distinct = series.getData().stream()
             .mapToLong(data -> data.getXValue().longValue())
             .distinct()
-            .toArray();
-        System.out.println("Unique X values (dates) in AI series: " + xValues.length);
-        if (xValues.length < aiSeries.getData().size()) {
-            System.out.println("WARNING: Duplicate dates detected! This will cause vertical lines!");
+            .count();
+        if (distinct < size) {
+            log.debug("Duplicate dates in the {} series - this will cause vertical lines", name);
+        }
+        if (log.isTraceEnabled()) {
+            for (XYChart.Data<Number, Number> data : series.getData()) {
+                log.trace("  {}: {}", LocalDate.ofEpochDay(data.getXValue().longValue()), data.getYValue());
+            }
         }
-        
-        System.out.println("=== End AI Series ===");
-        
-        return aiSeries;
     }
     
+    /**
+     * Adds the forecast as a dashed continuation of the mood line, plus its likely range as a
+     * dotted outline (upper bound forward, lower bound back)
+     */
+    private void addForecastSeries(LineChart<Number, Number> chart, Forecast forecast, List<TrendPoint> points) {
+        XYChart.Series<Number, Number> meanSeries = new XYChart.Series<>();
+        meanSeries.setName("Forecast (next " + forecast.days() + " days)");
+        XYChart.Series<Number, Number> rangeSeries = new XYChart.Series<>();
+        rangeSeries.setName("Forecast range (95%)");
+
+        // Start from the last charted mood so the dashed line continues the solid one
+        points.stream()
+            .filter(point -> point.avgMood() != null && point.date().isBefore(forecast.start()))
+            .reduce((first, second) -> second)
+            .ifPresent(last -> meanSeries.getData().add(
+                new XYChart.Data<>(last.date().toEpochDay(), (last.avgMood() - 1.0) / 4.0)));
+
+        for (int i = 0; i < forecast.days(); i++) {
+            long x = forecast.dateAt(i).toEpochDay();
+            meanSeries.getData().add(new XYChart.Data<>(x, (forecast.mean()[i] - 1.0) / 4.0));
+            rangeSeries.getData().add(new XYChart.Data<>(x, (forecast.upper()[i] - 1.0) / 4.0));
+        }
+        for (int i = forecast.days() - 1; i >= 0; i--) {
+            rangeSeries.getData().add(new XYChart.Data<>(forecast.dateAt(i).toEpochDay(), (forecast.lower()[i] - 1.0) / 4.0));
+        }
+        rangeSeries.getData().add(new XYChart.Data<>(forecast.start().toEpochDay(), (forecast.upper()[0] - 1.0) / 4.0));
+
+        chart.getData().add(rangeSeries);
+        chart.getData().add(meanSeries);
+        rangeSeries.getNode().setStyle("-fx-stroke: rgba(179, 157, 219, 0.6); -fx-stroke-width: 1px; -fx-stroke-dash-array: 2 4;");
+        meanSeries.getNode().setStyle("-fx-stroke: #b39ddb; -fx-stroke-dash-array: 8 6;");
+        rangeSeries.getData().forEach(data -> data.getNode().setVisible(false));
+
+        int offset = meanSeries.getData().size() - forecast.days();
+        for (int i = 0; i < forecast.days(); i++) {
+            var node = meanSeries.getData().get(offset + i).getNode();
+            node.setStyle("-fx-background-color: #b39ddb, transparent;");
+            Tooltip.install(node, new Tooltip(String.format("%s forecast: mood %.1f/5 (likely %.1f-%.1f)",
+                forecast.dateAt(i), forecast.mean()[i], forecast.lower()[i], forecast.upper()[i])));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Forecast series data points: {}", meanSeries.getData().size());
+        }
+    }
+
+    /**
+     * Builds a marker series for detected anomalies and shifts, placed on the series they were
+     * found in and explained in a tooltip
+     */
+    private XYChart.Series<Number, Number> createEventSeries(List<MoodEvent> events) {
+        XYChart.Series<Number, Number> eventSeries = new XYChart.Series<>();
+        eventSeries.setName("Detected changes");
+
+        for (MoodEvent event : events) {
+            boolean mood = ChangeDetectionService.MOOD_SERIES.equals(event.series());
+            // Same 0-1 scale as the other series
+            double y = mood ? (event.value() - 1.0) / 4.0 : event.value();
+            XYChart.Data<Number, Number> dataPoint = new XYChart.Data<>(event.date().toEpochDay(), y);
+
+            // A shape rather than a Label: applyTickLabelStyling recolors every Text in the chart
+            String shape = switch (event.kind()) {
+                case "SHIFT_UP" -> "M0,10 L5,0 L10,10 Z";
+                case "SHIFT_DOWN" -> "M0,0 L10,0 L5,10 Z";
+                default -> "M5,0 L10,5 L5,10 L0,5 Z";
+            };
+            boolean better = event.kind().equals("SHIFT_UP") || event.kind().equals("SPIKE");
+            StackPane marker = new StackPane();
+            marker.setPrefSize(12, 12);
+            marker.setStyle("-fx-shape: \"" + shape + "\"; -fx-background-color: "
+                + (better ? "#4caf50" : "#ff7043") + ";");
+            Tooltip.install(marker, new Tooltip(describeEvent(event, mood)));
+            dataPoint.setNode(marker);
+            eventSeries.getData().add(dataPoint);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Event series data points: {}", eventSeries.getData().size());
+        }
+        return eventSeries;
+    }
+
+    private String describeEvent(MoodEvent event, boolean mood) {
+        String series = mood ? "Mood" : "AI sentiment";
+        String value = mood ? String.format("%.1f/5", event.value()) : String.format("%.2f", event.value());
+        String what = switch (event.kind()) {
+            case "SHIFT_UP" -> series + " shifted up and stayed there";
+            case "SHIFT_DOWN" -> series + " shifted down and stayed there";
+            case "SPIKE" -> "Unusually high " + series.toLowerCase();
+            case "DIP" -> "Unusually low " + series.toLowerCase();
+            default -> series + " changed";
+        };
+        return event.date() + ": " + what + " (" + value + ")";
+    }
+
     private void showNoDataMessage() {
         showNoDataMessage("No mood data available for the selected time period.\nTry logging some moods first!");
     }
@@ -0,0 +1,248 @@
+package com.aimoodchecker.controller;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.repository.EntryEvent;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.DailySeries;
+import com.aimoodchecker.repository.EntryRepository.TimeOfDayGrid;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+import com.aimoodchecker.service.ChatGPTService;
+import com.aimoodchecker.service.SentimentService;
+import com.aimoodchecker.view.CalendarHeatmap;
+import com.aimoodchecker.view.WeekHourHeatmap;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.StackPane;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Shows daily average mood or AI sentiment for the whole history as a calendar heatmap,
+ * plus a weekday x hour-of-day grid of when entries tend to be happier or sadder
+ */
+public class HeatmapController implements RoutedController, NeedsDeps, ViewLifecycle {
+    private static final Logger log = Log.get(HeatmapController.class);
+
+    private static final String MOOD = "Your Mood";
+    private static final String SENTIMENT = "AI Sentiment";
+
+    private AppController app;
+    private EntryRepository entryRepository;
+    private BackgroundExecutor executor;
+
+    private final CalendarHeatmap heatmap = new CalendarHeatmap();
+    private DailySeries series;
+    private boolean seriesStale = true;
+    private boolean loading;
+    private boolean active;
+
+    private final WeekHourHeatmap weekHour = new WeekHourHeatmap();
+    private TimeOfDayGrid grid;
+    private boolean gridStale = true;
+
+    @FXML private ComboBox<String> metricCombo;
+    @FXML private Label statusLabel;
+    @FXML private ScrollPane heatmapScroll;
+    @FXML private StackPane weekHourContainer;
+
+    @FXML
+    private void initialize() {
+        metricCombo.getItems().addAll(MOOD, SENTIMENT);
+        metricCombo.getSelectionModel().select(MOOD);
+        metricCombo.valueProperty().addListener((obs, oldVal, newVal) -> {
+            showSeries();
+            showGrid();
+        });
+
+        heatmapScroll.setContent(heatmap);
+        weekHourContainer.getChildren().add(weekHour);
+    }
+
+    @Override
+    public void setApp(AppController app) { this.app = app; }
+
+    @Override
+    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT, BackgroundExecutor executor) {
+        this.entryRepository = repo;
+        this.executor = executor;
+        repo.getEvents().subscribe(Platform::runLater, this::onEntriesChanged);
+    }
+
+    @Override
+    public void onActivate() {
+        active = true;
+        if (seriesStale) {
+            loadSeries();
+        }
+        if (gridStale) {
+            loadGrid();
+        }
+    }
+
+    @Override
+    public void onDeactivate() {
+        active = false;
+    }
+
+    /**
+     * Re-aggregates only the days that changed and patches them into the loaded series
+     */
+    private void onEntriesChanged(List<EntryEvent> events) {
+        // The grid is one small aggregate query, so it is simply reloaded
+        gridStale = true;
+        if (active) loadGrid();
+
+        if (loading) {
+            // The running load may have read the days before this change
+            seriesStale = true;
+            return;
+        }
+        if (series == null || seriesStale) return;
+
+        LocalDate first = series.start();
+        LocalDate last = series.dateAt(series.dayCount() - 1);
+        TreeSet<LocalDate> days = new TreeSet<>();
+        for (EntryEvent event : events) {
+            LocalDate date = event.date();
+            if (date == null || date.isBefore(first) || date.isAfter(last)) {
+                // Outside the loaded calendar (e.g. the first entry of a new day): load it all again
+                seriesStale = true;
+                if (active) loadSeries();
+                return;
+            }
+            days.add(date);
+        }
+
+        DailySeries target = series;
+        List<LocalDate> changed = new ArrayList<>(days);
+        executor.runAsync(Resource.DATABASE,
+            () -> {
+                List<DailySeries> patches = new ArrayList<>();
+                for (LocalDate day : changed) {
+                    patches.add(entryRepository.getDailySeries(day, day));
+                }
+                return patches;
+            },
+            patches -> {
+                // A full reload replaced the series meanwhile; it already has these days
+                if (target != series) return;
+                for (DailySeries patch : patches) {
+                    int index = (int) (patch.start().toEpochDay() - target.start().toEpochDay());
+                    target.mood()[index] = patch.mood()[0];
+                    target.sentiment()[index] = patch.sentiment()[0];
+                }
+                if (active) showSeries();
+            },
+            e -> {
+                log.warn("Error updating calendar days: {}", e.getMessage());
+                seriesStale = true;
+            });
+    }
+
+    /**
+     * Loads the per-day aggregate for the full history off the JavaFX thread
+     */
+    private void loadSeries() {
+        seriesStale = false;
+        loading = true;
+        statusLabel.setText("Loading calendar...");
+
+        executor.runAsync(Resource.DATABASE,
+            () -> {
+                LocalDate today = LocalDate.now();
+                // Always show at least the current year
+                LocalDate first = entryRepository.getFirstEntryDate()
+                    .filter(date -> date.isBefore(today))
+                    .orElse(today);
+                LocalDate start = LocalDate.of(Math.min(first.getYear(), today.getYear()), 1, 1);
+                return entryRepository.getDailySeries(start, today);
+            },
+            loaded -> {
+                loading = false;
+                series = loaded;
+                showSeries();
+                if (seriesStale && active) {
+                    loadSeries();
+                }
+            },
+            e -> {
+                loading = false;
+                seriesStale = true;
+                log.warn("Error loading calendar data: {}", e.getMessage());
+                statusLabel.setText("Error loading calendar data");
+                if (app != null) {
+                    app.setStatus("Failed to load calendar data");
+                }
+            });
+    }
+
+    /**
+     * Loads the weekday x hour aggregate off the JavaFX thread
+     */
+    private void loadGrid() {
+        gridStale = false;
+        executor.runAsync(Resource.DATABASE,
+            () -> entryRepository.getTimeOfDayGrid(null),
+            loaded -> {
+                grid = loaded;
+                showGrid();
+            },
+            e -> {
+                gridStale = true;
+                log.warn("Error loading time-of-day grid: {}", e.getMessage());
+            });
+    }
+
+    private void showGrid() {
+        if (grid == null) return;
+
+        boolean mood = MOOD.equals(metricCombo.getValue());
+        float[] source = mood ? grid.mood() : grid.sentiment();
+        float[] values = new float[source.length];
+        for (int i = 0; i < source.length; i++) {
+            values[i] = mood ? (source[i] - 1f) / 4f : source[i];
+        }
+        weekHour.setData(values, grid.counts(), mood ? "Mood" : "AI sentiment");
+        weekHour.redraw();
+    }
+
+    /**
+     * Normalizes the selected metric to 0-1 and redraws the heatmap
+     */
+    private void showSeries() {
+        if (series == null) return;
+
+        boolean mood = MOOD.equals(metricCombo.getValue());
+        float[] source = mood ? series.mood() : series.sentiment();
+        float[] values = new float[source.length];
+        int daysWithData = 0;
+        for (int i = 0; i < source.length; i++) {
+            // Mood is stored on the 1-5 scale; sentiment is already 0-1 (NaN stays NaN)
+            values[i] = mood ? (source[i] - 1f) / 4f : source[i];
+            if (!Float.isNaN(source[i])) daysWithData++;
+        }
+
+        heatmap.setData(series.start(), values, mood ? "Mood" : "AI sentiment");
+        double drawMillis = heatmap.redraw();
+
+        statusLabel.setText(daysWithData + " days with entries since " + series.start().getYear());
+        if (log.isDebugEnabled()) {
+            log.debug("Heatmap drew {} days in {} ms", values.length, String.format("%.2f", drawMillis));
+        }
+    }
+
+    @FXML
+    private void onBack() {
+        if (app != null) {
+            app.goGraph();
+        }
+    }
+}
@@ -1,27 +1,68 @@
 package com.aimoodchecker.controller;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.Label;
 import javafx.scene.control.Button;
-import javafx.scene.control.Alert;
-import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.TextField;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.beans.binding.Bindings;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.util.Duration;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.repository.EntryEvent;
+import com.aimoodchecker.repository.EntryEvent.EntryCreated;
+import com.aimoodchecker.repository.EntryEvent.EntryDeleted;
+import com.aimoodchecker.repository.EntryEvent.EntryUpdated;
 import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.SearchFilters;
+import com.aimoodchecker.repository.EntryRepository.SearchHit;
+import com.aimoodchecker.repository.EntryRepository.SearchPage;
 import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
 import com.aimoodchecker.service.SentimentService;
 import com.aimoodchecker.service.ChatGPTService;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javafx.scene.control.TableCell;
 
-public class HistoryController implements RoutedController, NeedsDeps {
+public class HistoryController implements RoutedController, NeedsDeps, ViewLifecycle {
+    private static final Logger log = Log.get(HistoryController.class);
+
     
+    private static final String NO_ENTRIES_TEXT = "No mood entries yet. Start by logging your first mood!";
+
     private AppController app;
     private EntryRepository entryRepository;
+    private BackgroundExecutor executor;
+
+    // Search runs once typing pauses, and only the latest search or load may update the table
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(250));
+    private final Map<Integer, String> searchSnippets = new HashMap<>();
+    private long loadGeneration = 0;
+
+    // After the first load the table follows repository events instead of reloading;
+    // events that arrive while a full load is running are replayed on top of its result
+    private boolean loaded;
+    private boolean loading;
+    private final List<EntryEvent> eventsDuringLoad = new ArrayList<>();
+
+    // Deleted rows stay restorable until the toast disappears
+    private final PauseTransition toastTimer = new PauseTransition(Duration.seconds(6));
+    private Tombstone tombstone;
     
     @FXML private TableView<MoodEntry> historyTable;
     @FXML private TableColumn<MoodEntry, String> dateColumn;
@@ -30,13 +71,20 @@ public class HistoryController implements RoutedController, NeedsDeps {
     @FXML private TableColumn<MoodEntry, String> sentimentColumn;
     @FXML private TableColumn<MoodEntry, Void> actionsColumn;
     @FXML private Label noDataLabel;
+    @FXML private TextField searchField;
+    @FXML private Button deleteSelectedButton;
+    @FXML private HBox toastBar;
+    @FXML private Label toastLabel;
+    @FXML private Button undoButton;
 
     @FXML
     private void initialize() {
         // Set up the TableView columns
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("formattedDate"));
         moodColumn.setCellValueFactory(new PropertyValueFactory<>("moodType"));
-        descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
+        // While searching, show the highlighted snippet instead of the full description
+        descriptionColumn.setCellValueFactory(cell -> new SimpleStringProperty(
+            searchSnippets.getOrDefault(cell.getValue().getId(), cell.getValue().getDescription())));
         sentimentColumn.setCellValueFactory(new PropertyValueFactory<>("sentimentCategory"));
         
         // Set up the actions column with delete buttons
@@ -63,134 +111,388 @@ public class HistoryController implements RoutedController, NeedsDeps {
                 }
             }
         });
+
+        // Multi-select for bulk delete (button or Delete key)
+        historyTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        deleteSelectedButton.disableProperty().bind(
+            Bindings.isEmpty(historyTable.getSelectionModel().getSelectedItems()));
+        historyTable.setOnKeyPressed(event -> {
+            if (event.getCode() == KeyCode.DELETE) {
+                onDeleteSelected();
+            }
+        });
+
+        toastTimer.setOnFinished(event -> {
+            tombstone = null;
+            hideToast();
+        });
+
+        searchDebounce.setOnFinished(event -> runSearch(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchDebounce.playFromStart());
     }
     
     @Override
     public void setApp(AppController app) {
         this.app = app;
-        // Load mood history when this view is opened
-        loadMoodHistory();
     }
 
     @Override
-    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT) {
+    public void onActivate() {
+        if (!loaded) {
+            refreshView();
+        }
+    }
+
+    @Override
+    public void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT, BackgroundExecutor executor) {
         this.entryRepository = repo;
+        this.executor = executor;
+        repo.getEvents().subscribe(Platform::runLater, this::applyEvents);
+    }
+
+    /**
+     * Patches the table with committed changes instead of re-querying the history.
+     * Applying an event twice is harmless, which also covers rows this controller already
+     * removed or restored optimistically.
+     */
+    private void applyEvents(List<EntryEvent> events) {
+        if (loading) {
+            eventsDuringLoad.addAll(events);
+            return;
+        }
+        if (!loaded) return;
+
+        boolean searching = !searchField.getText().isBlank();
+        ObservableList<MoodEntry> items = historyTable.getItems();
+        for (EntryEvent event : events) {
+            int index = indexOfEntry(event.entryId());
+            switch (event) {
+                case EntryCreated created -> {
+                    // New entries only show up in search results once the search runs again
+                    if (index < 0 && !searching) items.add(0, created.entry());
+                }
+                case EntryUpdated updated -> {
+                    if (index >= 0) {
+                        searchSnippets.remove(updated.entryId());
+                        items.set(index, updated.entry());
+                    }
+                }
+                case EntryDeleted deleted -> {
+                    if (index >= 0) items.remove(index);
+                }
+            }
+        }
+        updateEmptyState();
+    }
+
+    private int indexOfEntry(int id) {
+        List<MoodEntry> items = historyTable.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId() == id) return i;
+        }
+        return -1;
     }
 
     @FXML
     private void onRefresh() {
         // Load and display mood history data
-        loadMoodHistory();
+        refreshView();
         app.setStatus("History refreshed");
     }
+
+    /**
+     * Reloads the table, keeping the current search if one is active
+     */
+    private void refreshView() {
+        if (searchField.getText() == null || searchField.getText().isBlank()) {
+            loadMoodHistory();
+        } else {
+            runSearch(searchField.getText());
+        }
+    }
+
+    /**
+     * Runs a full-text search off the JavaFX thread and shows the ranked hits
+     */
+    private void runSearch(String query) {
+        long generation = ++loadGeneration;
+        // Supersedes any full load still running
+        loading = false;
+        eventsDuringLoad.clear();
+
+        if (query == null || query.isBlank()) {
+            loadMoodHistory();
+            return;
+        }
+
+        executor.runAsync(Resource.DATABASE,
+            () -> entryRepository.search(query, SearchFilters.none(), 0),
+            results -> {
+                // A newer search (or a reload) has started since this one; drop the stale result
+                if (generation != loadGeneration) return;
+                showSearchResults(results);
+            },
+            e -> {
+                if (generation != loadGeneration) return;
+                log.warn("Error searching mood history: {}", e.getMessage());
+                if (app != null) {
+                    app.setStatus("Error searching mood history");
+                }
+            });
+    }
+
+    /**
+     * Displays one page of search results in the TableView
+     */
+    private void showSearchResults(SearchPage results) {
+        searchSnippets.clear();
+        List<MoodEntry> entries = new ArrayList<>();
+        for (SearchHit hit : results.hits()) {
+            entries.add(hit.entry());
+            searchSnippets.put(hit.entry().getId(), hit.snippet());
+        }
+
+        historyTable.setItems(FXCollections.observableArrayList(entries));
+
+        if (entries.isEmpty()) {
+            noDataLabel.setText("No entries match \"" + searchField.getText().trim() + "\"");
+            noDataLabel.setVisible(true);
+            historyTable.setVisible(false);
+        } else {
+            noDataLabel.setVisible(false);
+            historyTable.setVisible(true);
+        }
+
+        if (app != null) {
+            String count = results.hasMore() ? "Top " + entries.size() : String.valueOf(entries.size());
+            app.setStatus(count + " matching entries");
+        }
+    }
     
     /**
      * Loads mood history from the database and displays it in the TableView
      */
     private void loadMoodHistory() {
-        try {
-            // Use repository to get all mood entries
-            List<MoodEntry> moodEntries = entryRepository.getAllMoodEntries();
-            
-            System.out.println("=== Loading Mood History ===");
-            
+        long generation = ++loadGeneration;
+        loading = true;
+
+        executor.runAsync(Resource.DATABASE,
+            entryRepository::getAllMoodEntries,
+            moodEntries -> {
+                if (generation != loadGeneration) return;
+                loading = false;
+                showMoodHistory(moodEntries);
+                // The snapshot may predate these changes
+                List<EntryEvent> missed = new ArrayList<>(eventsDuringLoad);
+                eventsDuringLoad.clear();
+                applyEvents(missed);
+            },
+            e -> {
+                if (generation != loadGeneration) return;
+                loading = false;
+                eventsDuringLoad.clear();
+                showLoadError(e);
+            });
+    }
+
+    /**
+     * Displays the full mood history in the TableView
+     */
+    private void showMoodHistory(List<MoodEntry> moodEntries) {
+        // Checked first so a large count isn't boxed with debug off
+        if (log.isDebugEnabled()) {
+            log.debug("Showing {} mood entries", moodEntries.size());
+        }
+        // Per-row dump, only built when tracing
+        if (log.isTraceEnabled()) {
             for (MoodEntry entry : moodEntries) {
-                System.out.println("ID: " + entry.getId() + 
-                                 " | Date: " + entry.getDate() + 
-                                 " | Mood: " + entry.getMoodType() + 
-                                 " | Description: " + entry.getDescription() + 
-                                 " | Sentiment Score: " + entry.getSentimentScore());
+                log.trace("  ID {}: {} {} sentiment={} \"{}\"", entry.getId(), entry.getDate(),
+                          entry.getMoodType(), entry.getSentimentScore(), entry.getDescription());
             }
-            
-            System.out.println("=== End of Mood History ===");
-            
-            // Convert to ObservableList for TableView
-            ObservableList<MoodEntry> observableEntries = FXCollections.observableArrayList(moodEntries);
-            historyTable.setItems(observableEntries);
-            
-            // Update UI based on data availability
-            if (moodEntries.isEmpty()) {
-                noDataLabel.setVisible(true);
-                historyTable.setVisible(false);
-                if (app != null) {
-                    app.setStatus("No mood entries found");
-                }
-            } else {
-                noDataLabel.setVisible(false);
-                historyTable.setVisible(true);
-                if (app != null) {
-                    app.setStatus("Loaded " + moodEntries.size() + " mood entries");
-                }
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error loading mood history: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Show error in UI
-            noDataLabel.setText("Error loading mood history: " + e.getMessage());
+        }
+        
+        // Convert to ObservableList for TableView
+        searchSnippets.clear();
+        noDataLabel.setText(NO_ENTRIES_TEXT);
+        ObservableList<MoodEntry> observableEntries = FXCollections.observableArrayList(moodEntries);
+        historyTable.setItems(observableEntries);
+        loaded = true;
+        
+        // Update UI based on data availability
+        if (moodEntries.isEmpty()) {
             noDataLabel.setVisible(true);
             historyTable.setVisible(false);
-            
             if (app != null) {
-                app.setStatus("Error loading mood history");
+                app.setStatus("No mood entries found");
             }
+        } else {
+            noDataLabel.setVisible(false);
+            historyTable.setVisible(true);
+            if (app != null) {
+                app.setStatus("Loaded " + moodEntries.size() + " mood entries");
+            }
+        }
+    }
+
+    private void showLoadError(Throwable e) {
+        log.error("Error loading mood history", e);
+
+        // Show error in UI
+        noDataLabel.setText("Error loading mood history: " + e.getMessage());
+        noDataLabel.setVisible(true);
+        historyTable.setVisible(false);
+
+        if (app != null) {
+            app.setStatus("Error loading mood history");
         }
     }
 
     /**
-     * Deletes a mood entry after user confirmation
+     * Deletes the entry behind a row's delete button
      */
     private void deleteMoodEntry(MoodEntry entry) {
-        // Show confirmation dialog
-        Alert alert = new Alert(AlertType.CONFIRMATION);
-        alert.setTitle("Delete Mood Entry");
-        alert.setHeaderText("Are you sure you want to delete this mood entry?");
-        alert.setContentText("Date: " + entry.getFormattedDate() + "\n" +
-                           "Mood: " + entry.getMoodType() + "\n" +
-                           "Description: " + entry.getDescription() + "\n\n" +
-                           "This action cannot be undone.");
-        
-        alert.showAndWait().ifPresent(response -> {
-            if (response == javafx.scene.control.ButtonType.OK) {
-                try {
-                    // Delete from database using repository
-                    entryRepository.deleteMoodEntry(entry.getId());
-                    
-                    // Show success message
-                    Alert successAlert = new Alert(AlertType.INFORMATION);
-                    successAlert.setTitle("Success");
-                    successAlert.setHeaderText("Mood Entry Deleted");
-                    successAlert.setContentText("The mood entry has been successfully deleted.");
-                    successAlert.showAndWait();
-                    
-                    // Refresh the table
-                    loadMoodHistory();
-                    
-                    // Update app status
-                    if (app != null) {
-                        app.setStatus("Mood entry deleted successfully");
-                    }
-                    
-                } catch (SQLException e) {
-                    // Show error message
-                    Alert errorAlert = new Alert(AlertType.ERROR);
-                    errorAlert.setTitle("Error");
-                    errorAlert.setHeaderText("Failed to Delete Entry");
-                    errorAlert.setContentText("An error occurred while deleting the mood entry:\n" + e.getMessage());
-                    errorAlert.showAndWait();
-                    
-                    System.err.println("Error deleting mood entry: " + e.getMessage());
-                    e.printStackTrace();
-                    
-                    if (app != null) {
-                        app.setStatus("Error deleting mood entry");
-                    }
-                }
+        deleteMoodEntries(List.of(entry));
+    }
+
+    @FXML
+    private void onDeleteSelected() {
+        List<MoodEntry> selected = new ArrayList<>(historyTable.getSelectionModel().getSelectedItems());
+        if (!selected.isEmpty()) {
+            deleteMoodEntries(selected);
+        }
+    }
+
+    /**
+     * Removes the entries from the table immediately, deletes them in one background
+     * transaction and offers a short undo window. The rows come back if the delete fails.
+     */
+    private void deleteMoodEntries(List<MoodEntry> entries) {
+        ObservableList<MoodEntry> items = historyTable.getItems();
+
+        List<RemovedRow> rows = new ArrayList<>();
+        for (MoodEntry entry : entries) {
+            int index = items.indexOf(entry);
+            if (index >= 0) {
+                rows.add(new RemovedRow(index, entry));
             }
-        });
+        }
+        if (rows.isEmpty()) return;
+        rows.sort(Comparator.comparingInt(RemovedRow::index));
+
+        List<MoodEntry> removed = rows.stream().map(RemovedRow::entry).toList();
+        List<Integer> ids = removed.stream().map(MoodEntry::getId).toList();
+
+        // Optimistic update: the table changes before the database does
+        items.removeAll(removed);
+        updateEmptyState();
+
+        // Any previous undo window closes once a new delete starts
+        tombstone = null;
+        String what = removed.size() == 1 ? "1 entry" : removed.size() + " entries";
+        showToast("Deleted " + what, false, false);
+
+        executor.runAsync(Resource.DATABASE,
+            () -> {
+                entryRepository.deleteMoodEntries(ids);
+                return null;
+            },
+            done -> {
+                tombstone = new Tombstone(rows);
+                showToast("Deleted " + what, true, false);
+                if (app != null) {
+                    app.setStatus("Deleted " + what);
+                }
+            },
+            e -> {
+                log.warn("Error deleting mood entries: {}", e.getMessage());
+
+                restoreRows(rows);
+                showToast("Couldn't delete " + what + ": " + e.getMessage(), false, true);
+                if (app != null) {
+                    app.setStatus("Error deleting mood entry");
+                }
+            });
+    }
+
+    @FXML
+    private void onUndoDelete() {
+        Tombstone undo = tombstone;
+        if (undo == null) return;
+        tombstone = null;
+
+        List<MoodEntry> entries = undo.rows().stream().map(RemovedRow::entry).toList();
+        restoreRows(undo.rows());
+        hideToast();
+
+        executor.runAsync(Resource.DATABASE,
+            () -> {
+                entryRepository.restoreMoodEntries(entries);
+                return null;
+            },
+            done -> {
+                if (app != null) {
+                    app.setStatus("Restored " + entries.size() + (entries.size() == 1 ? " entry" : " entries"));
+                }
+            },
+            e -> {
+                log.warn("Error restoring mood entries: {}", e.getMessage());
+
+                historyTable.getItems().removeAll(entries);
+                updateEmptyState();
+                showToast("Couldn't undo the delete: " + e.getMessage(), false, true);
+            });
+    }
+
+    /**
+     * Puts removed rows back at their original positions
+     */
+    private void restoreRows(List<RemovedRow> rows) {
+        ObservableList<MoodEntry> items = historyTable.getItems();
+        // Rows are sorted by index, so inserting in order rebuilds the original layout
+        for (RemovedRow row : rows) {
+            items.add(Math.min(row.index(), items.size()), row.entry());
+        }
+        updateEmptyState();
+    }
+
+    private void updateEmptyState() {
+        boolean empty = historyTable.getItems().isEmpty();
+        noDataLabel.setVisible(empty);
+        historyTable.setVisible(!empty);
+    }
+
+    /**
+     * Shows the toast bar; it hides itself (and closes the undo window) after a few seconds
+     */
+    private void showToast(String message, boolean undoable, boolean error) {
+        toastLabel.setText(message);
+        undoButton.setVisible(undoable);
+        undoButton.setManaged(undoable);
+        toastBar.getStyleClass().remove("error");
+        if (error) {
+            toastBar.getStyleClass().add("error");
+        }
+        toastBar.setVisible(true);
+        toastBar.setManaged(true);
+        toastTimer.playFromStart();
     }
 
+    private void hideToast() {
+        toastTimer.stop();
+        toastBar.setVisible(false);
+        toastBar.setManaged(false);
+    }
+
+    /**
+     * A table row removed by a delete, remembered with its position for rollback
+     */
+    private record RemovedRow(int index, MoodEntry entry) {}
+
+    /**
+     * Short-lived record of the last committed delete, kept only while undo is offered
+     */
+    private record Tombstone(List<RemovedRow> rows) {}
+
     @FXML
     private void onBackHome() {
         app.goHome();
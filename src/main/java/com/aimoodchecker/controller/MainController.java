@@ -1,5 +1,8 @@
 package com.aimoodchecker.controller;
 
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -8,6 +11,7 @@ import javafx.scene.control.Label;
  * Main controller for the AI Mood Checker application
  */
 public class MainController {
+    private static final Logger log = Log.get(MainController.class);
 
     @FXML
     private Label statusLabel;
@@ -37,7 +41,7 @@ public class MainController {
     private void handleCheckMood() {
         statusLabel.setText("Checking mood...");
         // TODO: Implement mood checking logic
-        System.out.println("Check Mood button clicked");
+        log.debug("Check Mood button clicked");
     }
     
     /**
@@ -46,6 +50,6 @@ public class MainController {
     private void handleViewHistory() {
         statusLabel.setText("Loading history...");
         // TODO: Implement history viewing logic
-        System.out.println("View History button clicked");
+        log.debug("View History button clicked");
     }
 }
@@ -1,9 +1,10 @@
 package com.aimoodchecker.controller;
 
+import com.aimoodchecker.service.BackgroundExecutor;
 import com.aimoodchecker.service.SentimentService;
 import com.aimoodchecker.service.ChatGPTService;
 import com.aimoodchecker.repository.EntryRepository;
 
 public interface NeedsDeps {
-    void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT);
+    void init(EntryRepository repo, SentimentService sentiment, ChatGPTService chatGPT, BackgroundExecutor executor);
 }
@@ -0,0 +1,11 @@
+package com.aimoodchecker.controller;
+
+/**
+ * Implemented by controllers of cached views that need to know when they are shown or hidden.
+ * Views are loaded once and reused, so data should be refreshed here rather than in initialize().
+ */
+public interface ViewLifecycle {
+    void onActivate();
+
+    default void onDeactivate() {}
+}
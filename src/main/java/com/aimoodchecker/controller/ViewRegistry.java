@@ -0,0 +1,74 @@
+package com.aimoodchecker.controller;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Loads each FXML view once and caches the root node together with its controller.
+ * get() may be called from any thread, so views can be preloaded in the background;
+ * navigating to a view that is still loading waits for that load instead of parsing
+ * the FXML a second time.
+ */
+public class ViewRegistry {
+
+    /**
+     * Record representing a loaded view and its controller
+     */
+    public record LoadedView(String fxml, Parent root, Object controller) {}
+
+    private final Map<String, FutureTask<LoadedView>> views = new ConcurrentHashMap<>();
+    private final Consumer<Object> wiring;
+
+    /**
+     * @param wiring Called once with every new controller to inject its dependencies
+     */
+    public ViewRegistry(Consumer<Object> wiring) {
+        this.wiring = wiring;
+    }
+
+    /**
+     * Gets a view, loading it on the calling thread if nobody has started loading it yet
+     */
+    public LoadedView get(String fxml) throws IOException {
+        FutureTask<LoadedView> task = views.computeIfAbsent(fxml, this::newLoadTask);
+        // No-op if the preloader already ran (or is running) this task
+        task.run();
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + fxml, e);
+        } catch (ExecutionException e) {
+            // Forget the failed load so the next navigation can retry
+            views.remove(fxml, task);
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Error loading " + fxml, e.getCause());
+        }
+    }
+
+    /**
+     * Whether a view has finished loading, so showing it won't parse any FXML
+     */
+    public boolean isLoaded(String fxml) {
+        FutureTask<LoadedView> task = views.get(fxml);
+        return task != null && task.isDone();
+    }
+
+    private FutureTask<LoadedView> newLoadTask(String fxml) {
+        return new FutureTask<>(() -> {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
+            Parent root = loader.load();
+            Object controller = loader.getController();
+            wiring.accept(controller);
+            return new LoadedView(fxml, root, controller);
+        });
+    }
+}
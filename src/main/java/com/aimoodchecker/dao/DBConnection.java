@@ -1,68 +1,215 @@
 package com.aimoodchecker.dao;
 
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.Metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Database connection utility class for SQLite
+ * Database connection utility class for SQLite.
+ * The database runs in WAL mode so readers never block the writer or each other:
+ * getConnection() hands out pooled read connections, and every write goes through
+ * the single {@link DatabaseWriter}.
  */
 public class DBConnection {
-    
-    private static final String DB_URL = "jdbc:sqlite:mood.db";
-    private static Connection connection = null;
-    
+    private static final Logger log = Log.get(DBConnection.class);
+
+    // Can be pointed at another file, e.g. -Daimoodchecker.db=stress.db for the stress test
+    private static final String DB_URL = "jdbc:sqlite:" + System.getProperty("aimoodchecker.db", "mood.db");
+
     /**
-     * Opens a connection to the SQLite database
+     * Maximum number of read connections open at the same time
+     */
+    public static final int MAX_READERS = 4;
+
+    private static final BlockingQueue<Connection> idleReaders = new LinkedBlockingQueue<>();
+    private static final Semaphore readerPermits = new Semaphore(MAX_READERS, true);
+    private static volatile DatabaseWriter writer;
+
+    static {
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("db.readers.busy", () -> MAX_READERS - readerPermits.availablePermits());
+        metrics.gauge("db.readers.waiting", readerPermits::getQueueLength);
+        metrics.gauge("db.writer.queue", () -> writer == null ? 0 : writer.getQueueLength());
+        metrics.gauge("db.writer.committedWrites", () -> writer == null ? 0 : writer.getCommittedWrites());
+        metrics.gauge("db.writer.committedGroups", () -> writer == null ? 0 : writer.getCommittedGroups());
+    }
+
+    /**
+     * Borrows a read connection from the pool; closing it returns it to the pool.
+     * Blocks while all MAX_READERS connections are in use.
      * @return Connection object
      * @throws SQLException if connection fails
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                // Load SQLite JDBC driver
-                Class.forName("org.sqlite.JDBC");
-                connection = DriverManager.getConnection(DB_URL);
-                System.out.println("Database connection established successfully");
-            } catch (ClassNotFoundException e) {
-                throw new SQLException("SQLite JDBC driver not found", e);
+        if (writer == null) {
+            getWriter(); // WAL mode must be on before the first reader opens
+        }
+        try {
+            readerPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            Connection conn = idleReaders.poll();
+            if (conn == null || conn.isClosed()) {
+                conn = openConnection();
             }
+            return pooled(conn);
+        } catch (SQLException | RuntimeException e) {
+            readerPermits.release();
+            throw e;
         }
-        return connection;
     }
-    
+
     /**
-     * Closes the database connection
+     * Gets the writer that owns the single write connection, opening it on first use
      */
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed successfully");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
+    public static synchronized DatabaseWriter getWriter() throws SQLException {
+        if (writer == null) {
+            Connection conn = openConnection();
+            try (Statement stmt = conn.createStatement()) {
+                // Readers keep working against the last committed snapshot while a write is in progress
+                stmt.execute("PRAGMA journal_mode=WAL");
+                stmt.execute("PRAGMA synchronous=NORMAL");
             }
+            writer = new DatabaseWriter(conn);
+            log.info("Database connection established");
         }
+        return writer;
     }
-    
+
+    private static Connection openConnection() throws SQLException {
+        try {
+            // Load SQLite JDBC driver
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite JDBC driver not found", e);
+        }
+        Properties props = new Properties();
+        // Wait instead of failing with SQLITE_BUSY during checkpoints
+        props.setProperty("busy_timeout", "5000");
+        // Prepared statements are kept for reuse, and every statement is timed; slow ones
+        // are logged with their query plan
+        Connection conn = StatementCache.wrap(DriverManager.getConnection(DB_URL, props));
+        return SqlMonitor.getInstance().wrap(conn);
+    }
+
+    /**
+     * Wraps a read connection so close() puts it back in the pool instead of closing it
+     */
+    private static Connection pooled(Connection conn) {
+        AtomicBoolean returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (returned.compareAndSet(false, true)) {
+                            release(conn);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned.get() || conn.isClosed();
+                    default:
+                        if (returned.get()) {
+                            throw new SQLException("Connection has been returned to the pool");
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
+    }
+
+    private static void release(Connection conn) {
+        try {
+            if (!conn.isClosed()) {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                idleReaders.add(conn);
+            }
+        } catch (SQLException e) {
+            log.warn("Discarding broken read connection: {}", e.getMessage());
+            closeQuietly(conn);
+        } finally {
+            readerPermits.release();
+        }
+    }
+
+    /**
+     * Commits pending writes and closes the writer and all idle read connections
+     */
+    public static synchronized void closeConnection() {
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+        Connection conn;
+        while ((conn = idleReaders.poll()) != null) {
+            closeQuietly(conn);
+        }
+        log.info("Database connection closed");
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            log.warn("Error closing database connection: {}", e.getMessage());
+        }
+    }
+
     /**
      * Checks if the database connection is valid
      * @return true if connection is valid, false otherwise
      */
     public static boolean isConnectionValid() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection conn = getConnection()) {
+            return conn.isValid(5);
         } catch (SQLException e) {
             return false;
         }
     }
-    
+
     /**
      * Initialize database schema (creates tables if they don't exist)
      * This is called once when the application starts
      */
     public static void initDatabase() {
+        try {
+            getWriter().runStandalone(conn -> {
+                createSchema(conn);
+                return null;
+            });
+            log.info("Database schema initialized");
+        } catch (SQLException e) {
+            log.error("Error initializing database schema", e);
+        }
+    }
+
+    /**
+     * Creates the tables on any connection and brings them to the latest schema version,
+     * e.g. for a database file written outside the app
+     */
+    public static void createSchema(Connection conn) throws SQLException {
         String ddl = """
             CREATE TABLE IF NOT EXISTS mood_entries (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -73,14 +220,9 @@ public class DBConnection {
                 created_at TEXT DEFAULT CURRENT_TIMESTAMP
             );
             """;
-            
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
+        try (Statement stmt = conn.createStatement()) {
             stmt.execute(ddl);
-            System.out.println("Database schema initialized successfully");
-        } catch (SQLException e) {
-            System.err.println("Error initializing database schema: " + e.getMessage());
-            e.printStackTrace();
         }
+        SchemaMigrations.migrate(conn);
     }
 }
@@ -0,0 +1,267 @@
+package com.aimoodchecker.dao;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Owns the only connection that writes to the database and runs every write on one
+ * dedicated thread. Writes that arrive within a few milliseconds of each other are
+ * group-committed: they share one transaction, each inside its own savepoint, so a
+ * failing write is rolled back on its own while the rest of the group still commits.
+ * Callers block until their write has been committed (or has failed).
+ */
+public class DatabaseWriter {
+    private static final Logger log = Log.get(DatabaseWriter.class);
+
+    /**
+     * A unit of work run on the writer connection; it must not commit or change auto-commit
+     */
+    @FunctionalInterface
+    public interface WriteOperation<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    // How long the writer waits for more writes before committing a group
+    private static final long GROUP_WINDOW_MICROS = 2_000;
+    private static final int MAX_GROUP_SIZE = 64;
+
+    private record PendingWrite<T>(WriteOperation<T> operation, Consumer<T> afterCommit,
+                                   CompletableFuture<T> result, boolean grouped) {
+        void run(Connection conn) {
+            try {
+                committed(operation.apply(conn));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        void committed(T value) {
+            if (afterCommit != null) {
+                try {
+                    afterCommit.accept(value);
+                } catch (RuntimeException e) {
+                    log.error("After-commit hook failed", e);
+                }
+            }
+            result.complete(value);
+        }
+    }
+
+    private static final PendingWrite<Void> STOP = new PendingWrite<>(conn -> null, null, new CompletableFuture<>(), false);
+
+    private final Connection connection;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    // Totals for diagnostics and the concurrency stress test
+    private volatile long committedWrites;
+    private volatile long committedGroups;
+
+    DatabaseWriter(Connection connection) {
+        this.connection = connection;
+        this.thread = Thread.ofPlatform().name("db-writer").daemon(true).unstarted(this::runLoop);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a write to be group-committed and waits until it has been committed
+     * @throws SQLException if the operation or the commit failed
+     */
+    public <T> T write(WriteOperation<T> operation) throws SQLException {
+        return write(operation, null);
+    }
+
+    /**
+     * Like write(operation), and runs afterCommit with the result on the writer thread right
+     * after the commit, before any later write starts. Hooks therefore see commits in order.
+     */
+    public <T> T write(WriteOperation<T> operation, Consumer<T> afterCommit) throws SQLException {
+        return await(enqueue(operation, afterCommit, true));
+    }
+
+    /**
+     * Runs an operation on the writer connection outside any group transaction, e.g. schema
+     * migrations that manage their own transactions
+     */
+    public <T> T runStandalone(WriteOperation<T> operation) throws SQLException {
+        return await(enqueue(operation, null, false));
+    }
+
+    public long getCommittedWrites() {
+        return committedWrites;
+    }
+
+    public long getCommittedGroups() {
+        return committedGroups;
+    }
+
+    /**
+     * Gets the number of writes waiting for the writer thread
+     */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    private <T> CompletableFuture<T> enqueue(WriteOperation<T> operation, Consumer<T> afterCommit,
+                                             boolean grouped) throws SQLException {
+        if (stopped) {
+            throw new SQLException("Database writer has been shut down");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        queue.add(new PendingWrite<>(operation, afterCommit, result, grouped));
+        // Lost a race with shutdown(): nobody is left to run the write
+        if (stopped && !thread.isAlive()) {
+            failRemaining(List.of());
+        }
+        return result;
+    }
+
+    private <T> T await(CompletableFuture<T> result) throws SQLException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            // The write stays queued and may still commit
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database write", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sql) throw sql;
+            throw new SQLException("Database write failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void runLoop() {
+        List<PendingWrite<?>> group = new ArrayList<>();
+        try {
+            while (true) {
+                PendingWrite<?> first = queue.take();
+                if (first == STOP) return;
+                if (!first.grouped()) {
+                    first.run(connection);
+                    continue;
+                }
+
+                // Collect whatever else arrives within the group window
+                group.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(GROUP_WINDOW_MICROS);
+                PendingWrite<?> next = null;
+                while (group.size() < MAX_GROUP_SIZE) {
+                    next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null || next == STOP || !next.grouped()) break;
+                    group.add(next);
+                    next = null;
+                }
+
+                commitGroup(group);
+                group.clear();
+
+                if (next == STOP) return;
+                if (next != null) next.run(connection);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            failRemaining(group);
+        }
+    }
+
+    /**
+     * Runs every write of the group in one transaction, one savepoint per write
+     */
+    private void commitGroup(List<PendingWrite<?>> group) {
+        List<Object> results = new ArrayList<>(group.size());
+        List<Throwable> failures = new ArrayList<>(group.size());
+        try {
+            connection.setAutoCommit(false);
+            for (PendingWrite<?> write : group) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    results.add(write.operation().apply(connection));
+                    failures.add(null);
+                    connection.releaseSavepoint(savepoint);
+                } catch (Throwable e) {
+                    connection.rollback(savepoint);
+                    connection.releaseSavepoint(savepoint);
+                    results.add(null);
+                    failures.add(e);
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            log.warn("Group commit of {} writes failed: {}", group.size(), e.getMessage());
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            for (PendingWrite<?> write : group) {
+                write.result().completeExceptionally(e);
+            }
+            return;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                log.warn("Error restoring auto-commit on writer connection: {}", e.getMessage());
+            }
+        }
+
+        long succeeded = 0;
+        for (int i = 0; i < group.size(); i++) {
+            if (failures.get(i) == null) {
+                complete(group.get(i), results.get(i));
+                succeeded++;
+            } else {
+                group.get(i).result().completeExceptionally(failures.get(i));
+            }
+        }
+        committedWrites += succeeded;
+        committedGroups++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void complete(PendingWrite<T> write, Object value) {
+        write.committed((T) value);
+    }
+
+    private void failRemaining(List<PendingWrite<?>> group) {
+        SQLException closed = new SQLException("Database writer has been shut down");
+        for (PendingWrite<?> write : group) {
+            write.result().completeExceptionally(closed);
+        }
+        PendingWrite<?> write;
+        while ((write = queue.poll()) != null) {
+            write.result().completeExceptionally(closed);
+        }
+    }
+
+    /**
+     * Commits everything already queued, then stops the writer thread and closes its connection
+     */
+    void shutdown() {
+        stopped = true;
+        queue.add(STOP);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Error closing writer connection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.aimoodchecker.dao;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a synthetic but plausible mood history into a mood.db-compatible database, for
+ * scale tests and benchmarks. The same Config (seed included) always produces the same rows.
+ *
+ * The model: each day has a latent mood made of a weekday effect, a slow yearly swing and
+ * an AR(1) drift, so good and bad weeks cluster. Entries are spread over the days (some days
+ * have none), get a time of day from a morning/evening profile with its own small effect,
+ * and pick Happy/Neutral/Sad by tilting the configured mood weights towards the latent mood.
+ * Sentiment follows the mood with noise and occasionally contradicts it; descriptions are
+ * drawn from mood-specific and shared vocabularies with a skew towards common words.
+ *
+ * Runs headless: main() writes a new file, {@link #write} fills an open connection.
+ */
+public final class MoodHistoryGenerator {
+    private static final Logger log = Log.get(MoodHistoryGenerator.class);
+
+    private static final DateTimeFormatter SQLITE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BATCH_SIZE = 10_000;
+    private static final int COMMIT_EVERY = 500_000;
+
+    /**
+     * Record representing the generator settings
+     * @param seed Random seed; equal configs give identical histories
+     * @param end Last day of the history (inclusive)
+     * @param days Number of days, ending with end
+     * @param entries Exact number of entries to write
+     * @param happyWeight Relative share of Happy entries on an average day
+     * @param neutralWeight Relative share of Neutral entries
+     * @param sadWeight Relative share of Sad entries
+     * @param weeklyAmplitude Strength of the weekday effect (0 = none, 1 = default)
+     * @param activeDayShare Share of days with at least a chance of entries
+     * @param zone Time zone the entries are written in
+     */
+    public record Config(long seed, LocalDate end, int days, long entries,
+                         double happyWeight, double neutralWeight, double sadWeight,
+                         double weeklyAmplitude, double activeDayShare, ZoneId zone) {
+
+        /**
+         * Two years ending today, two entries a day on average
+         */
+        public static Config defaults() {
+            return new Config(42, LocalDate.now(), 730, 1460, 0.4, 0.35, 0.25, 1.0, 0.85, ZoneId.systemDefault());
+        }
+
+        public Config withSeed(long seed) {
+            return new Config(seed, end, days, entries, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withYears(double years) {
+            return withDays((int) Math.round(years * 365.25));
+        }
+
+        /**
+         * Changes the span and keeps the average number of entries per day
+         */
+        public Config withDays(int days) {
+            long perDayTotal = Math.round((double) entries / this.days * days);
+            return new Config(seed, end, days, perDayTotal, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withEntries(long entries) {
+            return new Config(seed, end, days, entries, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withEnd(LocalDate end) {
+            return new Config(seed, end, days, entries, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withMoodWeights(double happy, double neutral, double sad) {
+            return new Config(seed, end, days, entries, happy, neutral, sad, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withWeeklyAmplitude(double weeklyAmplitude) {
+            return new Config(seed, end, days, entries, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withActiveDayShare(double activeDayShare) {
+            return new Config(seed, end, days, entries, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public Config withZone(ZoneId zone) {
+            return new Config(seed, end, days, entries, happyWeight, neutralWeight, sadWeight, weeklyAmplitude, activeDayShare, zone);
+        }
+
+        public LocalDate start() {
+            return end.minusDays(days - 1);
+        }
+    }
+
+    // Latent mood offset per weekday, Monday first
+    private static final double[] WEEKDAY_EFFECT = { -0.45, -0.2, -0.1, 0.0, 0.3, 0.55, 0.3 };
+
+    // Relative number of entries per hour of day: a morning and a larger evening peak
+    private static final double[] HOUR_WEIGHTS = {
+        0.3, 0.15, 0.1, 0.05, 0.05, 0.1, 0.4, 1.2, 1.6, 1.2, 0.8, 0.7,
+        0.9, 0.8, 0.6, 0.6, 0.7, 0.9, 1.2, 1.6, 1.9, 1.8, 1.3, 0.7 };
+
+    // Mood offset per hour of day: low late at night, slightly up in the evening
+    private static final double[] HOUR_EFFECT = {
+        -0.4, -0.5, -0.5, -0.5, -0.4, -0.3, -0.15, -0.1, -0.05, 0, 0, 0.05,
+        0.1, 0.05, 0, 0, 0, 0.05, 0.1, 0.15, 0.15, 0.1, 0, -0.2 };
+
+    // How strongly the latent mood tilts the Happy/Sad odds
+    private static final double TILT = 1.3;
+    // Chance that the text reads opposite to the chosen mood, and that an entry has no score
+    private static final double CONTRADICTION_RATE = 0.08;
+    private static final double UNSCORED_RATE = 0.03;
+
+    private static final String[] HAPPY_WORDS = words(
+        "great happy grateful relaxed proud excited fun friends sunny walk beach laughed "
+        + "dinner celebrated productive calm rested holiday weekend music finished promotion "
+        + "birthday garden hike family cozy energized wonderful lovely success");
+    private static final String[] NEUTRAL_WORDS = words(
+        "okay fine normal usual routine errands quiet average meeting emails groceries "
+        + "cleaning commute lunch reading chores nothing special alright decent steady");
+    private static final String[] SAD_WORDS = words(
+        "tired stressed anxious lonely worried sad exhausted headache argument deadline "
+        + "overwhelmed insomnia rain sick bills frustrated disappointed cried late traffic "
+        + "boss exam failed missed cancelled awful drained hopeless");
+    private static final String[] SHARED_WORDS = words(
+        "today work home morning evening night after before with my the a long day week "
+        + "again still really bit very partner kids dog coffee sleep gym phone call project "
+        + "school weather mom dad friend colleague class");
+
+    private MoodHistoryGenerator() {}
+
+    /**
+     * Writes a new database file; an existing file (and its WAL) is replaced
+     * @return Number of entries written
+     */
+    public static long generate(File file, Config config) throws SQLException {
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            new File(file.getPath() + suffix).delete();
+        }
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getPath())) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode=WAL");
+                // A fresh file that can be regenerated; skip fsyncs while filling it
+                stmt.execute("PRAGMA synchronous=OFF");
+            }
+            DBConnection.createSchema(conn);
+            long written = write(conn, config);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA synchronous=NORMAL");
+                stmt.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+                stmt.execute("ANALYZE");
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Appends the generated entries through an open connection whose schema is up to date
+     * (see DBConnection.createSchema); commits in large chunks and re-indexes the full-text
+     * search once at the end; progress goes to the log
+     * @return Number of entries written
+     */
+    public static long write(Connection conn, Config config) throws SQLException {
+        String sql = """
+            INSERT INTO mood_entries (date, mood_type, description, sentiment_score, created_at,
+                                      created_epoch, utc_offset, time_zone)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        SplittableRandom random = new SplittableRandom(config.seed());
+        long[] perDay = entriesPerDay(config, random);
+        double[] hourCdf = cumulative(HOUR_WEIGHTS);
+        ZoneRules rules = config.zone().getRules();
+        String zoneId = config.zone().getId();
+        LocalDate start = config.start();
+        StringBuilder text = new StringBuilder(256);
+        int[] seconds = new int[0];
+
+        SchemaMigrations.suspendFullTextIndex(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        long written = 0;
+        double drift = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int day = 0; day < config.days(); day++) {
+                LocalDate date = start.plusDays(day);
+                drift = 0.9 * drift + 0.3 * random.nextGaussian();
+                double latent = config.weeklyAmplitude() * WEEKDAY_EFFECT[date.getDayOfWeek().getValue() - 1]
+                    + 0.3 * Math.sin(2 * Math.PI * date.getDayOfYear() / 365.25)
+                    + drift;
+
+                int count = (int) perDay[day];
+                if (count == 0) continue;
+                // Times of day in order, so ids ascend with time like a real history
+                if (seconds.length < count) {
+                    seconds = new int[Math.max(count, seconds.length * 2)];
+                }
+                for (int i = 0; i < count; i++) {
+                    int hour = sample(hourCdf, random.nextDouble());
+                    seconds[i] = hour * 3600 + random.nextInt(3600);
+                }
+                Arrays.sort(seconds, 0, count);
+
+                String dateText = date.toString();
+                for (int i = 0; i < count; i++) {
+                    int hour = seconds[i] / 3600;
+                    double mood = latent + HOUR_EFFECT[hour] + 0.6 * random.nextGaussian();
+                    int moodIndex = pickMood(config, mood, random.nextDouble());
+
+                    LocalDateTime local = date.atStartOfDay().plusSeconds(seconds[i]);
+                    ZoneOffset offset = rules.getOffset(local);
+                    long epoch = local.toEpochSecond(offset);
+
+                    stmt.setString(1, dateText);
+                    stmt.setString(2, moodIndex == 0 ? "Happy" : moodIndex == 1 ? "Neutral" : "Sad");
+                    boolean contradicts = random.nextDouble() < CONTRADICTION_RATE;
+                    int tone = contradicts && moodIndex != 1 ? 2 - moodIndex : moodIndex;
+                    stmt.setString(3, describe(text, tone, hour, random));
+                    if (random.nextDouble() < UNSCORED_RATE) {
+                        stmt.setNull(4, Types.REAL);
+                    } else {
+                        double sentiment = (tone == 0 ? 0.75 : tone == 1 ? 0.5 : 0.25) + 0.1 * random.nextGaussian();
+                        stmt.setDouble(4, Math.max(0, Math.min(1, sentiment)));
+                    }
+                    stmt.setString(5, LocalDateTime.ofInstant(Instant.ofEpochSecond(epoch), ZoneOffset.UTC).format(SQLITE_TIMESTAMP));
+                    stmt.setLong(6, epoch);
+                    stmt.setInt(7, offset.getTotalSeconds());
+                    stmt.setString(8, zoneId);
+                    stmt.addBatch();
+
+                    written++;
+                    if (written % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                    if (written % COMMIT_EVERY == 0) {
+                        conn.commit();
+                        log.info("Generated {} / {} entries", written, config.entries());
+                    }
+                }
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+            SchemaMigrations.resumeFullTextIndex(conn);
+        }
+        return written;
+    }
+
+    /**
+     * Spreads exactly config.entries() over the days: inactive days get none, the rest a share
+     * that varies from day to day and is higher at the weekend
+     */
+    private static long[] entriesPerDay(Config config, SplittableRandom random) {
+        double[] weights = new double[config.days()];
+        double total = 0;
+        LocalDate start = config.start();
+        for (int day = 0; day < weights.length; day++) {
+            if (random.nextDouble() >= config.activeDayShare()) continue;
+            int weekday = start.plusDays(day).getDayOfWeek().getValue();
+            // Exponential noise: most days near the mean, a few busy ones
+            double weight = -Math.log(1 - random.nextDouble()) * (weekday >= 6 ? 1.25 : 1.0);
+            weights[day] = weight;
+            total += weight;
+        }
+        if (total == 0) {
+            Arrays.fill(weights, 1.0);
+            total = weights.length;
+        }
+
+        // Cumulative rounding keeps the sum exact
+        long[] perDay = new long[weights.length];
+        double cumulative = 0;
+        long assigned = 0;
+        for (int day = 0; day < weights.length; day++) {
+            cumulative += weights[day];
+            long target = Math.round(cumulative / total * config.entries());
+            perDay[day] = target - assigned;
+            assigned = target;
+        }
+        return perDay;
+    }
+
+    /**
+     * 0 = Happy, 1 = Neutral, 2 = Sad: the configured weights tilted by the latent mood
+     */
+    private static int pickMood(Config config, double mood, double u) {
+        double happy = config.happyWeight() * Math.exp(TILT * mood);
+        double neutral = config.neutralWeight();
+        double sad = config.sadWeight() * Math.exp(-TILT * mood);
+        double x = u * (happy + neutral + sad);
+        if (x < happy) return 0;
+        return x < happy + neutral ? 1 : 2;
+    }
+
+    /**
+     * Builds a short description: mostly words of the given tone, some shared ones, with
+     * earlier words in each list drawn more often
+     */
+    private static String describe(StringBuilder text, int tone, int hour, SplittableRandom random) {
+        String[] own = tone == 0 ? HAPPY_WORDS : tone == 1 ? NEUTRAL_WORDS : SAD_WORDS;
+        text.setLength(0);
+        int words = 4 + random.nextInt(18);
+        for (int w = 0; w < words; w++) {
+            String[] pool = random.nextDouble() < 0.6 ? own : SHARED_WORDS;
+            double u = random.nextDouble();
+            if (w > 0) text.append(' ');
+            text.append(pool[(int) (u * u * pool.length)]);
+        }
+        if (hour >= 21 || hour < 4) {
+            text.append(" tonight");
+        }
+        text.setCharAt(0, Character.toUpperCase(text.charAt(0)));
+        return text.toString();
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, double u) {
+        int index = Arrays.binarySearch(cdf, u);
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private static String[] words(String text) {
+        return text.split(" ");
+    }
+
+    /**
+     * Usage: MoodHistoryGenerator [--out FILE] [--entries N] [--years Y] [--seed S]
+     *        [--moods HAPPY,NEUTRAL,SAD] [--weekly AMPLITUDE] [--active SHARE] [--zone ZONE]
+     * --years keeps two entries a day unless --entries follows it.
+     */
+    public static void main(String[] args) throws Exception {
+        Config config = Config.defaults();
+        String out = "synthetic-mood.db";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--out" -> out = value;
+                case "--entries" -> config = config.withEntries(Long.parseLong(value.replace("_", "")));
+                case "--years" -> config = config.withYears(Double.parseDouble(value));
+                case "--seed" -> config = config.withSeed(Long.parseLong(value));
+                case "--moods" -> {
+                    String[] parts = value.split(",");
+                    config = config.withMoodWeights(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                                                    Double.parseDouble(parts[2]));
+                }
+                case "--weekly" -> config = config.withWeeklyAmplitude(Double.parseDouble(value));
+                case "--active" -> config = config.withActiveDayShare(Double.parseDouble(value));
+                case "--zone" -> config = config.withZone(ZoneId.of(value));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        System.out.println("Generating " + config.entries() + " entries over " + config.days() + " days ("
+            + config.start() + " to " + config.end() + ", seed " + config.seed() + ") into " + out);
+        long start = System.nanoTime();
+        long written = generate(new File(out), config);
+        System.out.printf("Wrote %d entries in %.1f s%n", written, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,167 @@
+package com.aimoodchecker.dao;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Versioned schema migrations for the SQLite database.
+ * The applied version is tracked in SQLite's PRAGMA user_version, so each
+ * migration runs exactly once per database file.
+ */
+public class SchemaMigrations {
+    private static final Logger log = Log.get(SchemaMigrations.class);
+
+    /**
+     * A single schema step; statements run in order inside one transaction
+     */
+    private record Migration(int version, String description, List<String> statements) {}
+
+    private static final String FTS_INSERT_TRIGGER = """
+        CREATE TRIGGER IF NOT EXISTS mood_entries_fts_ai AFTER INSERT ON mood_entries BEGIN
+            INSERT INTO mood_entries_fts(rowid, description) VALUES (new.id, new.description);
+        END
+        """;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "Full-text index over mood descriptions", List.of(
+            """
+            CREATE VIRTUAL TABLE IF NOT EXISTS mood_entries_fts USING fts5(
+                description,
+                content='mood_entries',
+                content_rowid='id',
+                tokenize='porter unicode61'
+            )
+            """,
+            FTS_INSERT_TRIGGER,
+            """
+            CREATE TRIGGER IF NOT EXISTS mood_entries_fts_ad AFTER DELETE ON mood_entries BEGIN
+                INSERT INTO mood_entries_fts(mood_entries_fts, rowid, description) VALUES ('delete', old.id, old.description);
+            END
+            """,
+            """
+            CREATE TRIGGER IF NOT EXISTS mood_entries_fts_au AFTER UPDATE OF description ON mood_entries BEGIN
+                INSERT INTO mood_entries_fts(mood_entries_fts, rowid, description) VALUES ('delete', old.id, old.description);
+                INSERT INTO mood_entries_fts(rowid, description) VALUES (new.id, new.description);
+            END
+            """,
+            // Index rows that were written before the FTS table existed
+            "INSERT INTO mood_entries_fts(mood_entries_fts) VALUES ('rebuild')"
+        )),
+        new Migration(2, "Detected mood anomalies and shifts", List.of(
+            """
+            CREATE TABLE IF NOT EXISTS mood_events (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                date TEXT NOT NULL,
+                series TEXT NOT NULL,
+                kind TEXT NOT NULL,
+                value REAL NOT NULL,
+                score REAL NOT NULL,
+                detected_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                UNIQUE (date, series, kind)
+            )
+            """
+        )),
+        new Migration(3, "Epoch timestamps with the writer's UTC offset and time zone", List.of(
+            "ALTER TABLE mood_entries ADD COLUMN created_epoch INTEGER",
+            "ALTER TABLE mood_entries ADD COLUMN utc_offset INTEGER",
+            "ALTER TABLE mood_entries ADD COLUMN time_zone TEXT",
+            // created_at is UTC; the offset of older rows is this machine's, DST included, at that instant
+            """
+            UPDATE mood_entries
+            SET created_epoch = CAST(strftime('%s', created_at) AS INTEGER),
+                utc_offset = CAST(strftime('%s', created_at, 'localtime') AS INTEGER)
+                           - CAST(strftime('%s', created_at) AS INTEGER)
+            WHERE created_at IS NOT NULL
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_mood_entries_created_epoch ON mood_entries(created_epoch)"
+        ))
+    );
+
+    private SchemaMigrations() {}
+
+    /**
+     * Applies every migration newer than the database's current user_version
+     * @param conn Open connection to the database
+     * @throws SQLException if a migration fails; that migration is rolled back
+     */
+    public static void migrate(Connection conn) throws SQLException {
+        int current = getSchemaVersion(conn);
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= current) {
+                continue;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements()) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + migration.version());
+                conn.commit();
+                log.info("Applied schema migration {}: {}", migration.version(), migration.description());
+                // Statements prepared against the old schema are re-prepared on next use
+                StatementCache.invalidateAll();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Schema migration " + migration.version() + " failed", e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Stops indexing inserted rows for full-text search, for bulk loads: re-indexing
+     * everything afterwards is several times faster than indexing row by row.
+     * Must be followed by resumeFullTextIndex, also if the load fails.
+     */
+    public static void suspendFullTextIndex(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TRIGGER IF EXISTS mood_entries_fts_ai");
+        }
+    }
+
+    /**
+     * Restores full-text indexing of inserts and re-indexes every row
+     */
+    public static void resumeFullTextIndex(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(FTS_INSERT_TRIGGER);
+        }
+        rebuildFullTextIndex(conn);
+    }
+
+    /**
+     * Re-indexes every row for full-text search from the entries table
+     */
+    public static void rebuildFullTextIndex(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO mood_entries_fts(mood_entries_fts) VALUES ('rebuild')");
+        }
+    }
+
+    /**
+     * Gets the schema version currently recorded in the database
+     */
+    public static int getSchemaVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Gets the newest schema version known to this build
+     */
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version();
+    }
+}
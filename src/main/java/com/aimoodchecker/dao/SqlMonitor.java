@@ -0,0 +1,333 @@
+package com.aimoodchecker.dao;
+
+import com.aimoodchecker.logging.Level;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.LatencyHistogram;
+import com.aimoodchecker.metrics.Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * JDBC wrapper around every connection DBConnection opens. Each statement execution is timed
+ * and added to per-statement totals; one that takes longer than the slow threshold
+ * (-Daimoodchecker.db.slowMillis, default 50) is logged with its bind parameters redacted,
+ * and the first time a statement is slow its EXPLAIN QUERY PLAN is captured, so full scans
+ * show up as "SCAN mood_entries". topStatements() ranks statements by total time for the
+ * Diagnostics view and JMX (com.aimoodchecker:type=SqlMonitor).
+ *
+ * An execution lasts from execute until the statement is closed or executed again, so for
+ * queries it includes stepping through the rows; result sets aren't wrapped, which keeps
+ * per-row reads free of any overhead.
+ */
+public final class SqlMonitor implements SqlMonitorMXBean {
+    private static final Logger log = Log.get(SqlMonitor.class);
+
+    // Statements beyond this many distinct texts are counted together
+    private static final int MAX_STATEMENTS = 500;
+    private static final String OTHER = "(other statements)";
+
+    /**
+     * Record representing one statement's totals; times in milliseconds
+     */
+    public record StatementReport(String sql, long count, double totalMillis, double meanMillis,
+                                  double maxMillis, long slowCount, String plan) {}
+
+    private static final class Stats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder slowCount = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        volatile String plan;
+    }
+
+    private static final SqlMonitor instance = new SqlMonitor();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final LatencyHistogram statementLatency = Metrics.getInstance().histogram("db.statement");
+    private volatile long slowNanos = Long.getLong("aimoodchecker.db.slowMillis", 50) * 1_000_000;
+
+    private SqlMonitor() {
+        if (!Metrics.isJmxEnabled()) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(this, new ObjectName("com.aimoodchecker:type=SqlMonitor"));
+        } catch (JMException e) {
+            log.warn("Could not register the SQL monitor with JMX: {}", e.getMessage());
+        }
+    }
+
+    public static SqlMonitor getInstance() {
+        return instance;
+    }
+
+    /**
+     * Wraps a connection so its statements are timed; the raw connection is kept for EXPLAIN
+     */
+    public Connection wrap(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                Object result = invoke(conn, method, args);
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                            new Class<?>[] { PreparedStatement.class },
+                            new TimedStatement(conn, (Statement) result, (String) args[0]));
+                    case "createStatement":
+                        return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                            new Class<?>[] { Statement.class },
+                            new TimedStatement(conn, (Statement) result, null));
+                    default:
+                        return result;
+                }
+            });
+    }
+
+    @Override
+    public long getSlowThresholdMillis() {
+        return slowNanos / 1_000_000;
+    }
+
+    @Override
+    public void setSlowThresholdMillis(long millis) {
+        slowNanos = Math.max(0, millis) * 1_000_000;
+        log.info("Slow statement threshold set to {} ms", millis);
+    }
+
+    /**
+     * Gets the statements that took the most time in total, slowest first
+     */
+    public List<StatementReport> getTopStatements(int limit) {
+        List<StatementReport> reports = new ArrayList<>(stats.size());
+        stats.forEach((sql, s) -> {
+            long count = s.count.sum();
+            if (count == 0) return;
+            double total = s.totalNanos.sum() / 1e6;
+            reports.add(new StatementReport(sql, count, total, total / count, s.maxNanos.get() / 1e6,
+                                            s.slowCount.sum(), s.plan));
+        });
+        reports.sort(Comparator.comparingDouble(StatementReport::totalMillis).reversed());
+        return reports.subList(0, Math.min(limit, reports.size()));
+    }
+
+    @Override
+    public String[] topStatements(int limit) {
+        return formatReport(getTopStatements(limit)).split("\n");
+    }
+
+    /**
+     * Formats a report as a text table followed by the captured query plans
+     */
+    public static String formatReport(List<StatementReport> reports) {
+        StringBuilder text = new StringBuilder(String.format("%10s %8s %9s %9s %6s  %s%n",
+            "total ms", "count", "mean ms", "max ms", "slow", "statement"));
+        for (StatementReport r : reports) {
+            text.append(String.format("%10.1f %8d %9.2f %9.2f %6d  %s%n", r.totalMillis(), r.count(),
+                r.meanMillis(), r.maxMillis(), r.slowCount(), abbreviate(r.sql(), 120)));
+        }
+        for (StatementReport r : reports) {
+            if (r.plan() != null && !r.plan().isEmpty()) {
+                text.append(System.lineSeparator()).append(abbreviate(r.sql(), 120)).append(System.lineSeparator())
+                    .append(r.plan()).append(System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        stats.clear();
+    }
+
+    private void record(Connection conn, String sql, long nanos, Object[] binds, int bindCount) {
+        statementLatency.record(nanos);
+        Stats s = stats.get(sql);
+        if (s == null) {
+            s = stats.size() < MAX_STATEMENTS
+                ? stats.computeIfAbsent(sql, k -> new Stats())
+                : stats.computeIfAbsent(OTHER, k -> new Stats());
+        }
+        s.count.increment();
+        s.totalNanos.add(nanos);
+        if (nanos > s.maxNanos.get()) {
+            s.maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+        if (nanos < slowNanos) return;
+
+        s.slowCount.increment();
+        boolean firstSlow = s.plan == null && sql != OTHER;
+        if (firstSlow) {
+            s.plan = explain(conn, sql);
+        }
+        if (log.isEnabled(Level.WARN)) {
+            log.warn("Slow statement ({} ms): {} binds {}", String.format("%.1f", nanos / 1e6),
+                     abbreviate(sql, 500), redact(binds, bindCount));
+            if (firstSlow && !s.plan.isEmpty()) {
+                log.warn("Query plan:{}{}", System.lineSeparator(), s.plan);
+            }
+        }
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN on the raw connection and renders SQLite's plan tree; empty for
+     * statements without one, such as PRAGMAs and plain INSERTs
+     */
+    private static String explain(Connection conn, String sql) {
+        String verb = sql.stripLeading().split("\\s", 2)[0].toUpperCase(Locale.ROOT);
+        if (!List.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "REPLACE").contains(verb)) {
+            return "";
+        }
+        StringBuilder plan = new StringBuilder();
+        Map<Integer, Integer> depth = new HashMap<>();
+        // Parameters are left unbound; SQLite plans them the same way
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                int level = depth.getOrDefault(rs.getInt("parent"), -1) + 1;
+                depth.put(rs.getInt("id"), level);
+                if (!plan.isEmpty()) plan.append(System.lineSeparator());
+                plan.append("  ".repeat(level + 1)).append(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            return "(plan unavailable: " + e.getMessage() + ")";
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Describes bind values by type only, so no entry text ends up in the log
+     */
+    static String redact(Object[] binds, int count) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) text.append(", ");
+            Object value = binds[i];
+            if (value == null) {
+                text.append("null");
+            } else if (value instanceof CharSequence chars) {
+                text.append("text(").append(chars.length()).append(')');
+            } else if (value instanceof byte[] bytes) {
+                text.append("blob(").append(bytes.length).append(')');
+            } else {
+                text.append(value.getClass().getSimpleName().toLowerCase(Locale.ROOT));
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    private static String abbreviate(String sql, int max) {
+        String flat = sql.strip().replaceAll("\\s+", " ");
+        return flat.length() <= max ? flat : flat.substring(0, max - 3) + "...";
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times the executions of one statement and remembers its bind values
+     */
+    private final class TimedStatement implements InvocationHandler {
+        private final Connection conn;
+        private final Statement target;
+        private final String preparedSql;
+        private Object[] binds;
+        private int bindCount;
+        private String runningSql;
+        private long startNanos;
+
+        TimedStatement(Connection conn, Statement target, String preparedSql) {
+            this.conn = conn;
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery", "execute" -> {
+                    finish();
+                    start(args);
+                    return SqlMonitor.invoke(target, method, args);
+                }
+                case "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch" -> {
+                    finish();
+                    start(args);
+                    try {
+                        return SqlMonitor.invoke(target, method, args);
+                    } finally {
+                        finish();
+                    }
+                }
+                case "close" -> {
+                    try {
+                        return SqlMonitor.invoke(target, method, args);
+                    } finally {
+                        finish();
+                    }
+                }
+                case "clearParameters" -> {
+                    if (binds != null) Arrays.fill(binds, null);
+                    bindCount = 0;
+                    return SqlMonitor.invoke(target, method, args);
+                }
+                default -> {
+                    // setString(1, ...), setInt(2, ...) and so on
+                    if (preparedSql != null && name.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        bind(index, name.equals("setNull") ? null : args[1]);
+                    }
+                    return SqlMonitor.invoke(target, method, args);
+                }
+            }
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1) return;
+            if (binds == null || binds.length < index) {
+                binds = Arrays.copyOf(binds == null ? new Object[0] : binds, Math.max(index, 4));
+            }
+            binds[index - 1] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+
+        private void start(Object[] args) {
+            runningSql = args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql;
+            startNanos = System.nanoTime();
+        }
+
+        private void finish() {
+            if (startNanos == 0 || runningSql == null) return;
+            long elapsed = System.nanoTime() - startNanos;
+            startNanos = 0;
+            record(conn, runningSql, elapsed, binds, bindCount);
+        }
+    }
+}
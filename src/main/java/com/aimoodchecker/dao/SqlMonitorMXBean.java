@@ -0,0 +1,18 @@
+package com.aimoodchecker.dao;
+
+/**
+ * Statement statistics of the running app for JConsole or VisualVM
+ */
+public interface SqlMonitorMXBean {
+
+    long getSlowThresholdMillis();
+
+    void setSlowThresholdMillis(long millis);
+
+    /**
+     * The top statements by total time, one line each, followed by their query plans
+     */
+    String[] topStatements(int limit);
+
+    void reset();
+}
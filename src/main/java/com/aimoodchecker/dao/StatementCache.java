@@ -0,0 +1,208 @@
+package com.aimoodchecker.dao;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.Counter;
+import com.aimoodchecker.metrics.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-connection cache of prepared statements, keyed by SQL text. Closing a statement
+ * prepared through a cached connection clears its parameters and keeps it for the next
+ * prepareStatement with the same SQL, so the repository's handful of statements are parsed
+ * and planned by SQLite once per connection instead of on every call.
+ *
+ * Each connection keeps at most -Daimoodchecker.db.statementCache statements (default 32,
+ * 0 turns caching off), dropping the least recently used. A statement that is still in use
+ * when the same SQL is prepared again is not shared; the second one is prepared as usual.
+ * invalidateAll() drops every cached statement, e.g. after a schema migration.
+ */
+final class StatementCache {
+    private static final Logger log = Log.get(StatementCache.class);
+
+    static final int CAPACITY = Integer.getInteger("aimoodchecker.db.statementCache", 32);
+
+    // Bumped by invalidateAll(); statements prepared under an older generation are closed
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private static final Counter hits;
+    private static final Counter misses;
+    private static final Counter evictions;
+
+    static {
+        Metrics metrics = Metrics.getInstance();
+        hits = metrics.counter("db.statementCache.hits");
+        misses = metrics.counter("db.statementCache.misses");
+        evictions = metrics.counter("db.statementCache.evictions");
+        metrics.gauge("db.statementCache.hitRate", () -> {
+            long total = hits.getCount() + misses.getCount();
+            return total == 0 ? 0 : 100.0 * hits.getCount() / total;
+        });
+    }
+
+    private final Connection conn;
+    // Idle statements, least recently used first
+    private final LinkedHashMap<String, CachedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private int seenGeneration = generation.get();
+
+    private StatementCache(Connection conn) {
+        this.conn = conn;
+    }
+
+    /**
+     * Wraps a connection so its prepared statements are cached; closing the connection
+     * closes the cached statements too
+     */
+    static Connection wrap(Connection conn) {
+        if (CAPACITY <= 0) {
+            return conn;
+        }
+        StatementCache cache = new StatementCache(conn);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                // Only the plain prepareStatement(sql); variants with key or cursor options aren't cached
+                if (method.getName().equals("prepareStatement") && args.length == 1) {
+                    return cache.prepare((String) args[0]);
+                }
+                if (method.getName().equals("close")) {
+                    cache.clear();
+                }
+                return invoke(conn, method, args);
+            });
+    }
+
+    /**
+     * Drops the statements cached on every connection; each cache lets go of its statements
+     * the next time it is used
+     */
+    static void invalidateAll() {
+        generation.incrementAndGet();
+        log.debug("Prepared statement caches invalidated");
+    }
+
+    private synchronized PreparedStatement prepare(String sql) throws SQLException {
+        if (seenGeneration != generation.get()) {
+            clear();
+            seenGeneration = generation.get();
+        }
+        CachedStatement cached = idle.remove(sql);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = new CachedStatement(sql, conn.prepareStatement(sql), seenGeneration);
+        }
+        cached.inUse = true;
+        return cached.proxy;
+    }
+
+    /**
+     * Takes a statement back after close(), or closes it if it can't be kept
+     */
+    private synchronized void checkIn(CachedStatement cached) {
+        if (cached.generation != generation.get() || idle.containsKey(cached.sql)) {
+            closeQuietly(cached);
+            return;
+        }
+        idle.put(cached.sql, cached);
+        if (idle.size() > CAPACITY) {
+            Iterator<CachedStatement> eldest = idle.values().iterator();
+            closeQuietly(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized void clear() {
+        idle.values().forEach(StatementCache::closeQuietly);
+        idle.clear();
+    }
+
+    private static void closeQuietly(CachedStatement cached) {
+        try {
+            cached.target.close();
+        } catch (SQLException e) {
+            log.warn("Error closing cached statement: {}", e.getMessage());
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * One prepared statement and the proxy handed out for it each time it is reused
+     */
+    private final class CachedStatement implements InvocationHandler {
+        final String sql;
+        final PreparedStatement target;
+        final int generation;
+        final PreparedStatement proxy;
+        boolean inUse;
+        // Closed on check-in if the caller didn't, which also resets the SQLite statement
+        private ResultSet lastResult;
+
+        CachedStatement(String sql, PreparedStatement target, int generation) {
+            this.sql = sql;
+            this.target = target;
+            this.generation = generation;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        inUse = false;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || target.isClosed();
+                default:
+                    if (!inUse) {
+                        throw new SQLException("Statement has been closed");
+                    }
+                    Object result = StatementCache.invoke(target, method, args);
+                    if (result instanceof ResultSet rs) {
+                        lastResult = rs;
+                    }
+                    return result;
+            }
+        }
+
+        private void release() {
+            try {
+                if (lastResult != null && !lastResult.isClosed()) {
+                    lastResult.close();
+                }
+                lastResult = null;
+                target.clearParameters();
+                target.clearBatch();
+                checkIn(this);
+            } catch (SQLException e) {
+                log.warn("Discarding cached statement: {}", e.getMessage());
+                closeQuietly(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.aimoodchecker.logging;
+
+/**
+ * Log levels from most to least detailed; OFF disables a logger entirely
+ */
+public enum Level {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF
+}
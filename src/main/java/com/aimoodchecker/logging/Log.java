@@ -0,0 +1,159 @@
+package com.aimoodchecker.logging;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Entry point of the app's logging: hands out one Logger per class and holds the levels.
+ * Records go through an async ring buffer to logs/aimoodchecker.log (rolled at 5 MB, 5 old
+ * files kept) and to the console. Levels can be set per logger name or package prefix and
+ * changed at runtime, from the Diagnostics view or over JMX (com.aimoodchecker:type=Logging).
+ *
+ * System properties:
+ *   aimoodchecker.log.level=INFO              level of every logger without an override
+ *   aimoodchecker.log.level.<prefix>=DEBUG    override, e.g. ...level.com.aimoodchecker.repository
+ *   aimoodchecker.log.file=<path>|none        log file, default logs/aimoodchecker.log
+ *   aimoodchecker.log.console=true|false      echo to stdout/stderr, default true
+ */
+public final class Log {
+
+    private static final String PROPERTY = "aimoodchecker.log.";
+    private static final String ROOT = "";
+    private static final long MAX_FILE_BYTES = 5L * 1024 * 1024;
+    private static final int BACKUP_FILES = 5;
+
+    private static final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static final Map<String, Level> levels = new ConcurrentHashMap<>();
+    private static final LogWriter writer;
+
+    static {
+        levels.put(ROOT, parseLevel(System.getProperty(PROPERTY + "level"), Level.INFO));
+        System.getProperties().stringPropertyNames().forEach(key -> {
+            if (key.startsWith(PROPERTY + "level.")) {
+                levels.put(key.substring((PROPERTY + "level.").length()),
+                           parseLevel(System.getProperty(key), Level.INFO));
+            }
+        });
+
+        String file = System.getProperty(PROPERTY + "file", "logs/aimoodchecker.log");
+        Path path = "none".equalsIgnoreCase(file) ? null : Path.of(file);
+        boolean console = !"false".equalsIgnoreCase(System.getProperty(PROPERTY + "console"));
+        writer = new LogWriter(new RollingFile(path, MAX_FILE_BYTES, BACKUP_FILES), console);
+
+        // The writer thread is a daemon, so write out whatever is queued when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> writer.close(1000), "log-shutdown"));
+        // Same switch as Metrics.isJmxEnabled(), read here so logging doesn't depend on metrics
+        if (!"false".equalsIgnoreCase(System.getProperty("aimoodchecker.jmx"))) {
+            registerMXBean();
+        }
+    }
+
+    private Log() {}
+
+    public static Logger get(Class<?> type) {
+        return get(type.getName());
+    }
+
+    public static Logger get(String name) {
+        return loggers.computeIfAbsent(name, n -> new Logger(n, effectiveLevel(n)));
+    }
+
+    public static Level getRootLevel() {
+        return levels.get(ROOT);
+    }
+
+    public static void setRootLevel(Level level) {
+        setLevel(ROOT, level);
+    }
+
+    /**
+     * Sets the level of a logger and every logger below it, e.g. "com.aimoodchecker.repository";
+     * null removes the override so the parent's level applies again
+     */
+    public static synchronized void setLevel(String prefix, Level level) {
+        if (level == null) {
+            if (!ROOT.equals(prefix)) levels.remove(prefix);
+        } else {
+            levels.put(prefix, level);
+        }
+        loggers.values().forEach(logger -> logger.setLevel(effectiveLevel(logger.getName())));
+    }
+
+    public static Map<String, Level> getLevels() {
+        return Map.copyOf(levels);
+    }
+
+    /**
+     * Waits until everything logged so far has been written to the file
+     */
+    public static void flush() {
+        writer.flush(2000);
+    }
+
+    static LogWriter writer() {
+        return writer;
+    }
+
+    /**
+     * The level of the longest matching prefix
+     */
+    private static Level effectiveLevel(String name) {
+        String match = ROOT;
+        for (String prefix : levels.keySet()) {
+            boolean matches = name.equals(prefix) || name.startsWith(prefix + ".");
+            if (matches && prefix.length() > match.length()) {
+                match = prefix;
+            }
+        }
+        return levels.getOrDefault(match, Level.INFO);
+    }
+
+    static Level parseLevel(String text, Level fallback) {
+        if (text == null || text.isBlank()) return fallback;
+        try {
+            return Level.valueOf(text.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level '" + text + "', using " + fallback);
+            return fallback;
+        }
+    }
+
+    private static void registerMXBean() {
+        LoggingMXBean control = new LoggingMXBean() {
+            @Override
+            public String getRootLevel() {
+                return Log.getRootLevel().name();
+            }
+
+            @Override
+            public void setRootLevel(String level) {
+                Log.setRootLevel(parseLevel(level, Log.getRootLevel()));
+            }
+
+            @Override
+            public String[] getLevels() {
+                return levels.entrySet().stream()
+                    .map(e -> (e.getKey().isEmpty() ? "root" : e.getKey()) + "=" + e.getValue())
+                    .sorted()
+                    .toArray(String[]::new);
+            }
+
+            @Override
+            public void setLevel(String logger, String level) {
+                Log.setLevel(logger, level == null || level.isBlank() ? null : parseLevel(level, Level.INFO));
+            }
+        };
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(control, new ObjectName("com.aimoodchecker:type=Logging"));
+        } catch (JMException e) {
+            // Levels can still be changed in-app
+            System.err.println("Could not register logging controls with JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.aimoodchecker.logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands log records from the calling threads to one background writer through a fixed ring
+ * of reusable slots. Callers only copy references into a slot under a short lock; the writer
+ * formats the messages, writes them to the rolling file and echoes them to the console. When
+ * the ring is full new records are dropped and counted rather than blocking the UI thread.
+ */
+class LogWriter {
+
+    private static final int CAPACITY = 8192;
+    private static final DateTimeFormatter TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /**
+     * One reusable record in the ring
+     */
+    private static final class Slot {
+        long timeMillis;
+        Level level;
+        Logger logger;
+        String thread;
+        String format;
+        Object[] args;
+    }
+
+    private final Slot[] ring = new Slot[CAPACITY];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    // Next slot to fill and next slot to write; head - tail records are waiting
+    private long head;
+    private long tail;
+    private long dropped;
+    private boolean closed;
+
+    private final RollingFile file;
+    private final boolean console;
+    private final StringBuilder line = new StringBuilder(256);
+
+    LogWriter(RollingFile file, boolean console) {
+        this.file = file;
+        this.console = console;
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Slot();
+        }
+        Thread thread = new Thread(this::runLoop, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void append(Logger logger, Level level, String format, Object[] args) {
+        long now = System.currentTimeMillis();
+        String thread = Thread.currentThread().getName();
+        lock.lock();
+        try {
+            if (closed || head - tail == CAPACITY) {
+                dropped++;
+                return;
+            }
+            Slot slot = ring[(int) (head % CAPACITY)];
+            slot.timeMillis = now;
+            slot.level = level;
+            slot.logger = logger;
+            slot.thread = thread;
+            slot.format = format;
+            slot.args = args;
+            head++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until everything logged so far has been written, or the timeout passes
+     */
+    void flush(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            long target = head;
+            while (tail < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || drained.awaitNanos(remaining) <= 0) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes what is queued and stops accepting records
+     */
+    void close(long timeoutMillis) {
+        flush(timeoutMillis);
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runLoop() {
+        while (true) {
+            long from;
+            long to;
+            long lost;
+            lock.lock();
+            try {
+                while (head == tail && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (head == tail) break;
+                from = tail;
+                to = head;
+                lost = dropped;
+                dropped = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            // Slots in [from, to) are not reused until tail moves past them
+            if (lost > 0) {
+                write(Level.WARN, "[log-writer] " + lost + " log messages dropped, the queue was full");
+            }
+            for (long i = from; i < to; i++) {
+                Slot slot = ring[(int) (i % CAPACITY)];
+                write(slot.level, format(slot));
+                slot.args = null;
+            }
+            file.flush();
+
+            lock.lock();
+            try {
+                tail = to;
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        file.close();
+    }
+
+    private void write(Level level, String text) {
+        file.write(text);
+        if (console) {
+            PrintStream stream = level.ordinal() >= Level.WARN.ordinal() ? System.err : System.out;
+            stream.print(text);
+        }
+    }
+
+    private String format(Slot slot) {
+        line.setLength(0);
+        TIMESTAMP.formatTo(Instant.ofEpochMilli(slot.timeMillis), line);
+        line.append(' ').append(slot.level.name());
+        for (int pad = slot.level.name().length(); pad < 5; pad++) line.append(' ');
+        line.append(" [").append(slot.thread.isEmpty() ? "virtual" : slot.thread).append("] ")
+            .append(slot.logger.getShortName()).append(" - ");
+        Throwable thrown = appendMessage(line, slot.format, slot.args);
+        line.append(System.lineSeparator());
+        if (thrown != null) {
+            StringWriter trace = new StringWriter();
+            thrown.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Replaces each {} with the next argument
+     * @return A trailing Throwable argument with no placeholder of its own, or null
+     */
+    static Throwable appendMessage(StringBuilder out, String format, Object[] args) {
+        if (format == null) format = "null";
+        int used = 0;
+        int start = 0;
+        if (args != null) {
+            int index;
+            while (used < args.length && (index = format.indexOf("{}", start)) >= 0) {
+                out.append(format, start, index);
+                appendArg(out, args[used++]);
+                start = index + 2;
+            }
+        }
+        out.append(format, start, format.length());
+
+        if (args != null && used == args.length - 1 && args[used] instanceof Throwable thrown) {
+            return thrown;
+        }
+        return null;
+    }
+
+    private static void appendArg(StringBuilder out, Object arg) {
+        try {
+            out.append(arg);
+        } catch (RuntimeException e) {
+            // A broken toString() shouldn't take the writer thread down
+            out.append("[toString failed: ").append(e).append(']');
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.aimoodchecker.logging;
+
+/**
+ * Named logger handed out by Log.get(). Messages use {} placeholders, filled in on the log
+ * writer thread, so a call below the logger's level costs one field read and never builds a
+ * string. Primitive arguments are still boxed at the call site, so hot loops should check
+ * isDebugEnabled() first. A Throwable passed after the last placeholder argument is logged
+ * with its stack trace.
+ */
+public final class Logger {
+
+    private final String name;
+    private final String shortName;
+    // Effective level, recomputed by Log whenever levels change
+    private volatile int threshold;
+
+    Logger(String name, Level level) {
+        this.name = name;
+        this.shortName = name.substring(name.lastIndexOf('.') + 1);
+        this.threshold = level.ordinal();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    String getShortName() {
+        return shortName;
+    }
+
+    void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold && level != Level.OFF;
+    }
+
+    public boolean isTraceEnabled() {
+        return Level.TRACE.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return Level.DEBUG.ordinal() >= threshold;
+    }
+
+    public boolean isInfoEnabled() {
+        return Level.INFO.ordinal() >= threshold;
+    }
+
+    // ===== TRACE =====
+
+    public void trace(String message) {
+        if (isTraceEnabled()) log(Level.TRACE, message, null);
+    }
+
+    public void trace(String format, Object arg) {
+        if (isTraceEnabled()) log(Level.TRACE, format, new Object[] { arg });
+    }
+
+    public void trace(String format, Object arg1, Object arg2) {
+        if (isTraceEnabled()) log(Level.TRACE, format, new Object[] { arg1, arg2 });
+    }
+
+    public void trace(String format, Object... args) {
+        if (isTraceEnabled()) log(Level.TRACE, format, args);
+    }
+
+    // ===== DEBUG =====
+
+    public void debug(String message) {
+        if (isDebugEnabled()) log(Level.DEBUG, message, null);
+    }
+
+    public void debug(String format, Object arg) {
+        if (isDebugEnabled()) log(Level.DEBUG, format, new Object[] { arg });
+    }
+
+    public void debug(String format, Object arg1, Object arg2) {
+        if (isDebugEnabled()) log(Level.DEBUG, format, new Object[] { arg1, arg2 });
+    }
+
+    public void debug(String format, Object arg1, Object arg2, Object arg3) {
+        if (isDebugEnabled()) log(Level.DEBUG, format, new Object[] { arg1, arg2, arg3 });
+    }
+
+    public void debug(String format, Object... args) {
+        if (isDebugEnabled()) log(Level.DEBUG, format, args);
+    }
+
+    // ===== INFO =====
+
+    public void info(String message) {
+        if (isInfoEnabled()) log(Level.INFO, message, null);
+    }
+
+    public void info(String format, Object arg) {
+        if (isInfoEnabled()) log(Level.INFO, format, new Object[] { arg });
+    }
+
+    public void info(String format, Object arg1, Object arg2) {
+        if (isInfoEnabled()) log(Level.INFO, format, new Object[] { arg1, arg2 });
+    }
+
+    public void info(String format, Object arg1, Object arg2, Object arg3) {
+        if (isInfoEnabled()) log(Level.INFO, format, new Object[] { arg1, arg2, arg3 });
+    }
+
+    public void info(String format, Object... args) {
+        if (isInfoEnabled()) log(Level.INFO, format, args);
+    }
+
+    // ===== WARN =====
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) log(Level.WARN, message, null);
+    }
+
+    public void warn(String format, Object arg) {
+        if (isEnabled(Level.WARN)) log(Level.WARN, format, new Object[] { arg });
+    }
+
+    public void warn(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) log(Level.WARN, format, new Object[] { arg1, arg2 });
+    }
+
+    public void warn(String format, Object... args) {
+        if (isEnabled(Level.WARN)) log(Level.WARN, format, args);
+    }
+
+    // ===== ERROR =====
+
+    public void error(String message) {
+        if (isEnabled(Level.ERROR)) log(Level.ERROR, message, null);
+    }
+
+    public void error(String format, Object arg) {
+        if (isEnabled(Level.ERROR)) log(Level.ERROR, format, new Object[] { arg });
+    }
+
+    public void error(String format, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) log(Level.ERROR, format, new Object[] { arg1, arg2 });
+    }
+
+    public void error(String format, Object... args) {
+        if (isEnabled(Level.ERROR)) log(Level.ERROR, format, args);
+    }
+
+    private void log(Level level, String format, Object[] args) {
+        Log.writer().append(this, level, format, args);
+    }
+}
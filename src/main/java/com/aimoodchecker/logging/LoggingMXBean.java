@@ -0,0 +1,21 @@
+package com.aimoodchecker.logging;
+
+/**
+ * Changes log levels of the running app from JConsole or VisualVM
+ */
+public interface LoggingMXBean {
+
+    String getRootLevel();
+
+    void setRootLevel(String level);
+
+    /**
+     * Every level override, e.g. "com.aimoodchecker.repository=DEBUG"
+     */
+    String[] getLevels();
+
+    /**
+     * Sets the level of a logger or package prefix; an empty level removes the override
+     */
+    void setLevel(String logger, String level);
+}
@@ -0,0 +1,86 @@
+package com.aimoodchecker.logging;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Log file that is renamed to name.1 (name.1 to name.2, and so on) once it passes a size
+ * limit, keeping a fixed number of old files. A null path writes nothing. Only used from the
+ * log writer thread.
+ */
+class RollingFile {
+
+    private final Path path;
+    private final long maxBytes;
+    private final int backups;
+    private Writer out;
+    private long size;
+
+    RollingFile(Path path, long maxBytes, int backups) {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        this.backups = backups;
+    }
+
+    void write(String text) {
+        if (path == null) return;
+        try {
+            if (out == null) open();
+            if (size + text.length() > maxBytes && size > 0) roll();
+            out.write(text);
+            size += text.length();
+        } catch (IOException e) {
+            System.err.println("Could not write log file " + path + ": " + e.getMessage());
+        }
+    }
+
+    void flush() {
+        try {
+            if (out != null) out.flush();
+        } catch (IOException e) {
+            System.err.println("Could not flush log file " + path + ": " + e.getMessage());
+        }
+    }
+
+    void close() {
+        try {
+            if (out != null) out.close();
+        } catch (IOException e) {
+            System.err.println("Could not close log file " + path + ": " + e.getMessage());
+        }
+        out = null;
+    }
+
+    private void open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                                      StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(path);
+    }
+
+    private void roll() throws IOException {
+        close();
+        Files.deleteIfExists(backup(backups));
+        for (int i = backups - 1; i >= 1; i--) {
+            if (Files.exists(backup(i))) {
+                Files.move(backup(i), backup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (backups > 0) {
+            Files.move(path, backup(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+        open();
+    }
+
+    private Path backup(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,30 @@
+package com.aimoodchecker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for loading and building the trend chart
+ */
+@Name("com.aimoodchecker.ChartRebuild")
+@Label("Chart Rebuild")
+@Category({ "AI Mood Checker", "UI" })
+@Description("Loading trend data and building the mood chart; rendering follows on the next pulse")
+@StackTrace(false)
+public class ChartRebuildEvent extends Event {
+
+    @Label("Days")
+    public int days;
+
+    @Label("Points")
+    @Description("Daily trend points plotted")
+    public int points;
+
+    @Label("Markers")
+    @Description("Change point and anomaly markers plotted")
+    public int markers;
+}
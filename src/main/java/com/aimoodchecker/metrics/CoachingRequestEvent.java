@@ -0,0 +1,32 @@
+package com.aimoodchecker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one coaching call to the OpenAI API; the event duration is the latency
+ */
+@Name("com.aimoodchecker.CoachingRequest")
+@Label("Coaching Request")
+@Category({ "AI Mood Checker", "Network" })
+@Description("A chat completion request for mood coaching")
+@StackTrace(false)
+public class CoachingRequestEvent extends Event {
+
+    @Label("Status")
+    @Description("HTTP status code, or 0 if no response arrived")
+    public int status;
+
+    @Label("Request Characters")
+    public int requestChars;
+
+    @Label("Prompt Tokens")
+    public int promptTokens;
+
+    @Label("Completion Tokens")
+    public int completionTokens;
+}
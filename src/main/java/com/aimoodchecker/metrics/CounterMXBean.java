@@ -0,0 +1,10 @@
+package com.aimoodchecker.metrics;
+
+/**
+ * JMX view of a Counter
+ */
+public interface CounterMXBean {
+    long getCount();
+
+    void reset();
+}
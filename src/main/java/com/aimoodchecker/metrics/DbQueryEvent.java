@@ -0,0 +1,25 @@
+package com.aimoodchecker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one repository call, from the first statement to the last row read
+ */
+@Name("com.aimoodchecker.DbQuery")
+@Label("Database Query")
+@Category({ "AI Mood Checker", "Database" })
+@Description("A repository method run against SQLite")
+class DbQueryEvent extends Event {
+
+    @Label("SQL Id")
+    @Description("Repository method that ran the statements, e.g. repository.findDailyAverages")
+    String sqlId;
+
+    @Label("Rows")
+    @Description("Rows returned or written; 0 for aggregates")
+    int rows;
+}
@@ -0,0 +1,88 @@
+package com.aimoodchecker.metrics;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Starts and stops an in-app Java Flight Recorder recording with the JDK's "profile" settings
+ * plus the app's own events (DbQuery, CoachingRequest, ChartRebuild, ViewLoad), and dumps it
+ * to a .jfr file for JDK Mission Control. Nothing is recorded until start() is called.
+ *
+ * Event sites create their event only when eventsEnabled(): loading the first event class
+ * initializes Flight Recorder, which takes a few hundred ms, so until a recording has been
+ * started (here or with -XX:StartFlightRecording) the event stays null and costs nothing.
+ */
+public class DiagnosticsRecorder {
+    private static final Logger log = Log.get(DiagnosticsRecorder.class);
+
+    // Older data is dropped so a forgotten recording can't fill the disk
+    private static final Duration MAX_AGE = Duration.ofMinutes(15);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static DiagnosticsRecorder instance;
+
+    private Recording recording;
+
+    private DiagnosticsRecorder() {}
+
+    public static synchronized DiagnosticsRecorder getInstance() {
+        if (instance == null) {
+            instance = new DiagnosticsRecorder();
+        }
+        return instance;
+    }
+
+    /**
+     * Whether Flight Recorder has been started, so app events are worth creating
+     */
+    public static boolean eventsEnabled() {
+        return FlightRecorder.isInitialized();
+    }
+
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    public synchronized void start() throws IOException, ParseException {
+        if (recording != null) return;
+
+        Recording started = new Recording(Configuration.getConfiguration("profile"));
+        started.setName("AI Mood Checker diagnostics");
+        started.setToDisk(true);
+        started.setMaxAge(MAX_AGE);
+        started.start();
+        recording = started;
+        log.info("Diagnostics recording started");
+    }
+
+    /**
+     * Stops the recording and writes it to aimoodchecker-<time>.jfr in the given directory
+     * @return The file written
+     */
+    public synchronized Path stop(Path directory) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No diagnostics recording is running");
+        }
+        Path file = directory.resolve("aimoodchecker-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+        try {
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        log.info("Diagnostics recording saved to {}", file.toAbsolutePath());
+        return file;
+    }
+}
@@ -0,0 +1,24 @@
+package com.aimoodchecker.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Value read from its source whenever it is looked at, e.g. a queue length
+ */
+public class Gauge implements GaugeMXBean {
+
+    private final DoubleSupplier source;
+
+    public Gauge(DoubleSupplier source) {
+        this.source = source;
+    }
+
+    @Override
+    public double getValue() {
+        try {
+            return source.getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.aimoodchecker.metrics;
+
+/**
+ * JMX view of a Gauge
+ */
+public interface GaugeMXBean {
+    double getValue();
+}
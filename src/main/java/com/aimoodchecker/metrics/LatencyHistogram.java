@@ -0,0 +1,148 @@
+package com.aimoodchecker.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets in the style of HdrHistogram: every
+ * power of two is split into 16 sub-buckets, so any recorded value is known to within about
+ * 6% from 1 ns to hours, in under 1000 counters. Recording is a few atomic increments and
+ * never allocates; percentiles are computed on demand by scanning the buckets.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    /**
+     * Record representing the histogram at one moment; times in milliseconds
+     */
+    public record Snapshot(long count, double meanMillis, double p50Millis, double p95Millis,
+                           double p99Millis, double maxMillis) {}
+
+    /**
+     * Times one operation from time() until close(); use with try-with-resources
+     */
+    public record Sample(LatencyHistogram histogram, long startNanos) implements AutoCloseable {
+        @Override
+        public void close() {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Starts timing an operation
+     */
+    public Sample time() {
+        return new Sample(this, System.nanoTime());
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * Values below 16 get a bucket each; above that, bucket = octave * 16 + the 4 bits after the top bit
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int octave = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (octave - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (octave - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the middle of a bucket's value range
+     */
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int octave = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long lower = (1L << octave) | ((long) sub << (octave - SUB_BITS));
+        return lower + (1L << (octave - SUB_BITS)) / 2;
+    }
+
+    public Snapshot snapshot() {
+        long n = count.sum();
+        if (n == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(n, totalNanos.sum() / 1e6 / n,
+            percentile(copy, total, 0.50), percentile(copy, total, 0.95),
+            percentile(copy, total, 0.99), maxNanos.get() / 1e6);
+    }
+
+    private double percentile(long[] copy, long total, double quantile) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < copy.length; i++) {
+            seen += copy[i];
+            if (seen >= rank && copy[i] > 0) {
+                // The bucket midpoint can overshoot the largest value actually recorded
+                return Math.min(valueOf(i), maxNanos.get()) / 1e6;
+            }
+        }
+        return maxNanos.get() / 1e6;
+    }
+
+    // ===== JMX =====
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return snapshot().meanMillis();
+    }
+
+    @Override
+    public double getP50Millis() {
+        return snapshot().p50Millis();
+    }
+
+    @Override
+    public double getP95Millis() {
+        return snapshot().p95Millis();
+    }
+
+    @Override
+    public double getP99Millis() {
+        return snapshot().p99Millis();
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+}
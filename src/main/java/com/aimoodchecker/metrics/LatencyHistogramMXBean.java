@@ -0,0 +1,20 @@
+package com.aimoodchecker.metrics;
+
+/**
+ * JMX view of a LatencyHistogram; times in milliseconds
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,209 @@
+package com.aimoodchecker.metrics;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the app's counters, gauges and latency histograms, by dotted name such as
+ * "repository.saveMoodEntry". Every metric is also registered as a platform MXBean under
+ * com.aimoodchecker:type=Timers|Counters|Gauges,name=..., so JConsole or VisualVM can read
+ * them from the running app; the Diagnostics view (Ctrl+Shift+D) shows the same numbers.
+ *
+ * Looking a metric up is one map read; hot paths time themselves with
+ * {@code Metrics.time("...", () -> ...)}; repository calls use query() and update(), which
+ * also feed the Flight Recorder events (see DiagnosticsRecorder).
+ */
+public class Metrics {
+    private static final Logger log = Log.get(Metrics.class);
+
+    private static final String DOMAIN = "com.aimoodchecker";
+
+    // Starting the platform MBean server costs a few hundred ms, which short-lived tools skip
+    private static final boolean JMX_ENABLED = !"false".equalsIgnoreCase(System.getProperty("aimoodchecker.jmx"));
+
+    /**
+     * Record representing one metric for display: count and latencies (ms) for timers,
+     * count for counters, value for gauges
+     */
+    public record Reading(String name, String type, long count, double value,
+                          LatencyHistogram.Snapshot latency) {}
+
+    /**
+     * An operation timed by time(name, operation)
+     */
+    @FunctionalInterface
+    public interface Timed<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * A repository call timed by query(name, query); it gets the timer to report its row count
+     */
+    @FunctionalInterface
+    public interface Query<T, E extends Exception> {
+        T run(QueryTimer timer) throws E;
+    }
+
+    /**
+     * A repository call without a result, timed by update(name, update)
+     */
+    @FunctionalInterface
+    public interface Update<E extends Exception> {
+        void run(QueryTimer timer) throws E;
+    }
+
+    // Created eagerly so time() on hot paths doesn't take a lock
+    private static final Metrics instance = new Metrics();
+
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+    private Metrics() {
+        Runtime runtime = Runtime.getRuntime();
+        gauge("jvm.heapUsedMb", () -> (runtime.totalMemory() - runtime.freeMemory()) / (1024.0 * 1024.0));
+    }
+
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts timing an operation in the named histogram
+     */
+    public static LatencyHistogram.Sample time(String name) {
+        return getInstance().histogram(name).time();
+    }
+
+    /**
+     * Runs an operation, timing it in the named histogram
+     */
+    public static <T, E extends Exception> T time(String name, Timed<T, E> operation) throws E {
+        LatencyHistogram.Sample sample = time(name);
+        try {
+            return operation.run();
+        } finally {
+            sample.close();
+        }
+    }
+
+    /**
+     * Starts timing a repository call in the named histogram, also emitting a DbQuery
+     * flight recorder event with the name as its SQL id
+     */
+    public static QueryTimer query(String name) {
+        return new QueryTimer(name, getInstance().histogram(name));
+    }
+
+    /**
+     * Runs a repository call, timed as by query(name). Calls that delegate to another
+     * repository call pass their timer on, so each call is recorded once.
+     */
+    public static <T, E extends Exception> T query(String name, Query<T, E> query) throws E {
+        try (QueryTimer timer = query(name)) {
+            return query.run(timer);
+        }
+    }
+
+    /**
+     * Runs a repository call without a result, timed as by query(name)
+     */
+    public static <E extends Exception> void update(String name, Update<E> update) throws E {
+        try (QueryTimer timer = query(name)) {
+            update.run(timer);
+        }
+    }
+
+    /**
+     * Whether metrics and monitors are published over JMX; off with -Daimoodchecker.jmx=false
+     */
+    public static boolean isJmxEnabled() {
+        return JMX_ENABLED;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return get(name, LatencyHistogram.class, "Timers", LatencyHistogram::new);
+    }
+
+    public Counter counter(String name) {
+        return get(name, Counter.class, "Counters", Counter::new);
+    }
+
+    /**
+     * Registers a gauge; registering the same name again keeps the first source
+     */
+    public void gauge(String name, DoubleSupplier source) {
+        get(name, Gauge.class, "Gauges", () -> new Gauge(source));
+    }
+
+    private <T> T get(String name, Class<T> kind, String jmxType, Supplier<T> factory) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            synchronized (this) {
+                metric = metrics.get(name);
+                if (metric == null) {
+                    metric = factory.get();
+                    metrics.put(name, metric);
+                    register(jmxType, name, metric);
+                }
+            }
+        }
+        if (!kind.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + metric.getClass().getSimpleName());
+        }
+        return kind.cast(metric);
+    }
+
+    private void register(String jmxType, String name, Object metric) {
+        if (!JMX_ENABLED) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + jmxType + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metric, objectName);
+            }
+        } catch (JMException e) {
+            // Metrics still work in-app without JMX
+            log.warn("Could not register metric {} with JMX: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the current value of every metric, ordered by name
+     */
+    public List<Reading> read() {
+        List<Reading> readings = new ArrayList<>(metrics.size());
+        // Sorted so related metrics are listed together
+        new TreeMap<>(metrics).forEach((name, metric) -> {
+            if (metric instanceof LatencyHistogram histogram) {
+                LatencyHistogram.Snapshot latency = histogram.snapshot();
+                readings.add(new Reading(name, "timer", latency.count(), latency.meanMillis(), latency));
+            } else if (metric instanceof Counter counter) {
+                readings.add(new Reading(name, "counter", counter.getCount(), counter.getCount(), null));
+            } else if (metric instanceof Gauge gauge) {
+                readings.add(new Reading(name, "gauge", 0, gauge.getValue(), null));
+            }
+        });
+        return readings;
+    }
+
+    /**
+     * Zeroes every timer and counter; gauges are left alone
+     */
+    public void reset() {
+        metrics.values().forEach(metric -> {
+            if (metric instanceof LatencyHistogram histogram) histogram.reset();
+            if (metric instanceof Counter counter) counter.reset();
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.aimoodchecker.metrics;
+
+/**
+ * Times one repository call into its latency histogram and, while a flight recording is
+ * running, a DbQuery event; use with try-with-resources. Outside a recording the event's
+ * begin() and commit() do nothing. Until Flight Recorder has been started no event is
+ * created at all (see DiagnosticsRecorder.eventsEnabled()).
+ */
+public final class QueryTimer implements AutoCloseable {
+
+    private final LatencyHistogram histogram;
+    private final DbQueryEvent event;
+    private final long startNanos;
+
+    QueryTimer(String sqlId, LatencyHistogram histogram) {
+        this.histogram = histogram;
+        if (DiagnosticsRecorder.eventsEnabled()) {
+            event = new DbQueryEvent();
+            event.sqlId = sqlId;
+            event.begin();
+        } else {
+            event = null;
+        }
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Sets the number of rows returned or written, for the event
+     */
+    public void rows(int rows) {
+        if (event != null) event.rows = rows;
+    }
+
+    @Override
+    public void close() {
+        histogram.record(System.nanoTime() - startNanos);
+        if (event != null) event.commit();
+    }
+}
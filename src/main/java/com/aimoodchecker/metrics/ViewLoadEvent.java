@@ -0,0 +1,26 @@
+package com.aimoodchecker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for navigating to a view, including FXML loading when it isn't cached yet
+ */
+@Name("com.aimoodchecker.ViewLoad")
+@Label("View Load")
+@Category({ "AI Mood Checker", "UI" })
+@Description("Navigating to a view and activating its controller")
+@StackTrace(false)
+public class ViewLoadEvent extends Event {
+
+    @Label("View")
+    public String view;
+
+    @Label("Cached")
+    @Description("Whether the view had already been loaded")
+    public boolean cached;
+}
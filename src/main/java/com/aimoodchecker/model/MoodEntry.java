@@ -1,6 +1,12 @@
 package com.aimoodchecker.model;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Model class representing a mood entry
@@ -12,14 +18,32 @@ public class MoodEntry {
     private String description;
     private Double sentimentScore;
     private String createdAt;
+    private Long createdEpoch;
+    private Integer utcOffset;
+    private String timeZone;
+
+    private static final DateTimeFormatter SQLITE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     public MoodEntry(int id, LocalDate date, String moodType, String description, Double sentimentScore, String createdAt) {
+        this(id, date, moodType, description, sentimentScore, createdAt, null, null, null);
+    }
+
+    /**
+     * @param createdEpoch Creation time in seconds since the epoch, or null if unknown
+     * @param utcOffset Writer's UTC offset in seconds at creation, or null if unknown
+     * @param timeZone Writer's time zone id (e.g. Europe/Berlin), or null if unknown
+     */
+    public MoodEntry(int id, LocalDate date, String moodType, String description, Double sentimentScore, String createdAt,
+                     Long createdEpoch, Integer utcOffset, String timeZone) {
         this.id = id;
         this.date = date;
         this.moodType = moodType;
         this.description = description;
         this.sentimentScore = sentimentScore;
         this.createdAt = createdAt;
+        this.createdEpoch = createdEpoch;
+        this.utcOffset = utcOffset;
+        this.timeZone = timeZone;
     }
     
     // Getters
@@ -29,6 +53,9 @@ public class MoodEntry {
     public String getDescription() { return description; }
     public Double getSentimentScore() { return sentimentScore; }
     public String getCreatedAt() { return createdAt; }
+    public Long getCreatedEpoch() { return createdEpoch; }
+    public Integer getUtcOffset() { return utcOffset; }
+    public String getTimeZone() { return timeZone; }
     
     // Setters
     public void setId(int id) { this.id = id; }
@@ -37,6 +64,37 @@ public class MoodEntry {
     public void setDescription(String description) { this.description = description; }
     public void setSentimentScore(Double sentimentScore) { this.sentimentScore = sentimentScore; }
     public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+    public void setCreatedEpoch(Long createdEpoch) { this.createdEpoch = createdEpoch; }
+    public void setUtcOffset(Integer utcOffset) { this.utcOffset = utcOffset; }
+    public void setTimeZone(String timeZone) { this.timeZone = timeZone; }
+
+    /**
+     * Gets the creation time as the writer saw it: in their time zone if it was recorded,
+     * else at their UTC offset, else in UTC (created_at is stored as UTC)
+     * @return Creation time, or null if it isn't known
+     */
+    public ZonedDateTime getCreatedTime() {
+        Instant instant;
+        if (createdEpoch != null) {
+            instant = Instant.ofEpochSecond(createdEpoch);
+        } else if (createdAt != null) {
+            try {
+                instant = LocalDateTime.parse(createdAt, SQLITE_TIMESTAMP).toInstant(ZoneOffset.UTC);
+            } catch (Exception e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        ZoneId zone = ZoneOffset.UTC;
+        if (timeZone != null && ZoneId.getAvailableZoneIds().contains(timeZone)) {
+            zone = ZoneId.of(timeZone);
+        } else if (utcOffset != null) {
+            zone = ZoneOffset.ofTotalSeconds(utcOffset);
+        }
+        return instant.atZone(zone);
+    }
     
     /**
      * Gets formatted date string for display
@@ -0,0 +1,41 @@
+package com.aimoodchecker.repository;
+
+import com.aimoodchecker.model.MoodEntry;
+
+import java.time.LocalDate;
+
+/**
+ * A committed change to a mood entry, published by {@link EntryRepository} through its
+ * {@link EntryEventBus}. Every event carries the entry (as it is now, or as it was
+ * before being deleted) so subscribers can update derived state for just that row and date.
+ */
+public sealed interface EntryEvent {
+
+    MoodEntry entry();
+
+    default int entryId() {
+        return entry().getId();
+    }
+
+    /**
+     * The day the change affects
+     */
+    default LocalDate date() {
+        return entry().getDate();
+    }
+
+    /**
+     * Record representing a newly saved (or restored) entry
+     */
+    record EntryCreated(MoodEntry entry) implements EntryEvent {}
+
+    /**
+     * Record representing an edited entry, with its values before the edit
+     */
+    record EntryUpdated(MoodEntry previous, MoodEntry entry) implements EntryEvent {}
+
+    /**
+     * Record representing a deleted entry, with its values before the delete
+     */
+    record EntryDeleted(MoodEntry entry) implements EntryEvent {}
+}
@@ -0,0 +1,143 @@
+package com.aimoodchecker.repository;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.repository.EntryEvent.EntryCreated;
+import com.aimoodchecker.repository.EntryEvent.EntryDeleted;
+import com.aimoodchecker.repository.EntryEvent.EntryUpdated;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Delivers committed entry changes to subscribers asynchronously.
+ * Each subscriber names the executor it wants to be called on (e.g. Platform::runLater
+ * for controllers) and never receives two batches at the same time. Events that pile up
+ * while a subscriber is busy or not yet scheduled are coalesced per entry, so a burst of
+ * writes turns into one batch with at most one event per entry.
+ */
+public class EntryEventBus {
+    private static final Logger log = Log.get(EntryEventBus.class);
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Subscribes to entry changes
+     * @param deliverOn Executor the listener is called on
+     * @param listener Receives coalesced batches of events, oldest first
+     * @return Subscription; close it to stop receiving events
+     */
+    public Subscription subscribe(Executor deliverOn, Consumer<List<EntryEvent>> listener) {
+        Subscription subscription = new Subscription(deliverOn, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Hands events to every subscriber; called by the repository after the change committed
+     */
+    void publish(List<? extends EntryEvent> events) {
+        if (events.isEmpty()) return;
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(events);
+        }
+    }
+
+    /**
+     * Merges events for the same entry, keeping the order in which entries first appear:
+     * created+updated is created, created+deleted cancels out, updated+deleted is deleted
+     * (of the original values) and deleted+created (undo) becomes an update.
+     */
+    static List<EntryEvent> coalesce(List<EntryEvent> events) {
+        Map<Integer, EntryEvent> byEntry = new LinkedHashMap<>();
+        for (EntryEvent event : events) {
+            EntryEvent earlier = byEntry.get(event.entryId());
+            EntryEvent merged = earlier == null ? event : merge(earlier, event);
+            if (merged == null) {
+                byEntry.remove(event.entryId());
+            } else {
+                byEntry.put(event.entryId(), merged);
+            }
+        }
+        return new ArrayList<>(byEntry.values());
+    }
+
+    private static EntryEvent merge(EntryEvent earlier, EntryEvent later) {
+        return switch (earlier) {
+            case EntryCreated created -> switch (later) {
+                case EntryDeleted deleted -> null;
+                default -> new EntryCreated(later.entry());
+            };
+            case EntryUpdated updated -> switch (later) {
+                case EntryDeleted deleted -> new EntryDeleted(updated.previous());
+                default -> new EntryUpdated(updated.previous(), later.entry());
+            };
+            case EntryDeleted deleted -> switch (later) {
+                case EntryDeleted again -> deleted;
+                default -> new EntryUpdated(deleted.entry(), later.entry());
+            };
+        };
+    }
+
+    /**
+     * One subscriber's queue of undelivered events
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Executor deliverOn;
+        private final Consumer<List<EntryEvent>> listener;
+
+        // Guarded by this
+        private List<EntryEvent> pending = new ArrayList<>();
+        private boolean scheduled;
+        private volatile boolean closed;
+
+        private Subscription(Executor deliverOn, Consumer<List<EntryEvent>> listener) {
+            this.deliverOn = deliverOn;
+            this.listener = listener;
+        }
+
+        private void offer(List<? extends EntryEvent> events) {
+            synchronized (this) {
+                pending.addAll(events);
+                if (scheduled) return;
+                scheduled = true;
+            }
+            deliverOn.execute(this::deliver);
+        }
+
+        /**
+         * Delivers batches until nothing is pending; only one delivery runs at a time
+         */
+        private void deliver() {
+            while (true) {
+                List<EntryEvent> batch;
+                synchronized (this) {
+                    if (pending.isEmpty() || closed) {
+                        pending.clear();
+                        scheduled = false;
+                        return;
+                    }
+                    batch = coalesce(pending);
+                    pending = new ArrayList<>();
+                }
+                if (batch.isEmpty()) continue;
+                try {
+                    listener.accept(batch);
+                } catch (RuntimeException e) {
+                    log.error("Entry event subscriber failed", e);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
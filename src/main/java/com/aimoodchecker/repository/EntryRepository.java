@@ -1,25 +1,80 @@
 package com.aimoodchecker.repository;
 
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
 import com.aimoodchecker.model.MoodEntry;
+import com.aimoodchecker.analytics.DivergenceAnalysis;
+import com.aimoodchecker.analytics.EmbeddingIndex;
+import com.aimoodchecker.analytics.MoodAnalytics;
+import com.aimoodchecker.analytics.TermIndex;
 import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.metrics.Metrics;
+import com.aimoodchecker.metrics.QueryTimer;
+import com.aimoodchecker.repository.EntryEvent.EntryCreated;
+import com.aimoodchecker.repository.EntryEvent.EntryDeleted;
+import com.aimoodchecker.repository.EntryEvent.EntryUpdated;
 import com.aimoodchecker.service.ChatGPTService;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class EntryRepository {
+    private static final Logger log = Log.get(EntryRepository.class);
+    private static final int SEARCH_PAGE_SIZE = 50;
+    private static final int TRIGGER_TERM_LIMIT = 8;
+    // Entries rescored per write, so readers see progress and the writer queue keeps moving
+    private static final int RESCORE_BATCH = 1000;
+    // Same layout as SQLite's CURRENT_TIMESTAMP, which created_at used to be filled with
+    private static final DateTimeFormatter SQLITE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Cosine similarity below which a past entry isn't considered related
+    private static final float MIN_SIMILARITY = 0.15f;
+
     private static EntryRepository instance;
+
+    // Bumped after every committed write so views can tell whether their data is stale
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final EntryEventBus events = new EntryEventBus();
+
+    // Streaming analytics, fed from committed changes once loaded; guarded by itself
+    private final MoodAnalytics analytics = new MoodAnalytics();
+    private boolean analyticsLoaded;
+
+    // Inverted index over descriptions, appended to as entries are saved; guarded by itself
+    private final TermIndex termIndex = new TermIndex();
+    private boolean termIndexLoaded;
+
+    // Description embeddings for similarity search, kept in sync on every commit; guarded by itself
+    private final EmbeddingIndex embeddingIndex = new EmbeddingIndex();
+    private boolean embeddingsLoaded;
+
+    // Last divergence report and the data version it was computed for
+    private volatile DivergenceAnalysis.Report divergenceReport;
+    private volatile long divergenceVersion = -1;
+
+    // Only the keyword scorer is used here; scored before queueing so the writer thread never waits on it
+    private final ChatGPTService sentimentScorer = new ChatGPTService();
     
     private EntryRepository() {
-        // No ChatGPTService instantiation here to avoid circular dependency
+        Metrics.getInstance().gauge("repository.dataVersion", dataVersion::get);
     }
     
-    public static EntryRepository getInstance() {
+    /**
+     * Thread-safe: reads run in parallel on pooled read connections and every write is
+     * queued to the single database writer (see DBConnection)
+     */
+    public static synchronized EntryRepository getInstance() {
         if (instance == null) {
             instance = new EntryRepository();
         }
@@ -30,23 +85,112 @@ public class EntryRepository {
     
     /**
      * Save a new mood entry to the database
+     * @return The entry as stored, with its ID and timestamps
      */
-    public void saveMoodEntry(String moodType, String description) throws SQLException {
-        String sql = "INSERT INTO mood_entries (date, mood_type, description, sentiment_score) VALUES (?, ?, ?, ?)";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, LocalDate.now().toString());
-            pstmt.setString(2, moodType);
-            pstmt.setString(3, description);
-            pstmt.setDouble(4, new ChatGPTService().getSentimentScore(description));
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("Failed to insert mood entry");
+    public MoodEntry saveMoodEntry(String moodType, String description) throws SQLException {
+        return Metrics.query("repository.saveMoodEntry", timer -> saveMoodEntry(timer, moodType, description));
+    }
+
+    private MoodEntry saveMoodEntry(QueryTimer timer, String moodType, String description) throws SQLException {
+        timer.rows(1);
+        String sql = """
+            INSERT INTO mood_entries (date, mood_type, description, sentiment_score, created_at, created_epoch, utc_offset, time_zone)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        // One clock reading for the local date, the UTC timestamp and the writer's zone
+        ZonedDateTime now = ZonedDateTime.now();
+        String date = now.toLocalDate().toString();
+        String createdAt = now.withZoneSameInstant(ZoneOffset.UTC).format(SQLITE_TIMESTAMP);
+        double sentiment = sentimentScorer.getSentimentScore(description);
+
+        List<EntryEvent> created = DBConnection.getWriter().write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, date);
+                pstmt.setString(2, moodType);
+                pstmt.setString(3, description);
+                pstmt.setDouble(4, sentiment);
+                pstmt.setString(5, createdAt);
+                pstmt.setLong(6, now.toEpochSecond());
+                pstmt.setInt(7, now.getOffset().getTotalSeconds());
+                pstmt.setString(8, now.getZone().getId());
+
+                int rowsAffected = pstmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new SQLException("Failed to insert mood entry");
+                }
             }
+            // Read the row back for the event so subscribers get the id and created_at
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT * FROM mood_entries WHERE id = last_insert_rowid()")) {
+                rs.next();
+                return List.<EntryEvent>of(new EntryCreated(createMoodEntryFromResultSet(rs)));
+            }
+        }, this::committed);
+        return ((EntryCreated) created.get(0)).entry();
+    }
+    
+    /**
+     * Insert entries written elsewhere (e.g. an export) as new entries with their own dates
+     * and timestamps, as one write; IDs are assigned as for new entries. Missing AI scores are
+     * computed, and a missing created_at becomes the current time.
+     * @return The number of entries inserted
+     */
+    public int importMoodEntries(List<MoodEntry> entries) throws SQLException {
+        return Metrics.query("repository.importMoodEntries", timer -> importMoodEntries(timer, entries));
+    }
+
+    private int importMoodEntries(QueryTimer timer, List<MoodEntry> entries) throws SQLException {
+        timer.rows(entries.size());
+        if (entries.isEmpty()) return 0;
+        String sql = """
+            INSERT INTO mood_entries (date, mood_type, description, sentiment_score, created_at, created_epoch, utc_offset, time_zone)
+            VALUES (?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP), ?, ?, ?)
+            """;
+        // Scored before queueing, as in saveMoodEntry
+        double[] sentiments = new double[entries.size()];
+        for (int i = 0; i < sentiments.length; i++) {
+            MoodEntry entry = entries.get(i);
+            sentiments[i] = entry.getSentimentScore() != null ? entry.getSentimentScore()
+                : sentimentScorer.getSentimentScore(entry.getDescription() != null ? entry.getDescription() : "");
         }
+
+        DBConnection.getWriter().write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < sentiments.length; i++) {
+                    MoodEntry entry = entries.get(i);
+                    pstmt.setString(1, entry.getDate().toString());
+                    pstmt.setString(2, entry.getMoodType());
+                    pstmt.setString(3, entry.getDescription());
+                    pstmt.setDouble(4, sentiments[i]);
+                    pstmt.setString(5, entry.getCreatedAt());
+                    if (entry.getCreatedEpoch() != null) {
+                        pstmt.setLong(6, entry.getCreatedEpoch());
+                    } else {
+                        pstmt.setNull(6, Types.INTEGER);
+                    }
+                    if (entry.getUtcOffset() != null) {
+                        pstmt.setInt(7, entry.getUtcOffset());
+                    } else {
+                        pstmt.setNull(7, Types.INTEGER);
+                    }
+                    pstmt.setString(8, entry.getTimeZone());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            // Only this connection writes, so the batch got consecutive IDs ending at the last one
+            List<Integer> ids = new ArrayList<>(entries.size());
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                long first = rs.getLong(1) - entries.size() + 1;
+                for (int i = 0; i < entries.size(); i++) {
+                    ids.add((int) (first + i));
+                }
+            }
+            return readEntries(conn, ids).stream().<EntryEvent>map(EntryCreated::new).toList();
+        }, this::committed);
+        return entries.size();
     }
     
     // ===== READ OPERATIONS =====
@@ -55,6 +199,10 @@ public class EntryRepository {
      * Get all mood entries ordered by date (newest first)
      */
     public List<MoodEntry> getAllMoodEntries() throws SQLException {
+        return Metrics.query("repository.getAllMoodEntries", this::getAllMoodEntries);
+    }
+
+    private List<MoodEntry> getAllMoodEntries(QueryTimer timer) throws SQLException {
         List<MoodEntry> entries = new ArrayList<>();
         String sql = "SELECT * FROM mood_entries ORDER BY date DESC, created_at DESC";
         
@@ -66,6 +214,7 @@ public class EntryRepository {
                 entries.add(createMoodEntryFromResultSet(rs));
             }
         }
+        timer.rows(entries.size());
         return entries;
     }
     
@@ -73,6 +222,10 @@ public class EntryRepository {
      * Get mood entries for a specific date range
      */
     public List<MoodEntry> getMoodEntriesForDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return Metrics.query("repository.getMoodEntriesForDateRange", timer -> getMoodEntriesForDateRange(timer, startDate, endDate));
+    }
+
+    private List<MoodEntry> getMoodEntriesForDateRange(QueryTimer timer, LocalDate startDate, LocalDate endDate) throws SQLException {
         List<MoodEntry> entries = new ArrayList<>();
         String sql = "SELECT * FROM mood_entries WHERE date BETWEEN ? AND ? ORDER BY date DESC, created_at DESC";
         
@@ -88,6 +241,7 @@ public class EntryRepository {
                 }
             }
         }
+        timer.rows(entries.size());
         return entries;
     }
     
@@ -95,35 +249,129 @@ public class EntryRepository {
      * Get mood entries for the last N days
      */
     public List<MoodEntry> getMoodEntriesForLastDays(int days) throws SQLException {
+        return Metrics.query("repository.getMoodEntriesForLastDays", timer -> getMoodEntriesForLastDays(timer, days));
+    }
+
+    private List<MoodEntry> getMoodEntriesForLastDays(QueryTimer timer, int days) throws SQLException {
         LocalDate endDate = LocalDate.now();
         LocalDate startDate = endDate.minusDays(days - 1);
         
-        System.out.println("=== Database Query Debug ===");
-        System.out.println("Querying for entries from " + startDate + " to " + endDate);
-        System.out.println("Start date epoch: " + startDate.toEpochDay());
-        System.out.println("End date epoch: " + endDate.toEpochDay());
+        List<MoodEntry> entries = getMoodEntriesForDateRange(timer, startDate, endDate);
         
-        List<MoodEntry> entries = getMoodEntriesForDateRange(startDate, endDate);
-        
-        System.out.println("Database returned " + entries.size() + " entries");
-        if (!entries.isEmpty()) {
-            System.out.println("Sample entries:");
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded {} entries from {} to {}", entries.size(), startDate, endDate);
+        }
+        if (log.isTraceEnabled()) {
             for (int i = 0; i < Math.min(3, entries.size()); i++) {
                 MoodEntry entry = entries.get(i);
-                System.out.println("  Entry " + i + ": Date=" + entry.getDate() + 
-                                 " | Mood=" + entry.getMoodType() + 
-                                 " | AI Score=" + entry.getSentimentScore());
+                log.trace("  Entry {}: date={} mood={} AI score={}",
+                          i, entry.getDate(), entry.getMoodType(), entry.getSentimentScore());
             }
         }
-        System.out.println("=== End Database Query Debug ===");
         
+        timer.rows(entries.size());
         return entries;
     }
     
+    /**
+     * Get the date, mood and AI score of each entry in a date range, in no particular order
+     * (callers only aggregate). Descriptions and the other columns are never read; dates come
+     * back as epoch days and the usual moods as small codes, so no Strings are created per row
+     * and entries of the same day share one LocalDate. Missing AI scores are 0.
+     * @param startDate First day, or null together with endDate for the whole history
+     */
+    public List<MoodScoreRow> getMoodScoreRows(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return Metrics.query("repository.getMoodScoreRows", timer -> getMoodScoreRows(timer, startDate, endDate));
+    }
+
+    private List<MoodScoreRow> getMoodScoreRows(QueryTimer timer, LocalDate startDate, LocalDate endDate) throws SQLException {
+        List<MoodScoreRow> rows = new ArrayList<>();
+        // 2440587.5 is the Julian day of 1970-01-01; other moods come back as their text
+        String sql = """
+            SELECT CAST(julianday(date) - 2440587.5 AS INTEGER),
+                   CASE mood_type WHEN 'Happy' THEN 1 WHEN 'Neutral' THEN 2 WHEN 'Sad' THEN 3 ELSE mood_type END,
+                   sentiment_score
+            FROM mood_entries
+            """ + (startDate == null ? "" : "WHERE date BETWEEN ? AND ?");
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            if (startDate != null) {
+                pstmt.setString(1, startDate.toString());
+                pstmt.setString(2, endDate.toString());
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                LocalDate date = null;
+                long lastDay = Long.MIN_VALUE;
+                while (rs.next()) {
+                    long day = rs.getLong(1);
+                    if (rs.wasNull()) {
+                        // Unparseable date, as createMoodEntryFromResultSet leaves it
+                        date = null;
+                        lastDay = Long.MIN_VALUE;
+                    } else if (day != lastDay) {
+                        date = LocalDate.ofEpochDay(day);
+                        lastDay = day;
+                    }
+                    // Small Integers are cached, so the usual moods don't allocate
+                    Object mood = rs.getObject(2);
+                    String moodType = mood instanceof Integer code ? MOOD_CODES[code] : String.valueOf(mood);
+                    rows.add(new MoodScoreRow(date, moodType, rs.getDouble(3)));
+                }
+            }
+        }
+        timer.rows(rows.size());
+        return rows;
+    }
+
+    /**
+     * Pass every entry to an action, oldest first, one row at a time, so the whole history
+     * is never held in memory (used by the command line export)
+     */
+    public void forEachMoodEntry(Consumer<MoodEntry> action) throws SQLException {
+        Metrics.update("repository.forEachMoodEntry", timer -> forEachMoodEntry(timer, action));
+    }
+
+    private void forEachMoodEntry(QueryTimer timer, Consumer<MoodEntry> action) throws SQLException {
+        int count = 0;
+        String sql = "SELECT * FROM mood_entries ORDER BY id";
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                action.accept(createMoodEntryFromResultSet(rs));
+                count++;
+            }
+        }
+        timer.rows(count);
+    }
+
+    /**
+     * Gets a counter that changes whenever entries are written, updated or deleted
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * Get the bus that publishes EntryCreated/EntryUpdated/EntryDeleted after each committed write
+     */
+    public EntryEventBus getEvents() {
+        return events;
+    }
+
     /**
      * Get a single mood entry by ID
      */
     public Optional<MoodEntry> getMoodEntryById(int id) throws SQLException {
+        return Metrics.query("repository.getMoodEntryById", timer -> getMoodEntryById(timer, id));
+    }
+
+    private Optional<MoodEntry> getMoodEntryById(QueryTimer timer, int id) throws SQLException {
         String sql = "SELECT * FROM mood_entries WHERE id = ?";
         
         try (Connection conn = DBConnection.getConnection();
@@ -133,155 +381,543 @@ public class EntryRepository {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
+                    timer.rows(1);
                     return Optional.of(createMoodEntryFromResultSet(rs));
                 }
             }
         }
         return Optional.empty();
     }
-    
+
+    // ===== SEARCH OPERATIONS =====
+
+    /**
+     * Full-text search over entry descriptions, best matches first (BM25)
+     * @param query Free text typed by the user; every word is matched as a prefix
+     * @param filters Optional mood/date restrictions, use SearchFilters.none() for all entries
+     * @param page Zero-based page index
+     * @return One page of ranked hits with highlighted snippets
+     */
+    public SearchPage search(String query, SearchFilters filters, int page) throws SQLException {
+        return Metrics.query("repository.search", timer -> search(timer, query, filters, page));
+    }
+
+    private SearchPage search(QueryTimer timer, String query, SearchFilters filters, int page) throws SQLException {
+        String ftsQuery = toFtsQuery(query);
+        if (ftsQuery.isEmpty()) {
+            return new SearchPage(List.of(), page, SEARCH_PAGE_SIZE, false);
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT e.*, bm25(mood_entries_fts) AS rank,
+                   snippet(mood_entries_fts, 0, '[', ']', '…', 12) AS snippet
+            FROM mood_entries_fts
+            JOIN mood_entries e ON e.id = mood_entries_fts.rowid
+            WHERE mood_entries_fts MATCH ?
+            """);
+        List<String> params = new ArrayList<>();
+        params.add(ftsQuery);
+
+        if (filters.moodType() != null) {
+            sql.append(" AND e.mood_type = ?");
+            params.add(filters.moodType());
+        }
+        if (filters.from() != null) {
+            sql.append(" AND e.date >= ?");
+            params.add(filters.from().toString());
+        }
+        if (filters.to() != null) {
+            sql.append(" AND e.date <= ?");
+            params.add(filters.to().toString());
+        }
+        // Fetch one extra row to know whether another page exists
+        sql.append(" ORDER BY rank LIMIT ").append(SEARCH_PAGE_SIZE + 1)
+           .append(" OFFSET ").append((long) Math.max(page, 0) * SEARCH_PAGE_SIZE);
+
+        List<SearchHit> hits = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setString(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new SearchHit(createMoodEntryFromResultSet(rs), rs.getDouble("rank"), rs.getString("snippet")));
+                }
+            }
+        }
+
+        boolean hasMore = hits.size() > SEARCH_PAGE_SIZE;
+        if (hasMore) {
+            hits.remove(hits.size() - 1);
+        }
+        timer.rows(hits.size());
+        return new SearchPage(hits, page, SEARCH_PAGE_SIZE, hasMore);
+    }
+
+    /**
+     * Turns user input into a safe FTS5 query: each word becomes a quoted prefix term,
+     * so punctuation and FTS operators typed by the user cannot break the MATCH syntax
+     */
+    private static String toFtsQuery(String query) {
+        if (query == null) return "";
+
+        StringBuilder fts = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (fts.length() > 0) fts.append(' ');
+            fts.append('"').append(word).append("\"*");
+        }
+        return fts.toString();
+    }
+
     // ===== UPDATE OPERATIONS =====
     
     /**
      * Update an existing mood entry
      */
     public void updateMoodEntry(int id, String moodType, String description) throws SQLException {
+        Metrics.update("repository.updateMoodEntry", timer -> updateMoodEntry(timer, id, moodType, description));
+    }
+
+    private void updateMoodEntry(QueryTimer timer, int id, String moodType, String description) throws SQLException {
+        timer.rows(1);
         String sql = "UPDATE mood_entries SET mood_type = ?, description = ?, sentiment_score = ? WHERE id = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, moodType);
-            pstmt.setString(2, description);
-            pstmt.setDouble(3, new ChatGPTService().getSentimentScore(description));
-            pstmt.setInt(4, id);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected == 0) {
+        double sentiment = sentimentScorer.getSentimentScore(description);
+
+        DBConnection.getWriter().write(conn -> {
+            List<MoodEntry> previous = readEntries(conn, List.of(id));
+            if (previous.isEmpty()) {
                 throw new SQLException("No mood entry found with ID: " + id);
             }
-        }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, moodType);
+                pstmt.setString(2, description);
+                pstmt.setDouble(3, sentiment);
+                pstmt.setInt(4, id);
+                pstmt.executeUpdate();
+            }
+            return List.<EntryEvent>of(new EntryUpdated(previous.get(0), readEntries(conn, List.of(id)).get(0)));
+        }, this::committed);
     }
     
+    /**
+     * Recompute the AI sentiment score of entries with the current scorer, in writes of
+     * RESCORE_BATCH entries; entries whose score doesn't change are left alone
+     * @param all Rescore every entry instead of only those without a score
+     * @return The number of entries whose score changed
+     */
+    public int rescoreMoodEntries(boolean all) throws SQLException {
+        return Metrics.query("repository.rescoreMoodEntries", timer -> rescoreMoodEntries(timer, all));
+    }
+
+    private int rescoreMoodEntries(QueryTimer timer, boolean all) throws SQLException {
+        String sql = "SELECT id, description, sentiment_score FROM mood_entries"
+            + (all ? "" : " WHERE sentiment_score IS NULL") + " ORDER BY id";
+        List<Integer> ids = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                String description = rs.getString(2);
+                double score = sentimentScorer.getSentimentScore(description != null ? description : "");
+                double current = rs.getDouble(3);
+                if (rs.wasNull() || current != score) {
+                    ids.add(rs.getInt(1));
+                    scores.add(score);
+                }
+            }
+        }
+
+        for (int from = 0; from < ids.size(); from += RESCORE_BATCH) {
+            int to = Math.min(from + RESCORE_BATCH, ids.size());
+            updateSentimentScores(ids.subList(from, to), scores.subList(from, to));
+        }
+        timer.rows(ids.size());
+        return ids.size();
+    }
+
+    private void updateSentimentScores(List<Integer> ids, List<Double> scores) throws SQLException {
+        String sql = "UPDATE mood_entries SET sentiment_score = ? WHERE id = ?";
+
+        DBConnection.getWriter().write(conn -> {
+            List<MoodEntry> previous = readEntries(conn, ids);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    pstmt.setDouble(1, scores.get(i));
+                    pstmt.setInt(2, ids.get(i));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            List<MoodEntry> updated = readEntries(conn, ids);
+            List<EntryEvent> changes = new ArrayList<>(updated.size());
+            for (int i = 0; i < updated.size(); i++) {
+                changes.add(new EntryUpdated(previous.get(i), updated.get(i)));
+            }
+            return changes;
+        }, this::committed);
+    }
+
     // ===== DELETE OPERATIONS =====
     
     /**
      * Delete a mood entry by ID
      */
     public void deleteMoodEntry(int id) throws SQLException {
+        Metrics.update("repository.deleteMoodEntry", timer -> deleteMoodEntries(timer, List.of(id)));
+    }
+
+    /**
+     * Delete several mood entries as one write; either all are deleted or none
+     */
+    public void deleteMoodEntries(List<Integer> ids) throws SQLException {
+        Metrics.update("repository.deleteMoodEntries", timer -> deleteMoodEntries(timer, ids));
+    }
+
+    private void deleteMoodEntries(QueryTimer timer, List<Integer> ids) throws SQLException {
+        timer.rows(ids.size());
         String sql = "DELETE FROM mood_entries WHERE id = ?";
-        
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, id);
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("No mood entry found with ID: " + id);
+
+        DBConnection.getWriter().write(conn -> {
+            // Keep the rows for the events before they are gone
+            List<MoodEntry> rows = readEntries(conn, ids);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int id : ids) {
+                    pstmt.setInt(1, id);
+                    pstmt.addBatch();
+                }
+                int[] results = pstmt.executeBatch();
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] == 0) {
+                        // The writer rolls the whole batch back to its savepoint
+                        throw new SQLException("No mood entry found with ID: " + ids.get(i));
+                    }
+                }
+            }
+            return rows.stream().<EntryEvent>map(EntryDeleted::new).toList();
+        }, this::committed);
+    }
+
+    /**
+     * Re-insert previously deleted entries with their original IDs and timestamps (used for undo)
+     */
+    public void restoreMoodEntries(List<MoodEntry> entries) throws SQLException {
+        Metrics.update("repository.restoreMoodEntries", timer -> restoreMoodEntries(timer, entries));
+    }
+
+    private void restoreMoodEntries(QueryTimer timer, List<MoodEntry> entries) throws SQLException {
+        timer.rows(entries.size());
+        String sql = """
+            INSERT INTO mood_entries (id, date, mood_type, description, sentiment_score, created_at, created_epoch, utc_offset, time_zone)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        DBConnection.getWriter().write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (MoodEntry entry : entries) {
+                    pstmt.setInt(1, entry.getId());
+                    pstmt.setString(2, entry.getDate() != null ? entry.getDate().toString() : null);
+                    pstmt.setString(3, entry.getMoodType());
+                    pstmt.setString(4, entry.getDescription());
+                    if (entry.getSentimentScore() != null) {
+                        pstmt.setDouble(5, entry.getSentimentScore());
+                    } else {
+                        pstmt.setNull(5, Types.REAL);
+                    }
+                    pstmt.setString(6, entry.getCreatedAt());
+                    if (entry.getCreatedEpoch() != null) {
+                        pstmt.setLong(7, entry.getCreatedEpoch());
+                    } else {
+                        pstmt.setNull(7, Types.INTEGER);
+                    }
+                    if (entry.getUtcOffset() != null) {
+                        pstmt.setInt(8, entry.getUtcOffset());
+                    } else {
+                        pstmt.setNull(8, Types.INTEGER);
+                    }
+                    pstmt.setString(9, entry.getTimeZone());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                return entries.stream().<EntryEvent>map(EntryCreated::new).toList();
+            }
+        }, this::committed);
+    }
+
+    /**
+     * Reads entries by ID on the given connection (used inside writes, before or after the change)
+     */
+    private List<MoodEntry> readEntries(Connection conn, List<Integer> ids) throws SQLException {
+        List<MoodEntry> entries = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM mood_entries WHERE id = ?")) {
+            for (int id : ids) {
+                pstmt.setInt(1, id);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        entries.add(createMoodEntryFromResultSet(rs));
+                    }
+                }
             }
         }
+        return entries;
     }
-    
+
+    /**
+     * Marks cached data stale, updates the streaming analytics and tells subscribers what
+     * changed. Runs on the writer thread right after the commit, so changes arrive in commit order.
+     */
+    private void committed(List<EntryEvent> changes) {
+        dataVersion.incrementAndGet();
+        synchronized (analytics) {
+            if (analyticsLoaded) {
+                for (EntryEvent change : changes) {
+                    switch (change) {
+                        case EntryCreated created -> addToAnalytics(created.entry());
+                        case EntryUpdated updated -> {
+                            removeFromAnalytics(updated.previous());
+                            addToAnalytics(updated.entry());
+                        }
+                        case EntryDeleted deleted -> removeFromAnalytics(deleted.entry());
+                    }
+                }
+            }
+        }
+        synchronized (embeddingIndex) {
+            if (embeddingsLoaded) {
+                for (EntryEvent change : changes) {
+                    switch (change) {
+                        case EntryCreated created -> embed(created.entry());
+                        case EntryUpdated updated -> embed(updated.entry());
+                        case EntryDeleted deleted -> embeddingIndex.remove(deleted.entryId());
+                    }
+                }
+            }
+        }
+        synchronized (termIndex) {
+            if (termIndexLoaded) {
+                for (EntryEvent change : changes) {
+                    if (change instanceof EntryCreated created) {
+                        MoodEntry entry = created.entry();
+                        termIndex.add(entry.getId(), entry.getMoodType(), entry.getDescription());
+                    } else {
+                        termIndex.invalidate();
+                    }
+                }
+            }
+        }
+        events.publish(changes);
+    }
+
     // ===== TREND ANALYSIS =====
     
     /**
      * Get daily averages for mood and AI sentiment over a specified period
      */
     public List<TrendPoint> findDailyAverages(int days) throws SQLException {
+        return Metrics.query("repository.findDailyAverages", timer -> findDailyAverages(timer, days));
+    }
+
+    private List<TrendPoint> findDailyAverages(QueryTimer timer, int days) throws SQLException {
         List<TrendPoint> trendPoints = new ArrayList<>();
+        LocalDate endDate = LocalDate.now();
         
-        // Get entries for the last N days
-        List<MoodEntry> entries = getMoodEntriesForLastDays(days);
+        // Only the three columns the averages need
+        List<MoodScoreRow> rows = getMoodScoreRows(timer, endDate.minusDays(days - 1), endDate);
         
-        if (entries.isEmpty()) {
-            System.out.println("No entries found for trend analysis");
+        if (rows.isEmpty()) {
+            log.debug("No entries found for trend analysis");
             return trendPoints;
         }
         
-        System.out.println("=== Trend Analysis Debug ===");
-        System.out.println("Total entries found: " + entries.size());
-        System.out.println("Requested days: " + days);
-        
-        // Group entries by date using a Map
-        Map<LocalDate, List<MoodEntry>> entriesByDate = entries.stream()
-            .collect(Collectors.groupingBy(MoodEntry::getDate));
-        
-        System.out.println("Unique dates with entries: " + entriesByDate.size());
-        
-        // Calculate averages for each date that has entries
-        for (Map.Entry<LocalDate, List<MoodEntry>> entry : entriesByDate.entrySet()) {
-            LocalDate date = entry.getKey();
-            List<MoodEntry> dayEntries = entry.getValue();
-            
-            System.out.println("Date: " + date + " - Entries: " + dayEntries.size());
-            
-            if (!dayEntries.isEmpty()) {
-                // Calculate average mood score for this date
-                double avgMood = dayEntries.stream()
-                    .mapToDouble(moodEntry -> moodTypeToScore(moodEntry.getMoodType()))
-                    .average()
-                    .orElse(0.0);
-                
-                // Calculate average AI sentiment score for this date
-                double avgAi = dayEntries.stream()
-                    .mapToDouble(moodEntry -> moodEntry.getSentimentScore() != null ? moodEntry.getSentimentScore() : 0.0)
-                    .average()
-                    .orElse(0.0);
-                
-                System.out.println("  → Avg Mood: " + avgMood + " (raw: " + avgMood + ")");
-                System.out.println("  → Avg AI: " + avgAi);
-                
-                trendPoints.add(new TrendPoint(date, avgMood, avgAi));
-            }
+        // Sums of mood score, AI score and the entry count for each date that has entries
+        Map<LocalDate, double[]> sumsByDate = new HashMap<>();
+        for (MoodScoreRow row : rows) {
+            if (row.date() == null) continue;
+            double[] sums = sumsByDate.computeIfAbsent(row.date(), d -> new double[3]);
+            sums[0] += moodTypeToScore(row.moodType());
+            sums[1] += row.sentimentScore();
+            sums[2]++;
         }
+        sumsByDate.forEach((date, sums) ->
+            trendPoints.add(new TrendPoint(date, sums[0] / sums[2], sums[1] / sums[2])));
         
         // Sort by date (oldest first for chart)
         trendPoints.sort((a, b) -> a.date().compareTo(b.date()));
         
-        System.out.println("Trend points created: " + trendPoints.size());
-        
-        // Additional debugging: show the actual trend points
-        if (!trendPoints.isEmpty()) {
-            System.out.println("=== Trend Points Details ===");
-            for (int i = 0; i < trendPoints.size(); i++) {
-                TrendPoint point = trendPoints.get(i);
-                System.out.println("Point " + i + ": Date=" + point.date() + 
-                                 " | Mood=" + point.avgMood() + 
-                                 " | AI=" + point.avgAi() + 
-                                 " | Epoch=" + point.date().toEpochDay());
-            }
-            System.out.println("=== End Trend Points Details ===");
+        if (log.isDebugEnabled()) {
+            log.debug("{} trend points from {} entries over {} days", trendPoints.size(), rows.size(), days);
+        }
+        // Per-point dump, only built when tracing
+        if (log.isTraceEnabled()) {
+            for (TrendPoint point : trendPoints) {
+                log.trace("  {}: mood={} AI={}", point.date(), point.avgMood(), point.avgAi());
+            }
         }
         
-        System.out.println("=== End Trend Analysis ===");
-        
+        timer.rows(trendPoints.size());
         return trendPoints;
     }
     
+    /**
+     * Get one average mood and one average AI sentiment value per calendar day.
+     * Aggregation happens in SQLite, so only one row per day reaches Java.
+     * Days without entries are NaN, and so is the sentiment of days without AI scores.
+     */
+    public DailySeries getDailySeries(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return Metrics.query("repository.getDailySeries", timer -> getDailySeries(timer, startDate, endDate));
+    }
+
+    private DailySeries getDailySeries(QueryTimer timer, LocalDate startDate, LocalDate endDate) throws SQLException {
+        int dayCount = (int) (endDate.toEpochDay() - startDate.toEpochDay() + 1);
+        float[] mood = new float[Math.max(dayCount, 0)];
+        float[] sentiment = new float[mood.length];
+        Arrays.fill(mood, Float.NaN);
+        Arrays.fill(sentiment, Float.NaN);
+
+        String sql = """
+            SELECT date,
+                   AVG(CASE mood_type WHEN 'Happy' THEN 5.0 WHEN 'Sad' THEN 1.0 ELSE 3.0 END),
+                   AVG(sentiment_score)
+            FROM mood_entries
+            WHERE date BETWEEN ? AND ?
+            GROUP BY date
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, startDate.toString());
+            pstmt.setString(2, endDate.toString());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                long startEpoch = startDate.toEpochDay();
+                while (rs.next()) {
+                    try {
+                        int index = (int) (LocalDate.parse(rs.getString(1)).toEpochDay() - startEpoch);
+                        mood[index] = (float) rs.getDouble(2);
+                        // AVG skips missing AI scores; a day with none stays NaN
+                        double score = rs.getDouble(3);
+                        if (!rs.wasNull()) sentiment[index] = (float) score;
+                    } catch (Exception e) {
+                        log.warn("Skipping unparseable date: {}", rs.getString(1));
+                    }
+                }
+            }
+        }
+        return new DailySeries(startDate, mood, sentiment);
+    }
+
+    /**
+     * Get average mood and AI sentiment per weekday and hour, in each writer's local time.
+     * Aggregated by SQLite in one query, so at most 168 rows reach Java.
+     * @param since Only entries created on or after this day, or null for the whole history
+     */
+    public TimeOfDayGrid getTimeOfDayGrid(LocalDate since) throws SQLException {
+        return Metrics.query("repository.getTimeOfDayGrid", timer -> getTimeOfDayGrid(timer, since));
+    }
+
+    private TimeOfDayGrid getTimeOfDayGrid(QueryTimer timer, LocalDate since) throws SQLException {
+        // %w counts from Sunday; shifted so Monday is 0, as in the calendar
+        String sql = """
+            SELECT (CAST(strftime('%w', created_epoch + COALESCE(utc_offset, 0), 'unixepoch') AS INTEGER) + 6) % 7 AS weekday,
+                   CAST(strftime('%H', created_epoch + COALESCE(utc_offset, 0), 'unixepoch') AS INTEGER) AS hour,
+                   COUNT(*),
+                   AVG(CASE mood_type WHEN 'Happy' THEN 5.0 WHEN 'Sad' THEN 1.0 ELSE 3.0 END),
+                   AVG(sentiment_score)
+            FROM mood_entries
+            WHERE created_epoch >= ?
+            GROUP BY weekday, hour
+            """;
+
+        int[] counts = new int[TimeOfDayGrid.CELLS];
+        float[] mood = new float[TimeOfDayGrid.CELLS];
+        float[] sentiment = new float[TimeOfDayGrid.CELLS];
+        Arrays.fill(mood, Float.NaN);
+        Arrays.fill(sentiment, Float.NaN);
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            // The epoch index narrows the scan when only recent entries are wanted
+            pstmt.setLong(1, since == null ? Long.MIN_VALUE : since.atStartOfDay(ZoneId.systemDefault()).toEpochSecond());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int cell = TimeOfDayGrid.index(rs.getInt(1), rs.getInt(2));
+                    counts[cell] = rs.getInt(3);
+                    mood[cell] = (float) rs.getDouble(4);
+                    // AVG skips missing AI scores; a cell with none stays NaN
+                    double score = rs.getDouble(5);
+                    if (!rs.wasNull()) sentiment[cell] = (float) score;
+                }
+            }
+        }
+        return new TimeOfDayGrid(counts, mood, sentiment);
+    }
+
+    /**
+     * Get the date of the oldest entry, if any
+     */
+    public Optional<LocalDate> getFirstEntryDate() throws SQLException {
+        return Metrics.query("repository.getFirstEntryDate", this::getFirstEntryDate);
+    }
+
+    private Optional<LocalDate> getFirstEntryDate(QueryTimer timer) throws SQLException {
+        String sql = "SELECT MIN(date) FROM mood_entries";
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next() && rs.getString(1) != null) {
+                return Optional.of(LocalDate.parse(rs.getString(1)));
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get mood statistics for the last N days
      */
     public MoodStatistics getMoodStatistics(int days) throws SQLException {
-        List<MoodEntry> entries = getMoodEntriesForLastDays(days);
-        
-        if (entries.isEmpty()) {
+        return Metrics.query("repository.getMoodStatistics", timer -> getMoodStatistics(timer, days));
+    }
+
+    private MoodStatistics getMoodStatistics(QueryTimer timer, int days) throws SQLException {
+        LocalDate endDate = LocalDate.now();
+        return summarize(getMoodScoreRows(timer, endDate.minusDays(days - 1), endDate));
+    }
+
+    /**
+     * Counts the moods and averages the scores of a set of rows
+     */
+    private MoodStatistics summarize(List<MoodScoreRow> rows) {
+        if (rows.isEmpty()) {
             return new MoodStatistics(0, 0, 0, 0.0, 0.0);
         }
         
-        long happyCount = entries.stream().filter(e -> "Happy".equals(e.getMoodType())).count();
-        long neutralCount = entries.stream().filter(e -> "Neutral".equals(e.getMoodType())).count();
-        long sadCount = entries.stream().filter(e -> "Sad".equals(e.getMoodType())).count();
-        
-        double avgMoodScore = entries.stream()
-            .mapToDouble(e -> moodTypeToScore(e.getMoodType()))
-            .average()
-            .orElse(0.0);
-        
-        double avgSentimentScore = entries.stream()
-            .mapToDouble(e -> e.getSentimentScore() != null ? e.getSentimentScore() : 0.0)
-            .average()
-            .orElse(0.0);
+        long happyCount = 0;
+        long neutralCount = 0;
+        long sadCount = 0;
+        double moodSum = 0;
+        double sentimentSum = 0;
+        for (MoodScoreRow row : rows) {
+            switch (row.moodType()) {
+                case "Happy" -> happyCount++;
+                case "Neutral" -> neutralCount++;
+                case "Sad" -> sadCount++;
+                default -> { }
+            }
+            moodSum += moodTypeToScore(row.moodType());
+            sentimentSum += row.sentimentScore();
+        }
+        double avgMoodScore = moodSum / rows.size();
+        double avgSentimentScore = sentimentSum / rows.size();
         
         return new MoodStatistics(happyCount, neutralCount, sadCount, avgMoodScore, avgSentimentScore);
     }
@@ -291,47 +927,263 @@ public class EntryRepository {
      * @return MoodPatterns object containing insights about user's mood patterns
      */
     public MoodPatterns getMoodPatterns() throws SQLException {
-        List<MoodEntry> allEntries = getAllMoodEntries();
+        return getMoodPatterns((String) null);
+    }
+
+    /**
+     * Get mood patterns for coaching a specific entry: the happy and sad moments are the
+     * past entries most similar to the current description instead of the latest ones
+     * @param currentDescription The description being coached, or null for the latest moments
+     */
+    public MoodPatterns getMoodPatterns(String currentDescription) throws SQLException {
+        return Metrics.query("repository.getMoodPatterns", timer -> getMoodPatterns(timer, currentDescription, null));
+    }
+
+    /**
+     * Get mood patterns for coaching an entry that has just been saved; the entry itself
+     * is left out of the moments, as it would match its own description almost exactly
+     * @param current The saved entry, as returned by saveMoodEntry
+     */
+    public MoodPatterns getMoodPatterns(MoodEntry current) throws SQLException {
+        return Metrics.query("repository.getMoodPatterns",
+            timer -> getMoodPatterns(timer, current.getDescription(), current.getId()));
+    }
+
+    private MoodPatterns getMoodPatterns(QueryTimer timer, String currentDescription, Integer excludedId) throws SQLException {
+        // The counts only need the score columns; descriptions are read for the moments alone
+        List<MoodScoreRow> rows = getMoodScoreRows(timer, null, null);
         
-        if (allEntries.isEmpty()) {
-            return new MoodPatterns(0, 0, 0, 0.0, 0.0, "No data available", List.of(), List.of());
+        if (rows.isEmpty()) {
+            return new MoodPatterns(0, 0, 0, 0.0, 0.0, "No data available", List.of(), List.of(), List.of(), List.of());
         }
-        
-        // Basic counts
-        long happyCount = allEntries.stream().filter(e -> "Happy".equals(e.getMoodType())).count();
-        long neutralCount = allEntries.stream().filter(e -> "Neutral".equals(e.getMoodType())).count();
-        long sadCount = allEntries.stream().filter(e -> "Sad".equals(e.getMoodType())).count();
-        
-        // Calculate averages
-        double avgMoodScore = allEntries.stream()
-            .mapToDouble(e -> moodTypeToScore(e.getMoodType()))
-            .average()
-            .orElse(0.0);
-        
-        double avgSentimentScore = allEntries.stream()
-            .mapToDouble(e -> e.getSentimentScore() != null ? e.getSentimentScore() : 0.0)
-            .average()
-            .orElse(0.0);
+        MoodStatistics totals = summarize(rows);
+        long happyCount = totals.happyCount();
+        long neutralCount = totals.neutralCount();
+        long sadCount = totals.sadCount();
+        double avgMoodScore = totals.avgMoodScore();
+        double avgSentimentScore = totals.avgSentimentScore();
         
         // Find recent happy moments (last 10)
-        List<String> recentHappyMoments = allEntries.stream()
-            .filter(e -> "Happy".equals(e.getMoodType()))
-            .limit(10)
-            .map(MoodEntry::getDescription)
-            .collect(Collectors.toList());
+        List<String> recentHappyMoments = getRecentDescriptions("Happy", 10, excludedId);
         
         // Find recent sad moments (last 5) to understand triggers
-        List<String> recentSadMoments = allEntries.stream()
-            .filter(e -> "Sad".equals(e.getMoodType()))
-            .limit(5)
-            .map(MoodEntry::getDescription)
-            .collect(Collectors.toList());
+        List<String> recentSadMoments = getRecentDescriptions("Sad", 5, excludedId);
+
+        if (currentDescription != null && !currentDescription.isBlank()) {
+            // Prefer moments that are about the same things as the current entry
+            List<String> similarHappy = pastMoments(findSimilarEntries(timer, currentDescription, 11, "Happy"), excludedId, 10);
+            List<String> similarSad = pastMoments(findSimilarEntries(timer, currentDescription, 6, "Sad"), excludedId, 5);
+            if (!similarHappy.isEmpty()) recentHappyMoments = similarHappy;
+            if (!similarSad.isEmpty()) recentSadMoments = similarSad;
+        }
+
+        // Words that set sad entries apart from happy ones, and the other way round
+        List<String> sadTriggerTerms = getKeywords(timer, true, TRIGGER_TERM_LIMIT).stream().map(TermIndex.Keyword::term).toList();
+        List<String> happyTerms = getKeywords(timer, false, TRIGGER_TERM_LIMIT).stream().map(TermIndex.Keyword::term).toList();
         
         // Determine overall pattern
         String overallPattern = determineOverallPattern(happyCount, neutralCount, sadCount, avgMoodScore);
+        timer.rows(rows.size());
         
         return new MoodPatterns(happyCount, neutralCount, sadCount, avgMoodScore, avgSentimentScore, 
-                              overallPattern, recentHappyMoments, recentSadMoments);
+                              overallPattern, recentHappyMoments, recentSadMoments, sadTriggerTerms, happyTerms);
+    }
+
+    /**
+     * Gets the descriptions of similar entries without the entry being coached, which
+     * matches itself best. Callers ask the search for one extra entry to make up for it.
+     */
+    private static List<String> pastMoments(List<MoodEntry> similar, Integer excludedId, int limit) {
+        return similar.stream()
+            .filter(entry -> excludedId == null || entry.getId() != excludedId)
+            .limit(limit)
+            .map(MoodEntry::getDescription)
+            .toList();
+    }
+
+    /**
+     * Get the descriptions of the latest entries with a mood, newest first
+     * @param excludedId An entry to leave out, or null for none
+     */
+    private List<String> getRecentDescriptions(String moodType, int limit, Integer excludedId) throws SQLException {
+        List<String> descriptions = new ArrayList<>();
+        // "id IS NOT NULL" holds for every row, so a null id leaves nothing out
+        String sql = "SELECT description FROM mood_entries WHERE mood_type = ? AND id IS NOT ? ORDER BY date DESC, created_at DESC LIMIT ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, moodType);
+            pstmt.setObject(2, excludedId);
+            pstmt.setInt(3, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    descriptions.add(rs.getString(1));
+                }
+            }
+        }
+        return descriptions;
+    }
+
+    // ===== SIMILARITY SEARCH =====
+
+    /**
+     * Get the past entries whose descriptions are most similar to a text, best match first.
+     * Uses hashed bag-of-words embeddings; entries that share no terms with the text are left out.
+     * @param moodType Only return entries with this mood, or null for any
+     */
+    public List<MoodEntry> findSimilarEntries(String text, int limit, String moodType) throws SQLException {
+        return Metrics.query("repository.findSimilarEntries", timer -> findSimilarEntries(timer, text, limit, moodType));
+    }
+
+    private List<MoodEntry> findSimilarEntries(QueryTimer timer, String text, int limit, String moodType) throws SQLException {
+        boolean loaded;
+        synchronized (embeddingIndex) {
+            loaded = embeddingsLoaded;
+        }
+        if (!loaded) {
+            // Built on the writer thread so no commit can slip in between the scan and the index
+            DBConnection.getWriter().runStandalone(conn -> {
+                rebuildEmbeddings(conn);
+                return null;
+            });
+        }
+
+        List<EmbeddingIndex.Match> matches;
+        synchronized (embeddingIndex) {
+            matches = embeddingIndex.nearest(text, limit, moodType, MIN_SIMILARITY);
+        }
+        if (matches.isEmpty()) return List.of();
+
+        // Rows were read on another connection, so skip any deleted since the search
+        try (Connection conn = DBConnection.getConnection()) {
+            List<MoodEntry> similar = readEntries(conn, matches.stream().map(EmbeddingIndex.Match::entryId).toList());
+            timer.rows(similar.size());
+            return similar;
+        }
+    }
+
+    private void rebuildEmbeddings(Connection conn) throws SQLException {
+        String sql = "SELECT * FROM mood_entries";
+
+        synchronized (embeddingIndex) {
+            if (embeddingsLoaded) return;
+            embeddingIndex.reset();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    embed(createMoodEntryFromResultSet(rs));
+                }
+            }
+            embeddingsLoaded = true;
+            log.info("Embedding index built: {} entries", embeddingIndex.size());
+        }
+    }
+
+    private void embed(MoodEntry entry) {
+        embeddingIndex.put(entry.getId(), entry.getMoodType(), entry.getDescription());
+    }
+
+    // ===== TERM INDEX =====
+
+    /**
+     * Get the words most associated with sad (or happy) entries, strongest first, ranked by
+     * log-likelihood keyness. The index is built on first use and then kept up to date as
+     * entries are saved; edits and deletes make the next call rebuild it.
+     */
+    public List<TermIndex.Keyword> getKeywords(boolean sad, int limit) throws SQLException {
+        return Metrics.query("repository.getKeywords", timer -> getKeywords(timer, sad, limit));
+    }
+
+    private List<TermIndex.Keyword> getKeywords(QueryTimer timer, boolean sad, int limit) throws SQLException {
+        synchronized (termIndex) {
+            if (termIndexLoaded && !termIndex.needsRebuild()) {
+                return sad ? termIndex.sadKeywords(limit) : termIndex.happyKeywords(limit);
+            }
+        }
+        // Rebuilt on the writer thread so no save can slip in between the scan and the index
+        DBConnection.getWriter().runStandalone(conn -> {
+            rebuildTermIndex(conn);
+            return null;
+        });
+        synchronized (termIndex) {
+            return sad ? termIndex.sadKeywords(limit) : termIndex.happyKeywords(limit);
+        }
+    }
+
+    private void rebuildTermIndex(Connection conn) throws SQLException {
+        String sql = "SELECT id, mood_type, description FROM mood_entries ORDER BY id";
+
+        synchronized (termIndex) {
+            termIndex.reset();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    termIndex.add(rs.getInt(1), rs.getString(2), rs.getString(3));
+                }
+            }
+            termIndexLoaded = true;
+            log.info("Term index built: {} entries, {} terms, {} posting bytes",
+                     termIndex.getEntryCount(), termIndex.getTermCount(), termIndex.getPostingBytes());
+        }
+    }
+
+    // ===== STREAMING ANALYTICS =====
+
+    /**
+     * Get rolling means, EWMAs, volatility and streaks. The first call (and the first call
+     * after an edit or delete that invalidated the order-dependent values) replays the history
+     * once; after that every save updates the analytics in constant time.
+     */
+    public MoodAnalytics.Snapshot getMoodAnalytics() throws SQLException {
+        return Metrics.query("repository.getMoodAnalytics", this::getMoodAnalytics);
+    }
+
+    private MoodAnalytics.Snapshot getMoodAnalytics(QueryTimer timer) throws SQLException {
+        boolean stale;
+        synchronized (analytics) {
+            stale = !analyticsLoaded || analytics.needsRebuild();
+        }
+        if (stale) {
+            // Replayed on the writer thread so no commit can slip in between the read and the replay
+            DBConnection.getWriter().runStandalone(conn -> {
+                rebuildAnalytics(conn);
+                return null;
+            });
+        }
+        synchronized (analytics) {
+            return analytics.snapshot(LocalDate.now());
+        }
+    }
+
+    private void rebuildAnalytics(Connection conn) throws SQLException {
+        String sql = "SELECT date, mood_type, sentiment_score FROM mood_entries ORDER BY date, created_at, id";
+
+        synchronized (analytics) {
+            analytics.reset();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    // Missing scores are skipped, as addToAnalytics does for new entries
+                    double score = rs.getDouble("sentiment_score");
+                    Double sentiment = rs.wasNull() ? null : score;
+                    analytics.add(LocalDate.parse(rs.getString("date")), rs.getString("mood_type"), sentiment);
+                }
+            }
+            analyticsLoaded = true;
+        }
+    }
+
+    private void addToAnalytics(MoodEntry entry) {
+        if (entry.getDate() != null) {
+            analytics.add(entry.getDate(), entry.getMoodType(), entry.getSentimentScore());
+        }
+    }
+
+    private void removeFromAnalytics(MoodEntry entry) {
+        if (entry.getDate() != null) {
+            analytics.remove(entry.getDate(), entry.getMoodType(), entry.getSentimentScore());
+        }
     }
 
     /**
@@ -351,8 +1203,164 @@ public class EntryRepository {
         else return "Balanced mood pattern";
     }
     
+    // ===== DIVERGENCE ANALYSIS =====
+
+    /**
+     * Get how well the chosen moods agree with the AI sentiment scores, per month and overall.
+     * Recomputed in one parallel pass over the history only when entries changed.
+     */
+    public DivergenceAnalysis.Report getDivergenceReport() throws SQLException {
+        return Metrics.query("repository.getDivergenceReport", this::getDivergenceReport);
+    }
+
+    private DivergenceAnalysis.Report getDivergenceReport(QueryTimer timer) throws SQLException {
+        long version = dataVersion.get();
+        DivergenceAnalysis.Report report = divergenceReport;
+        if (report == null || divergenceVersion != version) {
+            report = DivergenceAnalysis.analyze(getEntryColumns(timer));
+            divergenceReport = report;
+            divergenceVersion = version;
+        }
+        return report;
+    }
+
+    /**
+     * Get the whole history as flat columns, sorted by date. Missing sentiment scores are NaN.
+     */
+    public EntryColumns getEntryColumns() throws SQLException {
+        return Metrics.query("repository.getEntryColumns", this::getEntryColumns);
+    }
+
+    private EntryColumns getEntryColumns(QueryTimer timer) throws SQLException {
+        String sql = """
+            SELECT id, date, CASE mood_type WHEN 'Happy' THEN 5 WHEN 'Sad' THEN 1 ELSE 3 END, sentiment_score
+            FROM mood_entries
+            ORDER BY date, id
+            """;
+
+        int capacity = 1024;
+        int[] ids = new int[capacity];
+        int[] days = new int[capacity];
+        byte[] moods = new byte[capacity];
+        float[] sentiments = new float[capacity];
+        int size = 0;
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            String lastDate = null;
+            int lastDay = 0;
+            while (rs.next()) {
+                if (size == capacity) {
+                    capacity *= 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    days = Arrays.copyOf(days, capacity);
+                    moods = Arrays.copyOf(moods, capacity);
+                    sentiments = Arrays.copyOf(sentiments, capacity);
+                }
+                String date = rs.getString(2);
+                if (!date.equals(lastDate)) {
+                    // Sorted by date, so each date string is parsed once
+                    lastDate = date;
+                    lastDay = (int) LocalDate.parse(date).toEpochDay();
+                }
+                ids[size] = rs.getInt(1);
+                days[size] = lastDay;
+                moods[size] = (byte) rs.getInt(3);
+                float sentiment = rs.getFloat(4);
+                sentiments[size] = rs.wasNull() ? Float.NaN : sentiment;
+                size++;
+            }
+        }
+        timer.rows(size);
+        return new EntryColumns(Arrays.copyOf(ids, size), Arrays.copyOf(days, size),
+                                Arrays.copyOf(moods, size), Arrays.copyOf(sentiments, size));
+    }
+
+    // ===== MOOD EVENTS =====
+
+    /**
+     * Store detected anomalies and shifts; events already stored for the same day, series
+     * and kind are kept as they are
+     */
+    public void saveMoodEvents(List<MoodEvent> moodEvents) throws SQLException {
+        Metrics.update("repository.saveMoodEvents", timer -> saveMoodEvents(timer, moodEvents));
+    }
+
+    private void saveMoodEvents(QueryTimer timer, List<MoodEvent> moodEvents) throws SQLException {
+        if (moodEvents.isEmpty()) return;
+        timer.rows(moodEvents.size());
+        DBConnection.getWriter().write(conn -> {
+            insertMoodEvents(conn, moodEvents);
+            return null;
+        });
+    }
+
+    /**
+     * Replace every stored event, e.g. after the detector replayed the whole history
+     */
+    public void replaceMoodEvents(List<MoodEvent> moodEvents) throws SQLException {
+        Metrics.update("repository.replaceMoodEvents", timer -> replaceMoodEvents(timer, moodEvents));
+    }
+
+    private void replaceMoodEvents(QueryTimer timer, List<MoodEvent> moodEvents) throws SQLException {
+        timer.rows(moodEvents.size());
+        DBConnection.getWriter().write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM mood_events");
+            }
+            insertMoodEvents(conn, moodEvents);
+            return null;
+        });
+    }
+
+    private void insertMoodEvents(Connection conn, List<MoodEvent> moodEvents) throws SQLException {
+        String sql = "INSERT OR IGNORE INTO mood_events (date, series, kind, value, score) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (MoodEvent event : moodEvents) {
+                pstmt.setString(1, event.date().toString());
+                pstmt.setString(2, event.series());
+                pstmt.setString(3, event.kind());
+                pstmt.setDouble(4, event.value());
+                pstmt.setDouble(5, event.score());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Get detected events on or after a date, oldest first
+     */
+    public List<MoodEvent> findMoodEvents(LocalDate from) throws SQLException {
+        return Metrics.query("repository.findMoodEvents", timer -> findMoodEvents(timer, from));
+    }
+
+    private List<MoodEvent> findMoodEvents(QueryTimer timer, LocalDate from) throws SQLException {
+        String sql = "SELECT date, series, kind, value, score FROM mood_events WHERE date >= ? ORDER BY date, series";
+        List<MoodEvent> moodEvents = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, from.toString());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    moodEvents.add(new MoodEvent(LocalDate.parse(rs.getString("date")), rs.getString("series"),
+                                                 rs.getString("kind"), rs.getDouble("value"), rs.getDouble("score")));
+                }
+            }
+        }
+        timer.rows(moodEvents.size());
+        return moodEvents;
+    }
+
     // ===== HELPER METHODS =====
     
+    // Mood codes of getMoodScoreRows
+    private static final String[] MOOD_CODES = { null, "Happy", "Neutral", "Sad" };
+
     /**
      * Convert mood type string to numeric score (1-5)
      */
@@ -366,33 +1374,89 @@ public class EntryRepository {
     }
     
     /**
-     * Create MoodEntry object from database ResultSet
+     * Create MoodEntry object from database ResultSet (package-private for the benchmarks)
      */
-    private MoodEntry createMoodEntryFromResultSet(ResultSet rs) throws SQLException {
+    MoodEntry createMoodEntryFromResultSet(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         String dateStr = rs.getString("date");
         String moodType = rs.getString("mood_type");
         String description = rs.getString("description");
-        Double sentimentScore = rs.getDouble("sentiment_score");
+        double score = rs.getDouble("sentiment_score");
+        Double sentimentScore = rs.wasNull() ? null : score;
         String createdAt = rs.getString("created_at");
+        long epoch = rs.getLong("created_epoch");
+        Long createdEpoch = rs.wasNull() ? null : epoch;
+        int offset = rs.getInt("utc_offset");
+        Integer utcOffset = rs.wasNull() ? null : offset;
+        String timeZone = rs.getString("time_zone");
         
         LocalDate date = null;
         try {
             date = LocalDate.parse(dateStr);
         } catch (Exception e) {
-            System.err.println("Error parsing date: " + dateStr);
+            log.warn("Error parsing date: {}", dateStr);
         }
         
-        return new MoodEntry(id, date, moodType, description, sentimentScore, createdAt);
+        return new MoodEntry(id, date, moodType, description, sentimentScore, createdAt,
+                             createdEpoch, utcOffset, timeZone);
     }
     
     // ===== DATA MODELS =====
     
+    /**
+     * Record representing the columns of an entry that trends and statistics use
+     */
+    public record MoodScoreRow(LocalDate date, String moodType, double sentimentScore) {}
+
     /**
      * Record representing a trend data point for charts
      */
     public record TrendPoint(LocalDate date, Double avgMood, Double avgAi) {}
+
+    /**
+     * Record representing per-day averages as flat arrays: index i is start + i days.
+     * Mood is on the 1-5 scale, sentiment on 0-1; NaN marks days without entries
+     * (for sentiment, also days whose entries have no AI score).
+     */
+    public record DailySeries(LocalDate start, float[] mood, float[] sentiment) {
+        public int dayCount() {
+            return mood.length;
+        }
+
+        public LocalDate dateAt(int index) {
+            return start.plusDays(index);
+        }
+    }
     
+    /**
+     * Record representing the history as parallel arrays, one index per entry: epoch day,
+     * mood score (1, 3 or 5) and sentiment (NaN if missing)
+     */
+    public record EntryColumns(int[] ids, int[] epochDays, byte[] moods, float[] sentiments) {
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * Record representing a detected anomaly or shift in a daily series.
+     * Series is "mood" (1-5 scale) or "sentiment" (0-1); kind is a ChangeDetector.Kind name.
+     */
+    public record MoodEvent(LocalDate date, String series, String kind, double value, double score) {}
+
+    /**
+     * Record representing per weekday and hour averages as flat arrays: cell weekday * 24 + hour,
+     * weekday 0 = Monday. Mood is on the 1-5 scale, sentiment on 0-1; NaN marks empty cells
+     * (for sentiment, also cells whose entries have no AI score).
+     */
+    public record TimeOfDayGrid(int[] counts, float[] mood, float[] sentiment) {
+        public static final int CELLS = 7 * 24;
+
+        public static int index(int weekday, int hour) {
+            return weekday * 24 + hour;
+        }
+    }
+
     /**
      * Record representing mood statistics
      */
@@ -415,8 +1479,29 @@ public class EntryRepository {
         double avgSentimentScore, 
         String overallPattern, 
         List<String> recentHappyMoments, 
-        List<String> recentSadMoments
+        List<String> recentSadMoments,
+        List<String> sadTriggerTerms,
+        List<String> happyTerms
     ) {}
+
+    /**
+     * Record representing optional restrictions for a full-text search (null means unrestricted)
+     */
+    public record SearchFilters(String moodType, LocalDate from, LocalDate to) {
+        public static SearchFilters none() {
+            return new SearchFilters(null, null, null);
+        }
+    }
+
+    /**
+     * Record representing a single ranked search result (lower rank is a better match)
+     */
+    public record SearchHit(MoodEntry entry, double rank, String snippet) {}
+
+    /**
+     * Record representing one page of search results
+     */
+    public record SearchPage(List<SearchHit> hits, int page, int pageSize, boolean hasMore) {}
 }
 
 
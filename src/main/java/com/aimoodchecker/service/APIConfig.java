@@ -1,5 +1,8 @@
 package com.aimoodchecker.service;
 
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -8,35 +11,50 @@ import java.util.Properties;
 
 /**
  * Configuration class for API keys and settings
- * Loads configuration from properties file, .env file, or environment variables
+ * Loads configuration from properties file, .env file, or environment variables.
+ * Files are read once, either explicitly via load() during startup or on first use.
  */
 public class APIConfig {
+    private static final Logger log = Log.get(APIConfig.class);
+
     
     private static final String CONFIG_FILE = "config.properties";
     private static final String ENV_FILE = ".env";
     private static Properties properties;
+    private static volatile boolean loaded;
     
-    static {
-        loadConfig();
-        loadEnvFile();
+    /**
+     * Reads config.properties and .env if that has not happened yet
+     */
+    public static void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (APIConfig.class) {
+            if (!loaded) {
+                loadConfig();
+                loadEnvFile();
+                loaded = true;
+            }
+        }
     }
     
     /**
      * Loads configuration from properties file
      */
     private static void loadConfig() {
-        properties = new Properties();
+        Properties fileProperties = new Properties();
         
         try {
             // Try to load from properties file first
             FileInputStream fis = new FileInputStream(CONFIG_FILE);
-            properties.load(fis);
+            fileProperties.load(fis);
             fis.close();
-            System.out.println("Configuration loaded from " + CONFIG_FILE);
+            log.info("Configuration loaded from {}", CONFIG_FILE);
         } catch (IOException e) {
-            System.out.println("Config file not found, will use .env and environment variables");
+            log.info("Config file not found, will use .env and environment variables");
         }
-        
+        properties = fileProperties;
     }
     
     /**
@@ -55,16 +73,16 @@ public class APIConfig {
                                 String value = parts[1].trim();
                                 // Set as system property so it's available to the app
                                 System.setProperty(key, value);
-                                System.out.println("Loaded from .env: " + key + "=" + (key.contains("KEY") ? "***" : value));
+                                log.debug("Loaded from .env: {}={}", key, key.contains("KEY") ? "***" : value);
                             }
                         }
                     });
-                System.out.println("Environment variables loaded from " + ENV_FILE);
+                log.info("Environment variables loaded from {}", ENV_FILE);
             } else {
-                System.out.println(".env file not found, using system environment variables");
+                log.info(".env file not found, using system environment variables");
             }
         } catch (IOException e) {
-            System.err.println("Error reading .env file: " + e.getMessage());
+            log.warn("Error reading .env file: {}", e.getMessage());
         }
     }
     
@@ -73,6 +91,7 @@ public class APIConfig {
      * @return API key or null if not found
      */
     public static String getOpenAIKey() {
+        load();
         // Try config file first, then .env/system properties, then environment variable
         String apiKey = properties.getProperty("openai.api.key");
         if (apiKey == null || apiKey.isEmpty()) {
@@ -89,6 +108,7 @@ public class APIConfig {
      * @return Model name (default: gpt-3.5-turbo)
      */
     public static String getChatGPTModel() {
+        load();
         return properties.getProperty("openai.model", "gpt-3.5-turbo");
     }
     
@@ -97,6 +117,7 @@ public class APIConfig {
      * @return Max tokens (default: 150)
      */
     public static int getMaxTokens() {
+        load();
         try {
             return Integer.parseInt(properties.getProperty("openai.max.tokens", "150"));
         } catch (NumberFormatException e) {
@@ -109,6 +130,7 @@ public class APIConfig {
      * @return Temperature (default: 0.7)
      */
     public static double getTemperature() {
+        load();
         try {
             return Double.parseDouble(properties.getProperty("openai.temperature", "0.7"));
         } catch (NumberFormatException e) {
@@ -0,0 +1,268 @@
+package com.aimoodchecker.service;
+
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.metrics.Metrics;
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking work (database, network) off the JavaFX thread on virtual threads.
+ * Every task names the resource it uses, and each resource has a bounded number of
+ * concurrent users. Results can be handed back to the FX thread, related tasks can be
+ * forked and joined as a Scope, and everything is shut down from Main.stop().
+ */
+public class BackgroundExecutor {
+    private static final Logger log = Log.get(BackgroundExecutor.class);
+
+    /**
+     * Shared resources and how many tasks may use each at the same time
+     */
+    public enum Resource {
+        // Pooled read connections plus the single writer (see DBConnection)
+        DATABASE(DBConnection.MAX_READERS + 1),
+        NETWORK(4),
+        CPU(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+        private final int permits;
+
+        Resource(int permits) {
+            this.permits = permits;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+    private static BackgroundExecutor instance;
+
+    private final ExecutorService virtualThreads =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("background-", 0).factory());
+    private final Map<Resource, Semaphore> limits = new EnumMap<>(Resource.class);
+
+    private BackgroundExecutor() {
+        for (Resource resource : Resource.values()) {
+            Semaphore semaphore = new Semaphore(resource.permits, true);
+            limits.put(resource, semaphore);
+            String name = "executor." + resource.name().toLowerCase();
+            Metrics.getInstance().gauge(name + ".busy", () -> resource.permits - semaphore.availablePermits());
+            Metrics.getInstance().gauge(name + ".waiting", semaphore::getQueueLength);
+        }
+    }
+
+    public static synchronized BackgroundExecutor getInstance() {
+        if (instance == null) {
+            instance = new BackgroundExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * Runs a task on a virtual thread once the resource has a free slot
+     */
+    public <T> CompletableFuture<T> submit(Resource resource, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running = virtualThreads.submit(() -> {
+            try {
+                result.complete(resource == null ? task.call() : withPermit(resource, task));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        // Cancelling the returned future interrupts the virtual thread
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) running.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Runs a task without a result on a virtual thread
+     */
+    public CompletableFuture<Void> submit(Resource resource, Task task) {
+        return submit(resource, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a task in the background and delivers its result or error on the JavaFX thread
+     */
+    public <T> CompletableFuture<T> runAsync(Resource resource, Callable<T> task,
+                                             Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        CompletableFuture<T> future = submit(resource, task);
+        future.whenComplete((value, e) -> onFx(() -> {
+            if (e == null) {
+                onSuccess.accept(value);
+            } else if (!(e instanceof CancellationException)) {
+                onError.accept(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Like runAsync(Resource, ...) for tasks that hold no resource themselves and only
+     * coordinate subtasks, e.g. by joining a Scope. Waiting on forks while holding a permit
+     * could starve those forks of the same resource.
+     */
+    public <T> CompletableFuture<T> runAsync(Callable<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        return runAsync(null, task, onSuccess, onError);
+    }
+
+    /**
+     * Runs a callable on the current thread while holding one slot of the resource
+     */
+    public <T> T withPermit(Resource resource, Callable<T> task) throws Exception {
+        Semaphore semaphore = limits.get(resource);
+        semaphore.acquire();
+        try {
+            return task.call();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Opens a scope for forking related subtasks; see {@link Scope}
+     */
+    public Scope openScope() {
+        return new Scope();
+    }
+
+    /**
+     * Runs the action on the JavaFX thread, directly if already on it
+     */
+    public static void onFx(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+
+    /**
+     * Stops accepting work, waits briefly for running tasks and interrupts the rest
+     */
+    public void shutdown(Duration timeout) {
+        virtualThreads.shutdown();
+        try {
+            if (!virtualThreads.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Background tasks still running after {} ms, interrupting", timeout.toMillis());
+                virtualThreads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            virtualThreads.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("Background executor shut down");
+    }
+
+    public boolean isShutdown() {
+        return virtualThreads.isShutdown();
+    }
+
+    /**
+     * Fork/join scope for subtasks that belong together, modelled on StructuredTaskScope's
+     * shutdown-on-failure policy: if one subtask fails the others are cancelled, join()
+     * rethrows that first failure, and close() cancels any subtask still running.
+     * <pre>
+     * try (var scope = executor.openScope()) {
+     *     var saved = scope.fork(Resource.DATABASE, () -> repo.save(...));
+     *     var reply = scope.fork(Resource.NETWORK, () -> api.call(...));
+     *     scope.join();
+     *     use(saved.get(), reply.get());
+     * }
+     * </pre>
+     */
+    public final class Scope implements AutoCloseable {
+
+        // Written by the owner thread, read by failing subtasks when they cancel their siblings
+        private final List<Future<?>> forks = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        private Scope() {}
+
+        /**
+         * Starts a subtask; the returned handle may only be read after join()
+         */
+        public <T> Subtask<T> fork(Resource resource, Callable<T> task) {
+            Future<T> future = virtualThreads.submit(() -> {
+                try {
+                    return withPermit(resource, task);
+                } catch (Throwable e) {
+                    if (firstFailure.compareAndSet(null, e)) {
+                        cancelAll();
+                    }
+                    throw e;
+                }
+            });
+            forks.add(future);
+            return new Subtask<>(future);
+        }
+
+        /**
+         * Waits for every subtask; throws the first failure if any subtask failed
+         */
+        public void join() throws Exception {
+            for (Future<?> future : forks) {
+                try {
+                    future.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // Report the failure that caused the cancellation, not the cancellation itself
+                    break;
+                }
+            }
+            Throwable failure = firstFailure.get();
+            if (failure instanceof Exception e) throw e;
+            if (failure instanceof Error e) throw e;
+        }
+
+        private void cancelAll() {
+            for (Future<?> future : forks) {
+                future.cancel(true);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+    }
+
+    /**
+     * Handle to the result of a forked subtask
+     */
+    public static final class Subtask<T> {
+        private final Future<T> future;
+
+        private Subtask(Future<T> future) {
+            this.future = future;
+        }
+
+        public T get() {
+            return future.resultNow();
+        }
+    }
+}
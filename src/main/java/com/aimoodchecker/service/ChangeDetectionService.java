@@ -0,0 +1,164 @@
+package com.aimoodchecker.service;
+
+import com.aimoodchecker.analytics.ChangeDetector;
+import com.aimoodchecker.analytics.ChangeDetector.Detection;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.repository.EntryEvent;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.DailySeries;
+import com.aimoodchecker.repository.EntryRepository.MoodEvent;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Background job that watches the daily mood and sentiment averages for anomalies and
+ * sustained shifts and stores what it finds in the mood_events table.
+ *
+ * Only finished days are scored (today's average still moves with every entry), so each
+ * new day costs one ChangeDetector step per series. The history is replayed once at
+ * startup, and again only if an entry on an already scored day is edited, deleted or restored.
+ */
+public class ChangeDetectionService {
+    private static final Logger log = Log.get(ChangeDetectionService.class);
+
+    public static final String MOOD_SERIES = "mood";
+    public static final String SENTIMENT_SERIES = "sentiment";
+
+    private static ChangeDetectionService instance;
+
+    // Floors for the standard deviation on each series' scale (mood 1-5, sentiment 0-1)
+    private final ChangeDetector moodDetector = new ChangeDetector(0.5);
+    private final ChangeDetector sentimentDetector = new ChangeDetector(0.1);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private EntryRepository repo;
+    // Last day fed to the detectors; null until the first replay. Guarded by this
+    private LocalDate scoredThrough;
+
+    private ChangeDetectionService() {}
+
+    public static synchronized ChangeDetectionService getInstance() {
+        if (instance == null) {
+            instance = new ChangeDetectionService();
+        }
+        return instance;
+    }
+
+    /**
+     * Replays the history and starts following entry changes
+     */
+    public void start(EntryRepository repo, BackgroundExecutor executor) throws SQLException {
+        synchronized (this) {
+            if (this.repo != null) return;
+            this.repo = repo;
+        }
+        catchUp();
+        repo.getEvents().subscribe(
+            command -> executor.submit(Resource.DATABASE, command::run),
+            this::onEntriesChanged);
+    }
+
+    /**
+     * Adds a listener that is called (on a background thread) when new events were stored
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private void onEntriesChanged(List<EntryEvent> events) {
+        try {
+            boolean rewritesHistory;
+            synchronized (this) {
+                rewritesHistory = scoredThrough != null && events.stream()
+                    .anyMatch(event -> event.date() != null && !event.date().isAfter(scoredThrough));
+                if (rewritesHistory) {
+                    scoredThrough = null;
+                }
+            }
+            catchUp();
+        } catch (SQLException e) {
+            log.warn("Change detection failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Scores every finished day that hasn't been scored yet; cheap when already up to date
+     */
+    public synchronized void catchUp() throws SQLException {
+        if (repo == null) return;
+        score(repo);
+    }
+
+    /**
+     * Replays the whole history into mood_events now, without following entry changes
+     * afterwards (e.g. from the command line)
+     * @return The number of events stored
+     */
+    public synchronized int rebuild(EntryRepository repo) throws SQLException {
+        scoredThrough = null;
+        return score(repo);
+    }
+
+    /**
+     * Scores the days after scoredThrough, or replays everything if it is null
+     * @return The number of events detected
+     */
+    private int score(EntryRepository repo) throws SQLException {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (scoredThrough != null && !scoredThrough.isBefore(yesterday)) return 0;
+
+        boolean replay = scoredThrough == null;
+        LocalDate from;
+        if (replay) {
+            Optional<LocalDate> first = repo.getFirstEntryDate();
+            moodDetector.reset();
+            sentimentDetector.reset();
+            if (first.isEmpty() || first.get().isAfter(yesterday)) {
+                repo.replaceMoodEvents(List.of());
+                scoredThrough = yesterday;
+                return 0;
+            }
+            from = first.get();
+        } else {
+            from = scoredThrough.plusDays(1);
+        }
+
+        DailySeries series = repo.getDailySeries(from, yesterday);
+        List<MoodEvent> detected = new ArrayList<>();
+        for (int i = 0; i < series.dayCount(); i++) {
+            // Days without entries carry no signal; the detectors simply skip them
+            if (Float.isNaN(series.mood()[i])) continue;
+            LocalDate day = series.dateAt(i);
+            record(detected, day, MOOD_SERIES, moodDetector.observe(series.mood()[i]));
+            // Nor do days whose entries have no AI score; NaN would poison the running mean for good
+            if (Float.isNaN(series.sentiment()[i])) continue;
+            record(detected, day, SENTIMENT_SERIES, sentimentDetector.observe(series.sentiment()[i]));
+        }
+
+        if (replay) {
+            repo.replaceMoodEvents(detected);
+            log.info("Change detection replayed {} days, {} events", series.dayCount(), detected.size());
+        } else {
+            repo.saveMoodEvents(detected);
+        }
+        scoredThrough = yesterday;
+
+        if (replay || !detected.isEmpty()) {
+            listeners.forEach(Runnable::run);
+        }
+        return detected.size();
+    }
+
+    private static void record(List<MoodEvent> detected, LocalDate day, String series, Detection detection) {
+        if (detection != null) {
+            detected.add(new MoodEvent(day, series, detection.kind().name(), detection.value(), detection.score()));
+        }
+    }
+}
@@ -5,7 +5,20 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.URI;
 import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.List;
+import java.util.Locale;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
 import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.analytics.DivergenceAnalysis;
+import com.aimoodchecker.analytics.MoodAnalytics;
+import com.aimoodchecker.analytics.MoodForecaster;
+import com.aimoodchecker.metrics.CoachingRequestEvent;
+import com.aimoodchecker.metrics.DiagnosticsRecorder;
+import com.aimoodchecker.metrics.LatencyHistogram;
+import com.aimoodchecker.metrics.Metrics;
 import com.aimoodchecker.repository.EntryRepository.MoodPatterns;
 
 /**
@@ -13,13 +26,23 @@ import com.aimoodchecker.repository.EntryRepository.MoodPatterns;
  * Handles intelligent mood coaching
  */
 public class ChatGPTService {
+    private static final Logger log = Log.get(ChatGPTService.class);
+
     
     private static final String OPENAI_API_URL = "https://api.openai.com/v1/chat/completions";
+
+    // Past moments quoted in the coaching prompt, per mood, and how much of each
+    private static final int MOMENTS_IN_PROMPT = 3;
+    private static final int MOMENT_LENGTH = 120;
+    // Days of mood forecast summarized in the coaching prompt
+    public static final int FORECAST_DAYS = 7;
     
-    private final HttpClient httpClient;
-    
-    public ChatGPTService() {
-        this.httpClient = HttpClient.newBuilder()
+    /**
+     * Holds the HTTP client, built on the first coaching request: it loads the TLS stack and
+     * starts a selector thread, which callers that only score sentiment never need
+     */
+    private static final class Http {
+        static final HttpClient CLIENT = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
     }
@@ -32,14 +55,40 @@ public class ChatGPTService {
      * @return Personalized mood coaching suggestions
      */
     public String getMoodCoaching(String currentMood, String currentDescription, EntryRepository entryRepository) {
+        try {
+            // Get comprehensive mood patterns from repository
+            return Metrics.time("coaching.total", () -> getMoodCoaching(
+                currentMood, currentDescription, entryRepository.getMoodPatterns(currentDescription),
+                entryRepository.getMoodAnalytics(), entryRepository.getDivergenceReport(),
+                ForecastService.getInstance().getForecast(FORECAST_DAYS)));
+        } catch (Exception e) {
+            log.warn("Error getting mood coaching: {}", e.getMessage());
+            return "I'm having trouble analyzing your mood patterns right now. Please try again later.";
+        }
+    }
+
+    /**
+     * Provides mood coaching from mood patterns the caller already loaded
+     * @param currentMood The user's current mood type (Happy, Neutral, Sad)
+     * @param currentDescription The user's current mood description
+     * @param moodPatterns The user's mood history patterns
+     * @param trends Rolling averages and streaks, or null if not available
+     * @param divergence How well chosen moods match the written words, or null if not available
+     * @param forecast Expected mood for the coming days, or null if not available
+     * @return Personalized mood coaching suggestions
+     */
+    public String getMoodCoaching(String currentMood, String currentDescription, MoodPatterns moodPatterns,
+                                  MoodAnalytics.Snapshot trends, DivergenceAnalysis.Report divergence,
+                                  MoodForecaster.Forecast forecast) {
         String apiKey = APIConfig.getOpenAIKey();
+        CoachingRequestEvent event = DiagnosticsRecorder.eventsEnabled() ? new CoachingRequestEvent() : null;
+        if (event != null) event.begin();
         
+        LatencyHistogram.Sample timer = Metrics.time("coaching.request");
         try {
-            // Get comprehensive mood patterns from repository
-            MoodPatterns moodPatterns = entryRepository.getMoodPatterns();
-            
             // Create the coaching request body with enhanced data
-            String requestBody = createEnhancedCoachingRequest(currentMood, currentDescription, moodPatterns);
+            String requestBody = createEnhancedCoachingRequest(currentMood, currentDescription, moodPatterns, trends, divergence, forecast);
+            if (event != null) event.requestChars = requestBody.length();
             
             // Build HTTP request
             HttpRequest request = HttpRequest.newBuilder()
@@ -50,25 +99,38 @@ public class ChatGPTService {
                     .timeout(Duration.ofSeconds(30))
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = Metrics.time("openai.chatCompletion",
+                () -> Http.CLIENT.send(request, HttpResponse.BodyHandlers.ofString()));
             
+            if (event != null) event.status = response.statusCode();
             if (response.statusCode() == 200) {
+                if (event != null) {
+                    event.promptTokens = extractTokenCount(response.body(), "prompt_tokens");
+                    event.completionTokens = extractTokenCount(response.body(), "completion_tokens");
+                }
                 return parseChatGPTResponse(response.body());
             } else {
-                System.err.println("Coaching API call failed with status: " + response.statusCode());
+                Metrics.getInstance().counter("openai.failures").increment();
+                log.warn("Coaching API call failed with status: {}", response.statusCode());
                 return "Unable to get coaching suggestions at the moment. Please try again later.";
             }
             
         } catch (Exception e) {
-            System.err.println("Error getting mood coaching: " + e.getMessage());
+            Metrics.getInstance().counter("openai.failures").increment();
+            log.warn("Error getting mood coaching: {}", e.getMessage());
             return "I'm having trouble analyzing your mood patterns right now. Please try again later.";
+        } finally {
+            timer.close();
+            if (event != null) event.commit();
         }
     }
 
     /**
      * Creates the enhanced JSON request body for mood coaching with comprehensive pattern data
      */
-    private String createEnhancedCoachingRequest(String currentMood, String currentDescription, MoodPatterns moodPatterns) {
+    private String createEnhancedCoachingRequest(String currentMood, String currentDescription, MoodPatterns moodPatterns,
+                                                 MoodAnalytics.Snapshot trends, DivergenceAnalysis.Report divergence,
+                                                 MoodForecaster.Forecast forecast) {
         return """
             {
                 "model": "gpt-3.5-turbo",
@@ -79,7 +141,7 @@ public class ChatGPTService {
                     },
                     {
                         "role": "user",
-                        "content": "Current Mood: %s\\nCurrent Description: %s\\n\\nMood History: %d total entries (%d happy, %d neutral, %d sad)\\n\\nGive me 4-6 quick, practical suggestions to improve my mood. Keep it brief and actionable."
+                        "content": "Current Mood: %s\\nCurrent Description: %s\\n\\nMood History: %d total entries (%d happy, %d neutral, %d sad)%s%s%s%s%s\\n\\nGive me 4-6 quick, practical suggestions to improve my mood. Keep it brief and actionable."
                     }
                 ],
                 "max_tokens": 1200,
@@ -87,13 +149,135 @@ public class ChatGPTService {
             }
             """.formatted(
                 currentMood,
-                currentDescription,
+                jsonEscape(currentDescription),
                 moodPatterns.happyCount() + moodPatterns.neutralCount() + moodPatterns.sadCount(),
                 moodPatterns.happyCount(),
                 moodPatterns.neutralCount(),
-                moodPatterns.sadCount()
+                moodPatterns.sadCount(),
+                describeTriggerTerms(moodPatterns),
+                describeRelatedMoments(moodPatterns),
+                describeTrends(trends),
+                describeDivergence(divergence),
+                describeForecast(forecast)
             );
     }
+
+    /**
+     * Lists the words that show up most in sad entries compared to happy ones, and vice versa
+     */
+    private String describeTriggerTerms(MoodPatterns moodPatterns) {
+        StringBuilder text = new StringBuilder();
+        if (!moodPatterns.sadTriggerTerms().isEmpty()) {
+            text.append("\\nWords Linked To Sad Days: ").append(String.join(", ", moodPatterns.sadTriggerTerms()));
+        }
+        if (!moodPatterns.happyTerms().isEmpty()) {
+            text.append("\\nWords Linked To Happy Days: ").append(String.join(", ", moodPatterns.happyTerms()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Quotes a few past happy and sad moments (the ones most similar to the current entry
+     * when the patterns were loaded for it)
+     */
+    private String describeRelatedMoments(MoodPatterns moodPatterns) {
+        StringBuilder text = new StringBuilder();
+        appendMoments(text, "Related Happy Moments", moodPatterns.recentHappyMoments());
+        appendMoments(text, "Related Sad Moments", moodPatterns.recentSadMoments());
+        return text.toString();
+    }
+
+    private void appendMoments(StringBuilder text, String label, List<String> moments) {
+        List<String> quoted = moments.stream()
+            .filter(moment -> moment != null && !moment.isBlank())
+            .limit(MOMENTS_IN_PROMPT)
+            .map(moment -> moment.length() > MOMENT_LENGTH ? moment.substring(0, MOMENT_LENGTH) + "…" : moment)
+            .map(moment -> "'" + jsonEscape(moment) + "'")
+            .toList();
+        if (!quoted.isEmpty()) {
+            text.append("\\n").append(label).append(": ").append(String.join("; ", quoted));
+        }
+    }
+
+    /**
+     * Escapes user text for use inside a JSON string literal
+     */
+    private static String jsonEscape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Summarizes how the chosen moods compare with the tone of the writing this month
+     * (empty if this month doesn't have enough scored entries to say anything yet)
+     */
+    private String describeDivergence(DivergenceAnalysis.Report divergence) {
+        if (divergence == null) return "";
+        DivergenceAnalysis.PeriodStats month = divergence.month(YearMonth.now());
+        if (month == null || month.count() < 5) return "";
+
+        StringBuilder text = new StringBuilder(String.format(
+            "\\nSelf-Report vs Writing This Month (%s): average gap %.2f on a 0-1 scale", month.month(), month.meanGap()));
+        if (!Double.isNaN(month.correlation())) {
+            text.append(String.format(", correlation %.2f", month.correlation()));
+        }
+        if (month.meanGap() >= 0.35) {
+            text.append(". The chosen moods often don't match how the descriptions read");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Summarizes recent trends for the coaching prompt (empty if there's nothing to say)
+     */
+    private String describeTrends(MoodAnalytics.Snapshot trends) {
+        if (trends == null || Double.isNaN(trends.moodMean30())) return "";
+
+        StringBuilder text = new StringBuilder("\\nRecent Trend: ");
+        if (!Double.isNaN(trends.moodMean7())) {
+            text.append(String.format("last 7 days average mood %.1f/5, ", trends.moodMean7()));
+        }
+        text.append(String.format("last 30 days %.1f/5 (mood swings: %.1f)", trends.moodMean30(), trends.moodVolatility30()));
+        if (trends.currentStreakMood() != null && trends.currentStreak() > 1) {
+            text.append(String.format(", %d %s entries in a row", trends.currentStreak(), trends.currentStreakMood().toLowerCase()));
+        }
+        return text.toString();
+    }
+    
+    /**
+     * Summarizes the expected mood for the coming week, naming the lowest day so the
+     * suggestions can prepare for it (empty without a forecast)
+     */
+    private String describeForecast(MoodForecaster.Forecast forecast) {
+        if (forecast == null || forecast.days() == 0) return "";
+
+        double sum = 0;
+        int lowest = 0;
+        for (int i = 0; i < forecast.days(); i++) {
+            sum += forecast.mean()[i];
+            if (forecast.mean()[i] < forecast.mean()[lowest]) lowest = i;
+        }
+        return String.format("\\nNext %d Days Forecast: average mood %.1f/5, lowest on %s (%.1f/5, likely range %.1f-%.1f)",
+            forecast.days(), sum / forecast.days(),
+            forecast.dateAt(lowest).getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH),
+            forecast.mean()[lowest], forecast.lower()[lowest], forecast.upper()[lowest]);
+    }
     
     /**
      * Parses the ChatGPT API response using simple string parsing
@@ -114,9 +298,9 @@ public class ChatGPTService {
     }
     
     /**
-     * Extracts content from ChatGPT response using simple string parsing
+     * Extracts content from ChatGPT response using simple string parsing (package-private for the benchmarks)
      */
-    private String extractContentFromResponse(String responseBody) {
+    String extractContentFromResponse(String responseBody) {
         try {
             // Look for the content field in the JSON response
             int contentIndex = responseBody.indexOf("\"content\":");
@@ -147,11 +331,31 @@ public class ChatGPTService {
             return content;
             
         } catch (Exception e) {
-            System.err.println("Error extracting content: " + e.getMessage());
+            log.warn("Error extracting content: {}", e.getMessage());
             return null;
         }
     }
     
+    /**
+     * Reads a token count from the response's usage block, or 0 if it isn't there
+     */
+    int extractTokenCount(String responseBody, String field) {
+        int fieldIndex = responseBody.indexOf("\"" + field + "\":");
+        if (fieldIndex == -1) {
+            return 0;
+        }
+        int index = fieldIndex + field.length() + 3;
+        while (index < responseBody.length() && responseBody.charAt(index) == ' ') {
+            index++;
+        }
+        int count = 0;
+        while (index < responseBody.length() && Character.isDigit(responseBody.charAt(index))) {
+            count = count * 10 + (responseBody.charAt(index) - '0');
+            index++;
+        }
+        return count;
+    }
+    
     /**
      * Gets a sentiment score (0.0 to 1.0) from the analysis
      * @param moodDescription User's mood description
@@ -0,0 +1,104 @@
+package com.aimoodchecker.service;
+
+import com.aimoodchecker.analytics.MoodForecaster;
+import com.aimoodchecker.analytics.MoodForecaster.Forecast;
+import com.aimoodchecker.repository.EntryEvent;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.repository.EntryRepository.DailySeries;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps a MoodForecaster fitted to the daily mood averages and serves forecasts for the
+ * coming days.
+ *
+ * Like change detection, only finished days are fed to the model. The smoothing factors are
+ * chosen once over the last FIT_DAYS days; after that each new day is one O(1) update.
+ * A full refit happens only when an entry on an already fitted day changes.
+ */
+public class ForecastService {
+
+    public static final int MAX_HORIZON = 14;
+
+    /**
+     * Days of history the model is fitted on; older days barely influence the smoothed state
+     */
+    private static final int FIT_DAYS = 180;
+
+    private static ForecastService instance;
+
+    private final MoodForecaster forecaster = new MoodForecaster();
+
+    private EntryRepository repo;
+    // Last day fed to the model; null until the first fit. Guarded by this
+    private LocalDate fittedThrough;
+    private boolean fitted;
+
+    private ForecastService() {}
+
+    public static synchronized ForecastService getInstance() {
+        if (instance == null) {
+            instance = new ForecastService();
+        }
+        return instance;
+    }
+
+    /**
+     * Fits the model and starts following entry changes
+     */
+    public void start(EntryRepository repo, BackgroundExecutor executor) throws SQLException {
+        synchronized (this) {
+            if (this.repo != null) return;
+            this.repo = repo;
+        }
+        catchUp();
+        repo.getEvents().subscribe(
+            command -> executor.submit(Resource.DATABASE, command::run),
+            this::onEntriesChanged);
+    }
+
+    private void onEntriesChanged(List<EntryEvent> events) {
+        synchronized (this) {
+            if (fittedThrough != null && events.stream()
+                    .anyMatch(event -> event.date() != null && !event.date().isAfter(fittedThrough))) {
+                // Refit lazily on the next request
+                fittedThrough = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the forecast for the coming days, starting today
+     * @param days Horizon, at most MAX_HORIZON
+     * @return The forecast, or null if there is too little history or the service isn't started
+     */
+    public synchronized Forecast getForecast(int days) throws SQLException {
+        catchUp();
+        if (!fitted) return null;
+        return forecaster.forecast(Math.min(days, MAX_HORIZON));
+    }
+
+    /**
+     * Brings the model up to yesterday; cheap when already up to date
+     */
+    private synchronized void catchUp() throws SQLException {
+        if (repo == null) return;
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (fittedThrough != null && !fittedThrough.isBefore(yesterday)) return;
+
+        if (fittedThrough == null || !fitted) {
+            LocalDate from = yesterday.minusDays(FIT_DAYS - 1);
+            DailySeries series = repo.getDailySeries(from, yesterday);
+            fitted = forecaster.fit(from, series.mood());
+        } else {
+            DailySeries series = repo.getDailySeries(fittedThrough.plusDays(1), yesterday);
+            for (float mood : series.mood()) {
+                forecaster.update(mood);
+            }
+        }
+        fittedThrough = yesterday;
+    }
+}
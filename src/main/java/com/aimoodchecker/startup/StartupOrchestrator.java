@@ -0,0 +1,92 @@
+package com.aimoodchecker.startup;
+
+import com.aimoodchecker.api.ApiServer;
+import com.aimoodchecker.controller.AppController;
+import com.aimoodchecker.dao.DBConnection;
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+import com.aimoodchecker.repository.EntryRepository;
+import com.aimoodchecker.service.APIConfig;
+import com.aimoodchecker.service.BackgroundExecutor;
+import com.aimoodchecker.service.BackgroundExecutor.Resource;
+import com.aimoodchecker.service.ChangeDetectionService;
+import com.aimoodchecker.service.ForecastService;
+
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the independent startup phases concurrently while the shell window is already visible:
+ * database open and migrations, configuration loading, view preloading, repository warm-up,
+ * the change-detection replay and, if turned on, the local HTTP API.
+ */
+public class StartupOrchestrator {
+    private static final Logger log = Log.get(StartupOrchestrator.class);
+
+    /**
+     * Record representing startup progress: the app can navigate once {@code interactive}
+     * completes, and every phase has finished once {@code complete} does
+     */
+    public record Progress(CompletableFuture<Void> interactive, CompletableFuture<Void> complete) {}
+
+    private final StartupTimeline timeline;
+    private final BackgroundExecutor executor;
+
+    public StartupOrchestrator(StartupTimeline timeline, BackgroundExecutor executor) {
+        this.timeline = timeline;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts every phase in the background
+     * @param app Controller of the already visible shell, whose views are preloaded
+     */
+    public Progress start(AppController app) {
+        CompletableFuture<Void> database = phase("database", Resource.DATABASE, DBConnection::initDatabase);
+        CompletableFuture<Void> config = phase("config", Resource.CPU, APIConfig::load);
+        CompletableFuture<Void> homeView = phase("view " + AppController.HOME_VIEW, Resource.CPU,
+            () -> app.preloadView(AppController.HOME_VIEW));
+
+        // The other views and the repository warm-up only matter after the first navigation
+        CompletableFuture<?>[] rest = AppController.SECONDARY_VIEWS.stream()
+            .map(fxml -> phase("view " + fxml, Resource.CPU, () -> app.preloadView(fxml)))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> warmup = database.thenCompose(v -> phase("repository warm-up", Resource.DATABASE, this::warmUpRepository));
+        CompletableFuture<Void> detection = database.thenCompose(v -> phase("change detection", Resource.DATABASE,
+            () -> ChangeDetectionService.getInstance().start(EntryRepository.getInstance(), executor)));
+        CompletableFuture<Void> forecast = database.thenCompose(v -> phase("forecast", Resource.DATABASE,
+            () -> ForecastService.getInstance().start(EntryRepository.getInstance(), executor)));
+
+        OptionalInt apiPort = ApiServer.configuredPort();
+        CompletableFuture<Void> api = apiPort.isEmpty() ? CompletableFuture.completedFuture(null)
+            : database.thenCompose(v -> phase("local API", Resource.CPU,
+                () -> ApiServer.getInstance().start(EntryRepository.getInstance(), apiPort.getAsInt())));
+
+        CompletableFuture<Void> interactive = CompletableFuture.allOf(database, homeView);
+        CompletableFuture<Void> complete = CompletableFuture.allOf(
+            CompletableFuture.allOf(rest), config, warmup, detection, forecast, api, interactive);
+
+        return new Progress(interactive, complete);
+    }
+
+    /**
+     * Runs the common read paths once so the JDBC driver, SQLite page cache and JIT are warm
+     * before the user opens History or Trends
+     */
+    private void warmUpRepository() throws Exception {
+        EntryRepository repo = EntryRepository.getInstance();
+        repo.getMoodStatistics(30);
+        repo.findDailyAverages(30);
+    }
+
+    private CompletableFuture<Void> phase(String name, Resource resource, StartupTimeline.PhaseBody body) {
+        return executor.submit(resource, () -> {
+            try {
+                timeline.time(name, body);
+            } catch (Exception e) {
+                log.error("Startup phase '{}' failed", name, e);
+                throw e;
+            }
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.aimoodchecker.startup;
+
+import com.aimoodchecker.logging.Log;
+import com.aimoodchecker.logging.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Records when each startup phase ran, relative to JVM start, so slow phases are easy to spot.
+ * Phases may be recorded from several threads at once.
+ */
+public class StartupTimeline {
+    private static final Logger log = Log.get(StartupTimeline.class);
+
+    /**
+     * Record representing one timed phase (milestones have equal start and end)
+     */
+    public record Phase(String name, String thread, double startMillis, double endMillis) {
+        public double durationMillis() {
+            return endMillis - startMillis;
+        }
+    }
+
+    @FunctionalInterface
+    public interface PhaseBody {
+        void run() throws Exception;
+    }
+
+    private final long originNanos = System.nanoTime();
+    // Time the JVM spent before this timeline existed (class loading, JavaFX launch)
+    private final double jvmUptimeAtOriginMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Runs and records a phase on the calling thread
+     */
+    public void time(String name, PhaseBody body) throws Exception {
+        time(name, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs and records a phase on the calling thread, returning its result
+     */
+    public <T> T time(String name, Callable<T> body) throws Exception {
+        double start = now();
+        try {
+            return body.call();
+        } finally {
+            record(new Phase(name, Thread.currentThread().getName(), start, now()));
+        }
+    }
+
+    /**
+     * Records an instant milestone such as "first frame"
+     */
+    public void mark(String name) {
+        double at = now();
+        record(new Phase(name, Thread.currentThread().getName(), at, at));
+    }
+
+    /**
+     * Gets all recorded phases ordered by start time
+     */
+    public synchronized List<Phase> getPhases() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingDouble(Phase::startMillis));
+        return sorted;
+    }
+
+    /**
+     * Logs the timeline as a table
+     */
+    public void print() {
+        if (!log.isInfoEnabled()) return;
+        StringBuilder table = new StringBuilder("Startup timeline (ms since JVM start)");
+        for (Phase phase : getPhases()) {
+            table.append(System.lineSeparator());
+            if (phase.durationMillis() == 0) {
+                table.append(String.format("%8.1f            * %s", phase.startMillis(), phase.name()));
+            } else {
+                table.append(String.format("%8.1f - %8.1f  %-28s %7.1f ms  [%s]",
+                    phase.startMillis(), phase.endMillis(), phase.name(), phase.durationMillis(), phase.thread()));
+            }
+        }
+        log.info(table.toString());
+    }
+
+    private double now() {
+        return jvmUptimeAtOriginMillis + (System.nanoTime() - originNanos) / 1_000_000.0;
+    }
+
+    private synchronized void record(Phase phase) {
+        phases.add(phase);
+    }
+}
@@ -0,0 +1,209 @@
+package com.aimoodchecker.view;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * GitHub-style calendar heatmap drawn on a single Canvas: one band per year (newest on top),
+ * one column per week and one row per weekday (Monday first).
+ * Values are normalized to 0-1 and NaN marks days without entries. Hovering is resolved by
+ * turning the mouse position back into a day index, so no per-cell nodes are needed.
+ */
+public class CalendarHeatmap extends Canvas {
+
+    private static final double CELL = 12;
+    private static final double GAP = 2;
+    private static final double STEP = CELL + GAP;
+    private static final double LEFT = 44;
+    private static final double TOP = 28;
+    private static final double BAND_HEADER = 18;
+    private static final double BAND_HEIGHT = BAND_HEADER + 7 * STEP + 10;
+    private static final int WEEK_COLUMNS = 54;
+
+    // Shared with WeekHourHeatmap so both grids read the same
+    static final Color EMPTY = Color.rgb(255, 255, 255, 0.12);
+    static final Color TEXT = Color.rgb(255, 255, 255, 0.85);
+    // Sad (red) -> neutral (amber) -> happy (green), precomputed so drawing allocates nothing
+    private static final Color[] PALETTE = buildPalette(11);
+
+    private final Tooltip tooltip = new Tooltip();
+
+    private long startEpoch;
+    private float[] values = new float[0];
+    private String valueLabel = "";
+    private int firstYear;
+    private int lastYear;
+
+    public CalendarHeatmap() {
+        setOnMouseMoved(event -> {
+            int index = indexAt(event.getX(), event.getY());
+            if (index < 0) {
+                tooltip.hide();
+                return;
+            }
+            LocalDate date = LocalDate.ofEpochDay(startEpoch + index);
+            float value = values[index];
+            tooltip.setText(date + "\n" + (Float.isNaN(value)
+                ? "No entries"
+                : valueLabel + ": " + Math.round(value * 100) + "%"));
+            tooltip.show(this, event.getScreenX() + 14, event.getScreenY() + 14);
+        });
+        setOnMouseExited(event -> tooltip.hide());
+    }
+
+    /**
+     * Replaces the data; call redraw() afterwards
+     * @param start Date of values[0]
+     * @param values One normalized (0-1) value per day, NaN for days without entries
+     * @param valueLabel Name shown in tooltips, e.g. "Mood"
+     */
+    public void setData(LocalDate start, float[] values, String valueLabel) {
+        this.startEpoch = start.toEpochDay();
+        this.values = values;
+        this.valueLabel = valueLabel;
+        this.firstYear = start.getYear();
+        this.lastYear = values.length == 0 ? firstYear : start.plusDays(values.length - 1).getYear();
+
+        setWidth(LEFT + WEEK_COLUMNS * STEP + 8);
+        setHeight(TOP + (lastYear - firstYear + 1) * BAND_HEIGHT);
+    }
+
+    /**
+     * Draws every day as one rectangle; returns the time taken in milliseconds
+     */
+    public double redraw() {
+        long startNanos = System.nanoTime();
+        GraphicsContext g = getGraphicsContext2D();
+        g.clearRect(0, 0, getWidth(), getHeight());
+
+        drawLegend(g);
+
+        for (int year = lastYear; year >= firstYear; year--) {
+            drawYearHeader(g, year);
+        }
+
+        // Walk the days once; the cell position follows from the epoch day alone
+        int year = firstYear;
+        long jan1 = LocalDate.of(year, 1, 1).toEpochDay();
+        long nextJan1 = LocalDate.of(year + 1, 1, 1).toEpochDay();
+        for (int i = 0; i < values.length; i++) {
+            long epochDay = startEpoch + i;
+            while (epochDay >= nextJan1) {
+                year++;
+                jan1 = nextJan1;
+                nextJan1 = LocalDate.of(year + 1, 1, 1).toEpochDay();
+            }
+
+            int row = weekdayRow(epochDay);
+            int column = (int) ((epochDay - jan1 + weekdayRow(jan1)) / 7);
+            double x = LEFT + column * STEP;
+            double y = bandTop(year) + BAND_HEADER + row * STEP;
+
+            float value = values[i];
+            g.setFill(Float.isNaN(value) ? EMPTY : colorFor(value));
+            g.fillRect(x, y, CELL, CELL);
+        }
+
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    /**
+     * Turns a mouse position into an index into the values array, or -1 outside any day cell
+     */
+    private int indexAt(double x, double y) {
+        if (values.length == 0 || x < LEFT || y < TOP) return -1;
+
+        int band = (int) ((y - TOP) / BAND_HEIGHT);
+        int year = lastYear - band;
+        if (year < firstYear) return -1;
+
+        double inBand = y - bandTop(year) - BAND_HEADER;
+        int row = (int) Math.floor(inBand / STEP);
+        int column = (int) ((x - LEFT) / STEP);
+        if (row < 0 || row > 6 || column >= WEEK_COLUMNS) return -1;
+
+        long jan1 = LocalDate.of(year, 1, 1).toEpochDay();
+        long epochDay = jan1 - weekdayRow(jan1) + column * 7L + row;
+        if (epochDay < jan1 || epochDay >= LocalDate.of(year + 1, 1, 1).toEpochDay()) return -1;
+
+        long index = epochDay - startEpoch;
+        return index >= 0 && index < values.length ? (int) index : -1;
+    }
+
+    private void drawYearHeader(GraphicsContext g, int year) {
+        double top = bandTop(year);
+        g.setFill(TEXT);
+        g.setFont(Font.font(12));
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.TOP);
+        g.fillText(String.valueOf(year), 0, top);
+
+        long jan1 = LocalDate.of(year, 1, 1).toEpochDay();
+        for (Month month : Month.values()) {
+            long first = LocalDate.of(year, month, 1).toEpochDay();
+            int column = (int) ((first - jan1 + weekdayRow(jan1)) / 7);
+            g.fillText(month.getDisplayName(TextStyle.SHORT, Locale.getDefault()), LEFT + column * STEP, top);
+        }
+
+        g.setFont(Font.font(10));
+        g.setTextBaseline(VPos.CENTER);
+        g.fillText("Mon", 14, top + BAND_HEADER + CELL / 2);
+        g.fillText("Sun", 14, top + BAND_HEADER + 6 * STEP + CELL / 2);
+    }
+
+    private void drawLegend(GraphicsContext g) {
+        g.setFill(TEXT);
+        g.setFont(Font.font(11));
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        g.fillText("Low", LEFT, 8);
+        double x = LEFT + 30;
+        for (Color color : PALETTE) {
+            g.setFill(color);
+            g.fillRect(x, 2, CELL, CELL);
+            x += STEP;
+        }
+        g.setFill(TEXT);
+        g.fillText("High", x + 4, 8);
+    }
+
+    private double bandTop(int year) {
+        return TOP + (lastYear - year) * BAND_HEIGHT;
+    }
+
+    /**
+     * Monday = 0 ... Sunday = 6 (1970-01-01 was a Thursday)
+     */
+    private static int weekdayRow(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    static Color colorFor(float value) {
+        int bucket = Math.round(Math.max(0f, Math.min(1f, value)) * (PALETTE.length - 1));
+        return PALETTE[bucket];
+    }
+
+    private static Color[] buildPalette(int size) {
+        Color sad = Color.web("#ef4444");
+        Color neutral = Color.web("#f59e0b");
+        Color happy = Color.web("#10b981");
+        Color[] palette = new Color[size];
+        for (int i = 0; i < size; i++) {
+            double t = (double) i / (size - 1);
+            palette[i] = t < 0.5
+                ? sad.interpolate(neutral, t * 2)
+                : neutral.interpolate(happy, (t - 0.5) * 2);
+        }
+        return palette;
+    }
+}
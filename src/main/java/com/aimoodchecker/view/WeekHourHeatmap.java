@@ -0,0 +1,99 @@
+package com.aimoodchecker.view;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * Heat grid of one value per weekday (rows, Monday first) and hour of day (columns), drawn on
+ * a single Canvas with the same colors as {@link CalendarHeatmap}. Values are normalized to
+ * 0-1; cells without entries are drawn empty.
+ */
+public class WeekHourHeatmap extends Canvas {
+
+    private static final double CELL = 22;
+    private static final double GAP = 2;
+    private static final double STEP = CELL + GAP;
+    private static final double LEFT = 44;
+    private static final double TOP = 20;
+
+    private final Tooltip tooltip = new Tooltip();
+
+    private float[] values = new float[7 * 24];
+    private int[] counts = new int[7 * 24];
+    private String valueLabel = "";
+
+    public WeekHourHeatmap() {
+        setWidth(LEFT + 24 * STEP + 8);
+        setHeight(TOP + 7 * STEP + 4);
+
+        setOnMouseMoved(event -> {
+            int cell = cellAt(event.getX(), event.getY());
+            if (cell < 0) {
+                tooltip.hide();
+                return;
+            }
+            int hour = cell % 24;
+            String day = DayOfWeek.of(cell / 24 + 1).getDisplayName(TextStyle.FULL, Locale.getDefault());
+            tooltip.setText(String.format("%s %02d:00-%02d:00%n%s", day, hour, (hour + 1) % 24,
+                counts[cell] == 0
+                    ? "No entries"
+                    : (Float.isNaN(values[cell]) ? "No " + valueLabel : valueLabel + ": " + Math.round(values[cell] * 100) + "%")
+                        + " (" + counts[cell] + (counts[cell] == 1 ? " entry)" : " entries)")));
+            tooltip.show(this, event.getScreenX() + 14, event.getScreenY() + 14);
+        });
+        setOnMouseExited(event -> tooltip.hide());
+    }
+
+    /**
+     * Replaces the data; call redraw() afterwards
+     * @param values Normalized (0-1) value per cell (weekday * 24 + hour), NaN if empty or unscored
+     * @param counts Number of entries per cell, shown in the tooltip
+     * @param valueLabel Name shown in tooltips, e.g. "Mood"
+     */
+    public void setData(float[] values, int[] counts, String valueLabel) {
+        this.values = values;
+        this.counts = counts;
+        this.valueLabel = valueLabel;
+    }
+
+    public void redraw() {
+        GraphicsContext g = getGraphicsContext2D();
+        g.clearRect(0, 0, getWidth(), getHeight());
+
+        g.setFill(CalendarHeatmap.TEXT);
+        g.setFont(Font.font(10));
+        g.setTextAlign(TextAlignment.CENTER);
+        g.setTextBaseline(VPos.TOP);
+        for (int hour = 0; hour < 24; hour += 3) {
+            g.fillText(String.format("%02d", hour), LEFT + hour * STEP + CELL / 2, 2);
+        }
+        g.setTextAlign(TextAlignment.LEFT);
+        g.setTextBaseline(VPos.CENTER);
+        for (int day = 0; day < 7; day++) {
+            g.fillText(DayOfWeek.of(day + 1).getDisplayName(TextStyle.SHORT, Locale.getDefault()),
+                       4, TOP + day * STEP + CELL / 2);
+        }
+
+        for (int cell = 0; cell < values.length; cell++) {
+            float value = values[cell];
+            g.setFill(Float.isNaN(value) ? CalendarHeatmap.EMPTY : CalendarHeatmap.colorFor(value));
+            g.fillRect(LEFT + (cell % 24) * STEP, TOP + (cell / 24) * STEP, CELL, CELL);
+        }
+    }
+
+    private int cellAt(double x, double y) {
+        if (x < LEFT || y < TOP) return -1;
+        int column = (int) ((x - LEFT) / STEP);
+        int row = (int) ((y - TOP) / STEP);
+        if (column >= 24 || row >= 7) return -1;
+        return row * 24 + column;
+    }
+}
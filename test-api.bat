@@ -0,0 +1,13 @@
+@echo off
+echo Running local API request checks and load test...
+echo.
+
+REM Compile and collect the dependency classpath (sqlite-jdbc, Jackson)
+call mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+set /p DEPS=<target/cp.txt
+
+REM Runs against a scratch database, never mood.db
+REM Arguments: [seconds] [clients], default 10 and 64
+java -Daimoodchecker.db=api-load-test.db -Daimoodchecker.log.console=false -cp "target/classes;%DEPS%" com.aimoodchecker.TestApiLoad %*
+
+pause
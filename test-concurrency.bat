@@ -0,0 +1,12 @@
+@echo off
+echo Running repository concurrency stress test...
+echo.
+
+REM Compile and collect the dependency classpath (sqlite-jdbc)
+call mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+set /p DEPS=<target/cp.txt
+
+REM Runs against a scratch database, never mood.db
+java -Daimoodchecker.db=stress-test.db -cp "target/classes;%DEPS%" com.aimoodchecker.TestRepositoryConcurrency
+
+pause
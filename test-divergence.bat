@@ -0,0 +1,10 @@
+@echo off
+echo Running divergence analysis test (1M synthetic entries)...
+echo.
+
+REM Compile; the test runs in memory and needs no dependencies
+call mvn -q compile
+
+java -cp "target/classes" com.aimoodchecker.TestDivergenceAnalysis
+
+pause
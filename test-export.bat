@@ -0,0 +1,12 @@
+@echo off
+echo Running export/import round trip test...
+echo.
+
+REM Compile and collect the dependency classpath (sqlite-jdbc, Jackson)
+call mvn -q compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+set /p DEPS=<target/cp.txt
+
+REM Runs against a scratch database, never mood.db
+java -Daimoodchecker.db=export-test.db -Daimoodchecker.log.console=false -cp "target/classes;%DEPS%" com.aimoodchecker.TestExportRoundTrip
+
+pause
@@ -0,0 +1,10 @@
+@echo off
+echo Running semantic retrieval test (100k synthetic entries)...
+echo.
+
+REM Compile; the test runs in memory and needs no dependencies
+call mvn -q compile
+
+java -cp "target/classes" com.aimoodchecker.TestSemanticRetrieval
+
+pause
@@ -0,0 +1,15 @@
+@echo off
+echo Recording AOT cache for faster startup...
+echo.
+
+set FX_LIB=C:\Program Files (x86)\openjfx-24.0.2_windows-x64_bin-sdk\javafx-sdk-24.0.2\lib
+
+REM 1. Training run: starts the app, visits every view once and exits
+java -XX:AOTMode=record -XX:AOTConfiguration=app.aotconf --module-path "%FX_LIB%" --add-modules javafx.controls,javafx.fxml -cp target/classes com.aimoodchecker.Main --training-run
+
+REM 2. Build the AOT cache (JDK 24+) from the recorded configuration
+java -XX:AOTMode=create -XX:AOTConfiguration=app.aotconf -XX:AOTCache=app.aot --module-path "%FX_LIB%" --add-modules javafx.controls,javafx.fxml -cp target/classes
+
+echo.
+echo Done. run-app.bat picks up app.aot automatically.
+pause